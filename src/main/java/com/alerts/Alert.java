@@ -1,26 +1,118 @@
 package com.alerts;
 
 // Represents an alert
+//
+// Alerts are keyed by the numeric patient ID and a shared AlertCondition, so
+// creating one allocates nothing but the alert itself. The textual patient ID
+// is only built when asked for. An ID that is not the plain decimal form of a
+// non-negative number, e.g., "P-12" or "007", has no numeric ID and is keyed by
+// its text, see getPatientKey.
 public class Alert {
-    private String patientId;
-    private String condition;
-    private long timestamp;
+    private final int patientId;
+    private String patientIdText; // built on first use
+    private final AlertCondition condition;
+    private final long timestamp;
 
     public Alert(String string, String condition, long timestamp) {
-        this.patientId = string;
+        this.patientId = parsePatientId(string);
+        this.patientIdText = string;
+        this.condition = AlertCondition.of(condition);
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Constructs an alert without building any strings.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param condition the condition that triggered the alert
+     * @param timestamp the time of the alert
+     */
+    public Alert(int patientId, AlertCondition condition, long timestamp) {
+        this.patientId = patientId;
         this.condition = condition;
         this.timestamp = timestamp;
     }
 
     public String getPatientId() {
+        String text = patientIdText;
+        if (text == null) {
+            text = Integer.toString(patientId);
+            patientIdText = text; // racing threads build equal strings
+        }
+        return text;
+    }
+
+    /**
+     * Returns the patient ID as a number.
+     *
+     * @return the patient ID, or -1 if the alert was created with an ID that
+     *         is not the plain decimal form of a non-negative number
+     */
+    public int getNumericPatientId() {
         return patientId;
     }
 
+    /**
+     * Returns the key that identifies the patient of this alert in indexes:
+     * the numeric ID where there is one, the textual ID otherwise, so that
+     * "P-12" and "P-13", or "007" and "7", are kept apart.
+     *
+     * @return an {@link Integer} or a {@link String}
+     */
+    public Object getPatientKey() {
+        return patientId >= 0 ? Integer.valueOf(patientId) : getPatientId();
+    }
+
+    /**
+     * Returns the key of a textual patient ID, equal to
+     * {@link #getPatientKey()} of the alerts created with that ID.
+     *
+     * @param patientId the textual patient ID
+     * @return an {@link Integer} or a {@link String}
+     */
+    public static Object patientKey(String patientId) {
+        int id = parsePatientId(patientId);
+        return id >= 0 ? Integer.valueOf(id) : patientId;
+    }
+
     public String getCondition() {
+        return condition.getName();
+    }
+
+    /**
+     * Returns the shared condition of this alert.
+     *
+     * @return the condition
+     */
+    public AlertCondition getAlertCondition() {
         return condition;
     }
 
     public long getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * Parses a textual patient ID whose decimal form round-trips, i.e.,
+     * without sign or leading zeros.
+     *
+     * @param patientId the textual patient ID
+     * @return the ID as a number, or -1 if it is not the plain decimal form of
+     *         a non-negative number
+     */
+    public static int parsePatientId(String patientId) {
+        if (patientId == null || patientId.isEmpty() || (patientId.charAt(0) == '0' && patientId.length() > 1)) {
+            return -1;
+        }
+        for (int i = 0; i < patientId.length(); i++) {
+            if (patientId.charAt(i) < '0' || patientId.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Integer.parseInt(patientId);
+        } catch (NumberFormatException e) {
+            return -1; // too large for an int
+        }
+    }
 }
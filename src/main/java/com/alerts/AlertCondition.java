@@ -0,0 +1,113 @@
+package com.alerts;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A condition reported by alerts, such as "Low Saturation Alert", shared by
+ * all alerts that report it.
+ * Every distinct condition text exists once and carries a compact integer
+ * code, so creating an alert neither builds nor copies a string, and alerts
+ * can be grouped by comparing codes. The conditions raised by the built-in
+ * rules are registered by the {@link com.alerts.factory.AlertFactory}
+ * subclasses up front; any other condition is registered the first time it is
+ * used.
+ */
+public final class AlertCondition {
+    private static final Map<String, AlertCondition> byName = new ConcurrentHashMap<>();
+    private static volatile AlertCondition[] byCode = new AlertCondition[0];
+
+    private final int code;
+    private final String name;
+
+    private AlertCondition(int code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    /**
+     * Returns the condition with the given text, registering it if it has not
+     * been seen before.
+     *
+     * @param name the condition text
+     * @return the shared condition
+     */
+    public static AlertCondition of(String name) {
+        AlertCondition condition = byName.get(name);
+        return condition != null ? condition : register(name);
+    }
+
+    /**
+     * Returns the condition with the given text without registering it.
+     *
+     * @param name the condition text
+     * @return the shared condition, or {@code null} if the condition is
+     *         unknown
+     */
+    public static AlertCondition lookup(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+
+    /**
+     * Returns the condition registered for a code.
+     *
+     * @param code a code returned by {@link #getCode()}
+     * @return the condition
+     * @throws IllegalArgumentException if no condition is registered for the
+     *                                  code
+     */
+    public static AlertCondition forCode(int code) {
+        AlertCondition[] current = byCode;
+        if (code < 0 || code >= current.length) {
+            throw new IllegalArgumentException("Unknown alert condition code: " + code);
+        }
+        return current[code];
+    }
+
+    /**
+     * Returns the number of registered conditions. Codes are always in the
+     * range {@code 0} to {@code size() - 1}.
+     *
+     * @return the number of registered conditions
+     */
+    public static int size() {
+        return byCode.length;
+    }
+
+    /**
+     * Returns the code of this condition.
+     *
+     * @return the code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the text of this condition.
+     *
+     * @return the condition text
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static synchronized AlertCondition register(String name) {
+        AlertCondition existing = byName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        AlertCondition condition = new AlertCondition(byCode.length, name);
+        AlertCondition[] grown = Arrays.copyOf(byCode, byCode.length + 1);
+        grown[condition.code] = condition;
+        byCode = grown; // publish the code first, so a condition found by name is found by code
+        byName.put(name, condition);
+        return condition;
+    }
+}
@@ -0,0 +1,254 @@
+package com.alerts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alerts.clock.AlertClock;
+import com.alerts.strategy.AlertStrategy;
+import com.alerts.strategy.AlertStrategyExecutor;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientChangeVisitor;
+
+/**
+ * Runs the {@link AlertStrategy} implementations over every patient in a
+ * {@link DataStorage}, spreading the patients across a pool of worker threads.
+ * Each patient is evaluated by an {@link AlertStrategyExecutor}, so all
+ * strategies share a single scan of the patient's history.
+ * A pass splits the patient list into ranges that are evaluated in parallel on
+ * a {@link ForkJoinPool}; passes can be run on demand or at a fixed cadence.
+ * The duration of the last pass is recorded so the pool can be sized.
+ * Every pass reads its {@link AlertClock} once, so all patients of a pass are
+ * evaluated against the same end of window.
+ * With {@link #setChangedPatientsOnly(boolean)}, a pass drains the storage's
+ * change set instead and only runs, for each patient that received data since
+ * the previous pass, the strategies that read one of the changed record types.
+ * A pass over an idle storage then does almost no work. The trade-off is that
+ * a window sliding past old readings alone does not re-evaluate a patient.
+ * A periodic pass that throws is logged and counted, and does not stop the
+ * passes that follow.
+ */
+public class AlertEvaluationScheduler {
+    private static final int PATIENTS_PER_TASK = 16; // ranges smaller than this are not split further
+
+    private final DataStorage dataStorage;
+    private final AlertStrategyExecutor executor;
+    private final AlertClock clock;
+    private final ForkJoinPool workers;
+    private final ScheduledExecutorService timer;
+    private ScheduledFuture<?> periodicPass;
+    private volatile boolean changedPatientsOnly;
+
+    private volatile long lastPassNanos;
+    private volatile int lastPassPatients;
+    private final AtomicLong passCount = new AtomicLong();
+    private final AtomicLong failedPassCount = new AtomicLong();
+
+    /**
+     * Constructs a scheduler with a fixed number of worker threads.
+     *
+     * @param dataStorage the storage whose patients are evaluated
+     * @param strategies  the strategies run for every patient
+     * @param workerCount the number of worker threads
+     */
+    public AlertEvaluationScheduler(DataStorage dataStorage, List<AlertStrategy> strategies, int workerCount) {
+        this(dataStorage, strategies, workerCount, AlertClock.SYSTEM);
+    }
+
+    /**
+     * Constructs a scheduler with a fixed number of worker threads that takes
+     * the end of the evaluation windows from a clock.
+     *
+     * @param dataStorage the storage whose patients are evaluated
+     * @param strategies  the strategies run for every patient
+     * @param workerCount the number of worker threads
+     * @param clock       the clock that determines where the windows end
+     */
+    public AlertEvaluationScheduler(DataStorage dataStorage, List<AlertStrategy> strategies, int workerCount,
+            AlertClock clock) {
+        this.dataStorage = dataStorage;
+        this.clock = clock;
+        this.executor = new AlertStrategyExecutor(strategies);
+        this.workers = new ForkJoinPool(workerCount);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "alert-evaluation-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Evaluates every patient once and waits until all are done.
+     *
+     * @return the duration of the pass, in nanoseconds
+     */
+    public long runPass() {
+        long start = System.nanoTime();
+        List<Patient> patients;
+        long[] changedTypes = null;
+        if (changedPatientsOnly) {
+            ChangedPatients changed = new ChangedPatients();
+            dataStorage.drainChanges(changed);
+            patients = changed.patients;
+            changedTypes = changed.recordTypes;
+        } else {
+            patients = dataStorage.getAllPatients();
+        }
+        workers.invoke(new EvaluationTask(patients, changedTypes, 0, patients.size(), clock.currentTimeMillis()));
+        long duration = System.nanoTime() - start;
+        lastPassNanos = duration;
+        lastPassPatients = patients.size();
+        passCount.incrementAndGet();
+        return duration;
+    }
+
+    /**
+     * Sets whether a pass evaluates only the patients, and only the strategies,
+     * whose data changed since the previous pass, rather than every patient.
+     *
+     * @param changedOnly {@code true} to evaluate only changed patients
+     */
+    public void setChangedPatientsOnly(boolean changedOnly) {
+        this.changedPatientsOnly = changedOnly;
+    }
+
+    /**
+     * Starts running a pass at a fixed cadence. A pass that overruns the period
+     * delays the next one rather than overlapping with it.
+     *
+     * @param period   the time between the starts of consecutive passes
+     * @param timeUnit the unit of the period
+     */
+    public synchronized void start(long period, TimeUnit timeUnit) {
+        if (periodicPass == null) {
+            periodicPass = timer.scheduleAtFixedRate(this::runPeriodicPass, 0, period, timeUnit);
+        }
+    }
+
+    /**
+     * Runs a pass for the timer. An exception that escaped the pass would
+     * cancel all later passes, so it is logged and counted instead.
+     */
+    private void runPeriodicPass() {
+        try {
+            runPass();
+        } catch (RuntimeException e) {
+            failedPassCount.incrementAndGet();
+            System.err.println("Alert evaluation pass failed: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the periodic passes and shuts the worker pool down.
+     */
+    public synchronized void stop() {
+        if (periodicPass != null) {
+            periodicPass.cancel(false);
+            periodicPass = null;
+        }
+        timer.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Returns the duration of the most recent pass.
+     *
+     * @return the duration, in nanoseconds, or 0 if no pass has run
+     */
+    public long getLastPassNanos() {
+        return lastPassNanos;
+    }
+
+    /**
+     * Returns the number of patients evaluated by the most recent pass.
+     *
+     * @return the number of patients
+     */
+    public int getLastPassPatients() {
+        return lastPassPatients;
+    }
+
+    /**
+     * Returns the number of passes completed so far.
+     *
+     * @return the number of passes
+     */
+    public long getPassCount() {
+        return passCount.get();
+    }
+
+    /**
+     * Returns the number of periodic passes that failed with an exception.
+     *
+     * @return the number of failed passes
+     */
+    public long getFailedPassCount() {
+        return failedPassCount.get();
+    }
+
+    /**
+     * Collects the drained changes as a patient list with the changed record
+     * types at the same positions.
+     */
+    private static class ChangedPatients implements PatientChangeVisitor {
+        private final List<Patient> patients = new ArrayList<>();
+        private long[] recordTypes = new long[16];
+
+        @Override
+        public void onChange(Patient patient, long changedTypes) {
+            if (patients.size() == recordTypes.length) {
+                recordTypes = Arrays.copyOf(recordTypes, recordTypes.length * 2);
+            }
+            recordTypes[patients.size()] = changedTypes;
+            patients.add(patient);
+        }
+    }
+
+    /**
+     * Evaluates a range of the patient list, splitting it in halves while it is
+     * larger than {@link #PATIENTS_PER_TASK}.
+     */
+    private class EvaluationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Patient> patients;
+        private final long[] changedTypes; // null when every strategy runs
+        private final int from;
+        private final int to;
+        private final long currentTime;
+
+        EvaluationTask(List<Patient> patients, long[] changedTypes, int from, int to, long currentTime) {
+            this.patients = patients;
+            this.changedTypes = changedTypes;
+            this.from = from;
+            this.to = to;
+            this.currentTime = currentTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PATIENTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    if (changedTypes == null) {
+                        executor.evaluate(patients.get(i), currentTime);
+                    } else {
+                        executor.evaluate(patients.get(i), currentTime, changedTypes[i]);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(patients, changedTypes, from, middle, currentTime),
+                    new EvaluationTask(patients, changedTypes, middle, to, currentTime));
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.alerts;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+import com.alerts.clock.AlertClock;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.factory.BloodOxygenAlertFactory;
+import com.alerts.factory.BloodPressureAlertFactory;
+import com.alerts.factory.ECGAlertFactory;
+import com.alerts.history.AlertHistory;
+import com.alerts.rules.RuleCheck;
+import com.alerts.rules.RuleSet;
+import com.alerts.streaming.HypotensiveHypoxemiaRule;
+import com.alerts.streaming.TemporalJoin;
+import com.alerts.suppression.AlertSuppressor;
+import com.alerts.window.DeltaRunLength;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
+import com.data_management.RecordTypeRegistry;
 
 
 /**
@@ -18,8 +29,21 @@ import com.data_management.PatientRecord;
  * it against specific health criteria.
  */
 public class AlertGenerator {
+    private static final long HYPOTENSIVE_HYPOXEMIA_TOLERANCE = 600000; // ten minutes
+    private static final TemporalJoin HYPOTENSIVE_HYPOXEMIA =
+            HypotensiveHypoxemiaRule.createJoin(HYPOTENSIVE_HYPOXEMIA_TOLERANCE);
+    private static final RuleSet DEFAULT_RULES = RuleSet.loadDefaults();
     
     private DataStorage dataStorage;
+    private AlertDispatcher dispatcher; // null when alerts are printed synchronously
+    private volatile AlertSuppressor suppressor; // null when every alert is delivered
+    private volatile AlertHistory history; // null when delivered alerts are not recorded
+    private volatile AlertClock clock = AlertClock.SYSTEM;
+    private volatile RuleSet ruleSet = DEFAULT_RULES; // thresholds of the evaluators over stored readings
+    private final Consumer<Alert> delivery = this::deliverAlert;
+    private final BloodPressureAlertFactory pressureAlerts = new BloodPressureAlertFactory();
+    private final BloodOxygenAlertFactory oxygenAlerts = new BloodOxygenAlertFactory();
+    private final ECGAlertFactory ecgAlerts = new ECGAlertFactory();
     
 
     /**
@@ -34,6 +58,19 @@ public class AlertGenerator {
         this.dataStorage = dataStorage;
     }
 
+    /**
+     * Constructs an {@code AlertGenerator} that hands triggered alerts to an
+     * {@link AlertDispatcher} instead of printing them on the calling thread.
+     *
+     * @param dataStorage the data storage system that provides access to patient
+     *                    data
+     * @param dispatcher  the dispatcher that delivers alerts to its sinks
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertDispatcher dispatcher) {
+        this.dataStorage = dataStorage;
+        this.dispatcher = dispatcher;
+    }
+
     /**
      * Evaluates the specified patient's data to determine if any alert conditions
      * are met. If a condition is met, an alert is triggered via the
@@ -49,150 +86,134 @@ public class AlertGenerator {
             throw new NullPointerException("Patient data is null.");
         }
     
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         long oneDayAgo = currentTime - 86400000;
         long oneHourAgo = currentTime - 3600000;
         long tenMinutesAgo = currentTime - 600000;
     
-        evaluatePressure(getFilteredRecords(patient.getPatientId(), oneDayAgo, currentTime, "SystolicPressure"), "Systolic", currentTime, patient);
-        evaluatePressure(getFilteredRecords(patient.getPatientId(), oneDayAgo, currentTime, "DiastolicPressure"), "Diastolic", currentTime, patient);
-        evaluateBloodOxygen(patient);
-        evaluateECG(getFilteredRecords(patient.getPatientId(), oneHourAgo, currentTime, "ECG"), patient);
-        evaluateHypotensiveHypoxemia(getFilteredRecords(patient.getPatientId(), oneDayAgo, currentTime, "SystolicPressure"), getFilteredRecords(patient.getPatientId(), tenMinutesAgo, currentTime, "Saturation"), patient, currentTime);
+        evaluatePressure(getFilteredRecords(patient.getPatientId(), oneDayAgo, currentTime, RecordTypeRegistry.SYSTOLIC_PRESSURE), RecordTypeRegistry.SYSTOLIC_PRESSURE, currentTime, patient);
+        evaluatePressure(getFilteredRecords(patient.getPatientId(), oneDayAgo, currentTime, RecordTypeRegistry.DIASTOLIC_PRESSURE), RecordTypeRegistry.DIASTOLIC_PRESSURE, currentTime, patient);
+        evaluateBloodOxygen(patient, currentTime);
+        evaluateECG(getFilteredRecords(patient.getPatientId(), oneHourAgo, currentTime, RecordTypeRegistry.HEART_RATE), getFilteredRecords(patient.getPatientId(), oneHourAgo, currentTime, RecordTypeRegistry.RR_INTERVAL), patient);
+        // Low saturation within the last ten minutes, with low pressure within the tolerance of it
+        long pressureStart = tenMinutesAgo - HYPOTENSIVE_HYPOXEMIA_TOLERANCE;
+        evaluateHypotensiveHypoxemia(getFilteredRecords(patient.getPatientId(), pressureStart, currentTime, RecordTypeRegistry.SYSTOLIC_PRESSURE), getFilteredRecords(patient.getPatientId(), tenMinutesAgo, currentTime, RecordTypeRegistry.SATURATION), patient, currentTime);
     }
     
-    private List<PatientRecord> getFilteredRecords(int patientId, long from, long to, String recordType) {
-        List<PatientRecord> records = dataStorage.getRecords(patientId, from, to);
-        List<PatientRecord> filteredRecords = new ArrayList<>();
-        
-        for (PatientRecord record : records) {
-            if (recordType.equals(record.getRecordType())) {
-                filteredRecords.add(record);
-            }
-        }
-        
-        Collections.sort(filteredRecords, new Comparator<PatientRecord>() {
-            @Override
-            public int compare(PatientRecord r1, PatientRecord r2) {
-                return Long.compare(r2.getTimestamp(), r1.getTimestamp());
-            }
-        });
-        
-        return filteredRecords;
+    private List<PatientRecord> getFilteredRecords(int patientId, long from, long to, int recordType) {
+        // The storage indexes by record type and returns the records oldest first
+        return dataStorage.getRecords(patientId, recordType, from, to);
     }
     
     
-    private void evaluateThreshold(List<PatientRecord> records, int threshold, String alertMessage, Patient patient) {
-        for (PatientRecord record : records) {
-            if (record.getMeasurementValue() < threshold) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), alertMessage, record.getTimestamp()));
-                break;
-            }
-        }
-    }
-    
-    private void evaluateThresholdAndTrend(List<PatientRecord> records, int upperThreshold, int lowerThreshold, int trendThreshold, String recordType, String thresholdAlert, String trendAlert, Patient patient, long currentTime) {
+    private void evaluateThresholdAndTrend(List<PatientRecord> records, AlertCondition thresholdAlert, AlertCondition increasingAlert, AlertCondition decreasingAlert, Patient patient, long currentTime) {
+        RuleCheck threshold = ruleSet.check(thresholdAlert.getName(), patient.getPatientId());
         for (PatientRecord record : records) {
-            if (record.getMeasurementValue() > upperThreshold || record.getMeasurementValue() < lowerThreshold) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), thresholdAlert + " (" + recordType + ")", record.getTimestamp()));
+            if (threshold.test(record.getRecordTypeCode(), record.getTimestamp(), record.getMeasurementValue())) {
+                triggerAlert(pressureAlerts.createAlert(patient.getPatientId(), thresholdAlert, record.getTimestamp()));
             }
         }
     
         if (records.size() >= 3) {
-            boolean increasing = true;
-            boolean decreasing = true;
-    
-            for (int i = 1; i < records.size(); i++) {
-                if (records.get(i).getMeasurementValue() <= records.get(i - 1).getMeasurementValue()) {
-                    increasing = false;
-                }
-                if (records.get(i).getMeasurementValue() >= records.get(i - 1).getMeasurementValue()) {
-                    decreasing = false;
-                }
+            DeltaRunLength runs = new DeltaRunLength(0, Long.MAX_VALUE);
+            for (PatientRecord record : records) {
+                runs.add(record.getTimestamp(), record.getMeasurementValue());
             }
+            boolean increasing = runs.risingRun() == records.size();
+            boolean decreasing = runs.fallingRun() == records.size();
     
             if (increasing) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), trendAlert + " Increasing Trend", currentTime));
+                triggerAlert(pressureAlerts.createAlert(patient.getPatientId(), increasingAlert, currentTime));
             } else if (decreasing) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), trendAlert + " Decreasing Trend", currentTime));
+                triggerAlert(pressureAlerts.createAlert(patient.getPatientId(), decreasingAlert, currentTime));
             }
         }
     }
     
 
-    private void evaluatePressure(List<PatientRecord> records, String type, long currentTime, Patient patient) {
-        if (type.equals("Systolic")) {
-            evaluateThresholdAndTrend(records, 180, 90, 10, "SystolicPressure", "Critical Pressure Threshold Alert", type, patient, currentTime);
-        } else if (type.equals("Diastolic")) {
-            evaluateThresholdAndTrend(records, 120, 60, 10, "DiastolicPressure", "Critical Pressure Threshold Alert", type, patient, currentTime);
+    private void evaluatePressure(List<PatientRecord> records, int recordType, long currentTime, Patient patient) {
+        if (recordType == RecordTypeRegistry.SYSTOLIC_PRESSURE) {
+            evaluateThresholdAndTrend(records, BloodPressureAlertFactory.CRITICAL_SYSTOLIC_PRESSURE,
+                    BloodPressureAlertFactory.SYSTOLIC_INCREASING_TREND, BloodPressureAlertFactory.SYSTOLIC_DECREASING_TREND,
+                    patient, currentTime);
+        } else if (recordType == RecordTypeRegistry.DIASTOLIC_PRESSURE) {
+            evaluateThresholdAndTrend(records, BloodPressureAlertFactory.CRITICAL_DIASTOLIC_PRESSURE,
+                    BloodPressureAlertFactory.DIASTOLIC_INCREASING_TREND, BloodPressureAlertFactory.DIASTOLIC_DECREASING_TREND,
+                    patient, currentTime);
         }
     }
     
     
-    private void evaluateBloodOxygen(Patient patient) {
-        long currentTime = System.currentTimeMillis();
-        List<PatientRecord> records = dataStorage.getRecords(patient.getPatientId(), currentTime - 600000, currentTime)
-            .stream()
-            .filter(r -> "Saturation".equals(r.getRecordType()))
-            .sorted(Comparator.comparingLong(PatientRecord::getTimestamp))
-            .collect(Collectors.toList());
+    private void evaluateBloodOxygen(Patient patient, long currentTime) {
+        List<PatientRecord> records = getFilteredRecords(patient.getPatientId(), currentTime - 600000, currentTime, RecordTypeRegistry.SATURATION);
     
+        RuleCheck lowSaturation = ruleSet.check(BloodOxygenAlertFactory.LOW_SATURATION.getName(), patient.getPatientId());
         for (PatientRecord record : records) {
-            if (record.getMeasurementValue() < 92) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), "Low Saturation Alert", record.getTimestamp()));
+            if (lowSaturation.test(record.getRecordTypeCode(), record.getTimestamp(), record.getMeasurementValue())) {
+                triggerAlert(oxygenAlerts.createAlert(patient.getPatientId(), BloodOxygenAlertFactory.LOW_SATURATION, record.getTimestamp()));
                 break; 
             }
         }
-        for (int i = 1; i < records.size(); i++) {
-            double previousValue = records.get(i - 1).getMeasurementValue();
-            double currentValue = records.get(i).getMeasurementValue();
-            double drop = previousValue - currentValue;
-            if (drop >= 5) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), "Rapid Drop In BloodOxygen" , records.get(i).getTimestamp()));
+        RuleCheck drop = ruleSet.check(BloodOxygenAlertFactory.RAPID_DROP.getName(), patient.getPatientId());
+        for (PatientRecord record : records) {
+            if (drop.test(record.getRecordTypeCode(), record.getTimestamp(), record.getMeasurementValue())) {
+                triggerAlert(oxygenAlerts.createAlert(patient.getPatientId(), BloodOxygenAlertFactory.RAPID_DROP, record.getTimestamp()));
                 break;
             }
         }
     }
        
     
-    private void evaluateECG(List<PatientRecord> records, Patient patient) {
-        if (records.isEmpty()) {
+    // Heart rate and RR intervals are derived from the ECG waveform by EcgBeatDetector
+    private void evaluateECG(List<PatientRecord> heartRates, List<PatientRecord> rrIntervals, Patient patient) {
+        RuleCheck heartRate = ruleSet.check(ECGAlertFactory.ABNORMAL_HEART_RATE.getName(), patient.getPatientId());
+        for (PatientRecord record : heartRates) {
+            if (heartRate.test(record.getRecordTypeCode(), record.getTimestamp(), record.getMeasurementValue())) {
+                triggerAlert(ecgAlerts.createAlert(patient.getPatientId(), ECGAlertFactory.ABNORMAL_HEART_RATE, record.getTimestamp()));
+                break;
+            }
+        }
+        if (rrIntervals.size() < 2) {
             return;
         }
     
-        evaluateThreshold(records, 50, "Abnormal Heart Rate Alert", patient);
-    
-        double averageInterval = calculateAverageInterval(records);
+        double averageInterval = calculateAverageInterval(rrIntervals);
         double allowableVariation = averageInterval * 0.1;
     
-        PatientRecord previousRecord = records.get(0);
-        for (int i = 1; i < records.size(); i++) {
-            PatientRecord currentRecord = records.get(i);
-            long intervalDifference = Math.abs(currentRecord.getTimestamp() - previousRecord.getTimestamp());
-    
-            if (Math.abs(intervalDifference - averageInterval) > allowableVariation) {
-                triggerAlert(new Alert(Integer.toString(patient.getPatientId()), "Irregular Beat Alert", currentRecord.getTimestamp()));
+        for (PatientRecord record : rrIntervals) {
+            if (Math.abs(record.getMeasurementValue() - averageInterval) > allowableVariation) {
+                triggerAlert(ecgAlerts.createAlert(patient.getPatientId(), ECGAlertFactory.IRREGULAR_BEAT, record.getTimestamp()));
                 break;
             }
-            previousRecord = currentRecord;
         }
     }
     
     private void evaluateHypotensiveHypoxemia(List<PatientRecord> systolicRecords, List<PatientRecord> saturationRecords, Patient patient, long currentTime) {
-        boolean low = systolicRecords.stream().anyMatch(r -> r.getMeasurementValue() < 90);
-        boolean lowSaturation = saturationRecords.stream().anyMatch(r -> r.getMeasurementValue() < 92);
-    
-        if (low && lowSaturation) {
-            triggerAlert(new Alert(Integer.toString(patient.getPatientId()), "Hypotensive Hypoxemia Alert", currentTime));
+        // Replay both signals in time order through the join, so the low readings must be close together
+        long[] state = HYPOTENSIVE_HYPOXEMIA.createState();
+        int s = 0;
+        int o = 0;
+        while (s < systolicRecords.size() || o < saturationRecords.size()) {
+            PatientRecord record;
+            if (o == saturationRecords.size() || (s < systolicRecords.size()
+                    && systolicRecords.get(s).getTimestamp() <= saturationRecords.get(o).getTimestamp())) {
+                record = systolicRecords.get(s++);
+            } else {
+                record = saturationRecords.get(o++);
+            }
+            if (HYPOTENSIVE_HYPOXEMIA.offer(state, record.getRecordTypeCode(), record.getTimestamp(), record.getMeasurementValue())) {
+                triggerAlert(pressureAlerts.createAlert(patient.getPatientId(), BloodPressureAlertFactory.HYPOTENSIVE_HYPOXEMIA, currentTime));
+                return;
+            }
         }
     }
     
-    private double calculateAverageInterval(List<PatientRecord> ecgRecords) {
-        long totalInterval = 0;
-        for (int i = 1; i < ecgRecords.size(); i++) {
-            totalInterval += (ecgRecords.get(i).getTimestamp() - ecgRecords.get(i - 1).getTimestamp());
+    private double calculateAverageInterval(List<PatientRecord> rrIntervals) {
+        double totalInterval = 0;
+        for (PatientRecord record : rrIntervals) {
+            totalInterval += record.getMeasurementValue();
         }
-        return totalInterval / (double) (ecgRecords.size() - 1);
+        return totalInterval / rrIntervals.size();
     }
     
     /**
@@ -200,10 +221,132 @@ public class AlertGenerator {
      * notify medical staff, log the alert, or perform other actions. The method
      * currently assumes that the alert information is fully formed when passed as
      * an argument.
+     * With a dispatcher the alert is only queued and this method returns without
+     * doing any I/O; otherwise the alert is printed directly. With a suppressor,
+     * duplicates of an alert that is already active are dropped. Delivered
+     * alerts are recorded in the history, if one is set.
      *
      * @param alert the alert object containing details about the alert condition
      */
     public void triggerAlert(Alert alert) {
+        AlertSuppressor current = suppressor;
+        if (current != null && !current.admit(alert, delivery)) {
+            return;
+        }
+        deliverAlert(alert);
+    }
+
+    /**
+     * Triggers an alert with an explicit delivery priority instead of the one
+     * derived from its condition. The priority only matters when alerts are
+     * delivered through a dispatcher.
+     *
+     * @param alert    the alert object containing details about the alert
+     *                 condition
+     * @param priority the priority with which the alert is delivered
+     */
+    public void triggerAlert(Alert alert, AlertPriority priority) {
+        AlertSuppressor current = suppressor;
+        if (current != null && !current.admit(alert, delivery)) {
+            return;
+        }
+        deliver(alert, priority);
+    }
+
+    /**
+     * Sets the suppressor that filters duplicate alerts and re-notifies
+     * persisting conditions.
+     *
+     * @param suppressor the suppressor, or {@code null} to deliver every alert
+     */
+    public void setSuppressor(AlertSuppressor suppressor) {
+        this.suppressor = suppressor;
+    }
+
+    /**
+     * Moves the suppressor clock forward and delivers the re-notifications that
+     * became due. Re-notifications are also delivered as new alerts come in;
+     * this method covers the quiet periods in between.
+     *
+     * @param currentTime the current time, in milliseconds
+     */
+    public void deliverRepeats(long currentTime) {
+        AlertSuppressor current = suppressor;
+        if (current != null) {
+            current.advance(currentTime, delivery);
+        }
+    }
+
+    /**
+     * Sets the clock that determines where the evaluation windows end. The
+     * default is the wall clock; an {@link com.alerts.clock.EventTimeClock}
+     * evaluates the data by its own timestamps.
+     *
+     * @param clock the clock to use
+     */
+    public void setClock(AlertClock clock) {
+        this.clock = clock;
+    }
+
+    public AlertClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the rules whose thresholds {@link #evaluateData} and the alert
+     * strategies apply. The default is {@link RuleSet#loadDefaults()}; a
+     * {@link com.alerts.rules.RuleEngine} sets its own rules, including the
+     * ones it reloads. A check whose rule is missing from the set is skipped.
+     *
+     * @param ruleSet the rules to apply
+     */
+    public void setRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+    }
+
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Sets the history that records every delivered alert.
+     *
+     * @param history the history, or {@code null} to keep no record
+     */
+    public void setHistory(AlertHistory history) {
+        this.history = history;
+    }
+
+    public AlertHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Delivers an alert right away, without passing it through the suppressor.
+     * Meant for callers that filter duplicates themselves, such as
+     * {@link com.alerts.decorator.RepeatedAlertDecorator}, whose alerts would
+     * otherwise be admitted twice. Delivered alerts are recorded in the
+     * history, if one is set.
+     *
+     * @param alert the alert object containing details about the alert condition
+     */
+    public void deliverAlert(Alert alert) {
+        deliver(alert, null);
+    }
+
+    private void deliver(Alert alert, AlertPriority priority) {
+        AlertHistory currentHistory = history;
+        if (currentHistory != null) {
+            currentHistory.append(alert);
+        }
+        if (dispatcher != null) {
+            if (priority != null) {
+                dispatcher.dispatch(alert, priority);
+            } else {
+                dispatcher.dispatch(alert);
+            }
+            return;
+        }
         System.out.println("Alert triggered for patient: " + alert.getPatientId() +
             ", Condition: " + alert.getCondition() +
             ", Timestamp: " + alert.getTimestamp());
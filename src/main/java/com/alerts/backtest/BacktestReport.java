@@ -0,0 +1,107 @@
+package com.alerts.backtest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a {@link BacktestRunner} run.
+ */
+public class BacktestReport {
+    private final long readingCount;
+    private final long elapsedNanos;
+    private final long evaluationPasses;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final List<RuleStatistics> rules;
+    private final Map<String, Long> alertsByCondition;
+
+    BacktestReport(long readingCount, long elapsedNanos, long evaluationPasses, long firstTimestamp,
+            long lastTimestamp, List<RuleStatistics> rules, Map<String, Long> alertsByCondition) {
+        this.readingCount = readingCount;
+        this.elapsedNanos = elapsedNanos;
+        this.evaluationPasses = evaluationPasses;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.rules = Collections.unmodifiableList(rules);
+        this.alertsByCondition = Collections.unmodifiableMap(alertsByCondition);
+    }
+
+    public long getReadingCount() {
+        return readingCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getEvaluationPasses() {
+        return evaluationPasses;
+    }
+
+    /**
+     * Returns the span of event time covered by the replayed readings.
+     *
+     * @return the span, in milliseconds, or 0 if no reading was replayed
+     */
+    public long getEventTimeSpan() {
+        return readingCount == 0 ? 0 : lastTimestamp - firstTimestamp;
+    }
+
+    /**
+     * Returns the ingest and evaluation throughput of the run.
+     *
+     * @return the number of readings processed per second of wall-clock time
+     */
+    public double getReadingsPerSecond() {
+        return elapsedNanos == 0 ? 0 : readingCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the statistics of every rule, in the order they were added.
+     *
+     * @return the rule statistics
+     */
+    public List<RuleStatistics> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the number of alerts raised per alert condition.
+     *
+     * @return the alert counts, keyed by condition
+     */
+    public Map<String, Long> getAlertsByCondition() {
+        return alertsByCondition;
+    }
+
+    /**
+     * Returns the number of alerts raised by all rules together.
+     *
+     * @return the alert count
+     */
+    public long getAlertCount() {
+        long count = 0;
+        for (RuleStatistics rule : rules) {
+            count += rule.getAlertCount();
+        }
+        return count;
+    }
+
+    /**
+     * Formats the report as a table with one line per rule.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Replayed %d readings covering %.1f hours in %.3f s (%.0f readings/s), %d passes%n",
+                readingCount, getEventTimeSpan() / 3600000.0, elapsedNanos / 1e9, getReadingsPerSecond(),
+                evaluationPasses));
+        out.append(String.format("%-55s %10s %12s%n", "Rule", "Alerts", "CPU ms"));
+        for (RuleStatistics rule : rules) {
+            out.append(String.format("%-55s %10d %12.3f%n", rule.getName(), rule.getAlertCount(),
+                    rule.getCpuNanos() / 1e6));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,357 @@
+package com.alerts.backtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.clock.EventTimeClock;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy.AlertStrategy;
+import com.alerts.strategy.AlertStrategyExecutor;
+import com.alerts.strategy.BloodPressureStrategy;
+import com.alerts.strategy.HeartRateStrategy;
+import com.alerts.strategy.OxygenSaturationStrategy;
+import com.alerts.strategy.RecordScan;
+import com.alerts.streaming.StreamingAlertEvaluator;
+import com.alerts.streaming.StreamingAlertRule;
+import com.data_management.DataListener;
+import com.data_management.DataReader;
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import com.data_management.Patient;
+
+/**
+ * Replays a recorded dataset through ingest and alert evaluation as fast as
+ * possible, to measure what a rule set would have reported.
+ * Readings are fed into a fresh {@link DataStorage} by a {@link DataReader}.
+ * Time is taken from the readings through an {@link EventTimeClock}, so a
+ * month of data is evaluated exactly as it would have been live, only without
+ * waiting. Streaming rules see every reading as it is stored. Window-based
+ * rules, that is {@link AlertStrategy} implementations and, optionally,
+ * {@link AlertGenerator#evaluateData}, are run for every patient each time the
+ * event time crosses an evaluation interval. Alerts are counted rather than
+ * delivered, once per episode and rule, see {@link RuleStatistics#getAlertCount()}.
+ * Two alerts of a rule for the same patient and condition belong to one
+ * episode if they are at most {@link #DEFAULT_EPISODE_GAP} or two evaluation
+ * intervals apart, whichever is longer, so a condition that persists across
+ * passes counts once however often the passes run.
+ * The replay expects the readings roughly in time order, as they were
+ * recorded, and a reader that has stored all of them when
+ * {@link DataReader#readData} returns, such as {@link FileDataReader}. Readers
+ * that keep reading in the background, like
+ * {@link com.data_management.TcpDataReader},
+ * {@link com.data_management.DirectoryDataReader} or
+ * {@link com.data_management.TheWebSocketClient}, are not suited: the run
+ * would end before their readings arrive. It is evaluated on one thread at a
+ * time, so the time measured for each rule is its CPU time.
+ * <p>
+ * Typical use:
+ *
+ * <pre>
+ * BacktestRunner runner = new BacktestRunner(60000);
+ * runner.addDefaultRules();
+ * runner.addStrategy(BloodPressureStrategy::new);
+ * System.out.println(runner.run(new FileDataReader("recordings")));
+ * </pre>
+ */
+public class BacktestRunner {
+    /** The shortest gap between two alerts that starts a new episode, in milliseconds. */
+    public static final long DEFAULT_EPISODE_GAP = 300000; // five minutes
+
+    private final long evaluationInterval;
+    private final List<StreamingAlertRule<?>> streamingRules = new ArrayList<>();
+    private final List<Function<AlertGenerator, AlertStrategy>> strategyFactories = new ArrayList<>();
+    private boolean generatorRules;
+
+    /**
+     * Constructs a runner without rules.
+     *
+     * @param evaluationIntervalMillis the event time between two evaluation
+     *                                 passes of the window-based rules
+     */
+    public BacktestRunner(long evaluationIntervalMillis) {
+        if (evaluationIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Evaluation interval must be positive");
+        }
+        this.evaluationInterval = evaluationIntervalMillis;
+    }
+
+    /**
+     * Adds a streaming rule that is evaluated for every reading.
+     *
+     * @param rule the rule to add
+     */
+    public void addRule(StreamingAlertRule<?> rule) {
+        streamingRules.add(rule);
+    }
+
+    /**
+     * Adds the standard streaming rules, see
+     * {@link StreamingAlertEvaluator#defaultRules()}.
+     */
+    public void addDefaultRules() {
+        streamingRules.addAll(StreamingAlertEvaluator.defaultRules());
+    }
+
+    /**
+     * Adds a strategy that is evaluated on every pass. Strategies trigger their
+     * alerts through a generator, so they are given as a factory, e.g.
+     * {@code BloodPressureStrategy::new}.
+     *
+     * @param factory creates the strategy for the runner's generator
+     */
+    public void addStrategy(Function<AlertGenerator, AlertStrategy> factory) {
+        strategyFactories.add(factory);
+    }
+
+    /**
+     * Sets whether the checks of {@link AlertGenerator#evaluateData} are run on
+     * every pass as well.
+     *
+     * @param enabled {@code true} to include the generator's checks
+     */
+    public void setGeneratorRules(boolean enabled) {
+        this.generatorRules = enabled;
+    }
+
+    /**
+     * Replays the readings of a reader and evaluates the rules on them. The
+     * reader must have stored all its readings when its
+     * {@link DataReader#readData} returns.
+     *
+     * @param reader the reader that supplies the recorded readings
+     * @return the report of the run
+     * @throws IOException if the reader fails
+     */
+    public BacktestReport run(DataReader reader) throws IOException {
+        Run run = new Run();
+        long start = System.nanoTime();
+        reader.readData(run.storage, null);
+        run.finish();
+        return run.report(System.nanoTime() - start);
+    }
+
+    /**
+     * The state of one replay: its storage, clock, generator and the timed
+     * copies of the rules.
+     */
+    private class Run implements DataListener {
+        private final DataStorage storage = new DataStorage();
+        private final EventTimeClock clock = new EventTimeClock();
+        private final CountingAlertGenerator alertGenerator = new CountingAlertGenerator(storage);
+        private final StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(alertGenerator);
+        private final AlertStrategyExecutor executor = new AlertStrategyExecutor();
+        private final List<RuleStatistics> statistics = new ArrayList<>();
+        private final Map<String, Long> alertsByCondition = new LinkedHashMap<>();
+        private final RuleStatistics generatorStatistics;
+        private RuleStatistics currentRule;
+        private long readingCount;
+        private long passes;
+        private long firstTimestamp = Long.MAX_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long nextPass = Long.MIN_VALUE;
+
+        Run() {
+            alertGenerator.setClock(clock);
+            for (StreamingAlertRule<?> rule : streamingRules) {
+                evaluator.addRule(timed(rule));
+            }
+            for (Function<AlertGenerator, AlertStrategy> factory : strategyFactories) {
+                AlertStrategy strategy = factory.apply(alertGenerator);
+                executor.register(new TimedStrategy(strategy, newStatistics(strategy.getClass().getSimpleName())));
+            }
+            generatorStatistics = generatorRules ? newStatistics("AlertGenerator.evaluateData") : null;
+            storage.addListener(this);
+        }
+
+        @Override
+        public synchronized void onPatientData(int patientId, int recordType, long timestamp,
+                double measurementValue) {
+            readingCount++;
+            firstTimestamp = Math.min(firstTimestamp, timestamp);
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+            clock.advanceTo(timestamp);
+            evaluator.onPatientData(patientId, recordType, timestamp, measurementValue);
+
+            long now = clock.currentTimeMillis();
+            if (nextPass == Long.MIN_VALUE) {
+                nextPass = now + evaluationInterval;
+            } else if (now >= nextPass) {
+                runPass(now);
+                nextPass = now + evaluationInterval;
+            }
+        }
+
+        synchronized void finish() {
+            if (readingCount > 0) {
+                runPass(clock.currentTimeMillis());
+            }
+        }
+
+        private void runPass(long now) {
+            passes++;
+            for (Patient patient : storage.getAllPatients()) {
+                executor.evaluate(patient, now);
+                if (generatorStatistics != null) {
+                    long start = enter(generatorStatistics);
+                    alertGenerator.evaluateData(patient);
+                    exit(generatorStatistics, start);
+                }
+            }
+        }
+
+        private BacktestReport report(long elapsedNanos) {
+            return new BacktestReport(readingCount, elapsedNanos, passes, firstTimestamp, lastTimestamp,
+                    statistics, alertsByCondition);
+        }
+
+        private RuleStatistics newStatistics(String name) {
+            RuleStatistics ruleStatistics = new RuleStatistics(name,
+                    Math.max(DEFAULT_EPISODE_GAP, 2 * evaluationInterval));
+            statistics.add(ruleStatistics);
+            return ruleStatistics;
+        }
+
+        private long enter(RuleStatistics rule) {
+            currentRule = rule;
+            return System.nanoTime();
+        }
+
+        private void exit(RuleStatistics rule, long start) {
+            rule.cpuNanos += System.nanoTime() - start;
+            currentRule = null;
+        }
+
+        private <S> StreamingAlertRule<S> timed(StreamingAlertRule<S> rule) {
+            RuleStatistics ruleStatistics = newStatistics(rule.getName());
+            return new StreamingAlertRule<S>() {
+                @Override
+                public int[] getRecordTypes() {
+                    return rule.getRecordTypes();
+                }
+
+                @Override
+                public S createState(int patientId) {
+                    return rule.createState(patientId);
+                }
+
+                @Override
+                public void onReading(S state, int patientId, int recordType, long timestamp,
+                        double measurementValue, AlertGenerator generator) {
+                    long start = enter(ruleStatistics);
+                    rule.onReading(state, patientId, recordType, timestamp, measurementValue, generator);
+                    exit(ruleStatistics, start);
+                }
+
+                @Override
+                public String getName() {
+                    return rule.getName();
+                }
+            };
+        }
+
+        /**
+         * Attributes the time of a strategy's scan, and the alerts it raises,
+         * to the strategy.
+         */
+        private class TimedStrategy implements AlertStrategy {
+            private final AlertStrategy strategy;
+            private final RuleStatistics ruleStatistics;
+
+            TimedStrategy(AlertStrategy strategy, RuleStatistics ruleStatistics) {
+                this.strategy = strategy;
+                this.ruleStatistics = ruleStatistics;
+            }
+
+            @Override
+            public void checkAlert(Patient patient) {
+                long start = enter(ruleStatistics);
+                strategy.checkAlert(patient);
+                exit(ruleStatistics, start);
+            }
+
+            @Override
+            public long getWindow() {
+                return strategy.getWindow();
+            }
+
+            @Override
+            public int[] getRecordTypes() {
+                return strategy.getRecordTypes();
+            }
+
+            @Override
+            public RecordScan startScan(Patient patient, long currentTime) {
+                long start = enter(ruleStatistics);
+                RecordScan scan = strategy.startScan(patient, currentTime);
+                exit(ruleStatistics, start);
+                return new RecordScan() {
+                    @Override
+                    public void accept(int recordType, long timestamp, double measurementValue) {
+                        long start = enter(ruleStatistics);
+                        scan.accept(recordType, timestamp, measurementValue);
+                        exit(ruleStatistics, start);
+                    }
+
+                    @Override
+                    public void finish() {
+                        long start = enter(ruleStatistics);
+                        scan.finish();
+                        exit(ruleStatistics, start);
+                    }
+                };
+            }
+        }
+
+        /**
+         * Counts the episodes of alerts against the rule that is currently
+         * being evaluated instead of delivering them.
+         */
+        private class CountingAlertGenerator extends AlertGenerator {
+            CountingAlertGenerator(DataStorage dataStorage) {
+                super(dataStorage);
+            }
+
+            @Override
+            public void triggerAlert(Alert alert) {
+                if (currentRule != null && currentRule.episodes.admit(alert, repeat -> { })) {
+                    currentRule.alertCount++;
+                    alertsByCondition.merge(alert.getCondition(), 1L, Long::sum);
+                }
+            }
+
+            @Override
+            public void triggerAlert(Alert alert, AlertPriority priority) {
+                triggerAlert(alert);
+            }
+        }
+    }
+
+    /**
+     * Replays the {@code output.txt} file of a directory with the standard rule
+     * set and prints the report.
+     *
+     * @param args the directory holding the recording, and optionally the
+     *             evaluation interval in milliseconds
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BacktestRunner <directory> [evaluationIntervalMillis]");
+            return;
+        }
+        long interval = args.length > 1 ? Long.parseLong(args[1]) : 60000;
+        BacktestRunner runner = new BacktestRunner(interval);
+        runner.addDefaultRules();
+        runner.addStrategy(BloodPressureStrategy::new);
+        runner.addStrategy(HeartRateStrategy::new);
+        runner.addStrategy(OxygenSaturationStrategy::new);
+        runner.setGeneratorRules(true);
+        System.out.print(runner.run(new FileDataReader(args[0])));
+    }
+}
@@ -0,0 +1,47 @@
+package com.alerts.backtest;
+
+import com.alerts.suppression.AlertSuppressor;
+
+/**
+ * What one rule did during a backtest: how many alert episodes it raised and
+ * how much time the backtest thread spent inside it.
+ */
+public class RuleStatistics {
+    private final String name;
+    final AlertSuppressor episodes; // counts each episode of the rule's alerts once
+    long alertCount;
+    long cpuNanos;
+
+    RuleStatistics(String name, long episodeGap) {
+        this.name = name;
+        this.episodes = new AlertSuppressor(episodeGap, 0);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of alert episodes the rule raised: alerts for the same
+     * patient and condition count once as long as each follows the previous
+     * one within the episode gap of the backtest, and an alert for a reading
+     * that was already reported, as the window-based rules do on every pass,
+     * does not count again. The count therefore depends on the data, not on
+     * the evaluation interval.
+     *
+     * @return the number of episodes
+     */
+    public long getAlertCount() {
+        return alertCount;
+    }
+
+    /**
+     * Returns the time spent evaluating the rule. The backtest evaluates on a
+     * single thread without waiting for I/O, so this is the rule's CPU time.
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+}
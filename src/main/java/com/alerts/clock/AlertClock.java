@@ -0,0 +1,21 @@
+package com.alerts.clock;
+
+/**
+ * The source of "now" for alert evaluation. The windows of the alert rules
+ * end at the time this clock returns, so a wall clock evaluates live data and
+ * an {@link EventTimeClock} evaluates data by its own timestamps, which makes
+ * replays of recorded data produce the same alerts as the live run did.
+ */
+@FunctionalInterface
+public interface AlertClock {
+
+    /** A clock that returns the wall-clock time. */
+    AlertClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Returns the current time of this clock.
+     *
+     * @return the time, in milliseconds since UNIX epoch
+     */
+    long currentTimeMillis();
+}
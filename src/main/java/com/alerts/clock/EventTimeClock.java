@@ -0,0 +1,66 @@
+package com.alerts.clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.data_management.DataListener;
+
+/**
+ * A clock driven by the timestamps of the data rather than by the wall clock.
+ * The clock reports a watermark: the newest timestamp observed so far minus an
+ * allowed lateness, so readings that arrive slightly out of order are still
+ * inside the window when it is evaluated. The watermark never moves backwards.
+ * Registered as a {@link DataListener} on a
+ * {@link com.data_management.DataStorage}, the clock follows every stored
+ * reading; it can also be moved explicitly with {@link #advanceTo}. Until the
+ * first timestamp is observed the clock reports 0.
+ */
+public class EventTimeClock implements AlertClock, DataListener {
+    private final long allowedLateness;
+    private final AtomicLong newest = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructs an event-time clock that does not wait for late readings.
+     */
+    public EventTimeClock() {
+        this(0);
+    }
+
+    /**
+     * Constructs an event-time clock.
+     *
+     * @param allowedLatenessMillis how far the watermark trails the newest
+     *                              timestamp, in milliseconds
+     */
+    public EventTimeClock(long allowedLatenessMillis) {
+        this.allowedLateness = allowedLatenessMillis;
+    }
+
+    /**
+     * Moves the clock forward to a timestamp. Older timestamps are ignored.
+     *
+     * @param timestamp the observed event time, in milliseconds since UNIX epoch
+     */
+    public void advanceTo(long timestamp) {
+        long current = newest.get();
+        while (timestamp > current && !newest.compareAndSet(current, timestamp)) {
+            current = newest.get();
+        }
+    }
+
+    @Override
+    public void onPatientData(int patientId, int recordType, long timestamp, double measurementValue) {
+        advanceTo(timestamp);
+    }
+
+    /**
+     * Returns the watermark: the newest observed timestamp minus the allowed
+     * lateness.
+     *
+     * @return the watermark, in milliseconds since UNIX epoch
+     */
+    @Override
+    public long currentTimeMillis() {
+        long current = newest.get();
+        return current == Long.MIN_VALUE ? 0 : current - allowedLateness;
+    }
+}
@@ -8,11 +8,22 @@ import com.alerts.AlertGenerator;
  */
 public abstract class AlertDecorator {
     // Alert generator instance
-    private AlertGenerator alertGenerator;
+    protected final AlertGenerator alertGenerator;
 
     // Alert details
     protected Alert alert;
 
+    /**
+     * Constructs a decorator for an alert.
+     *
+     * @param alertGenerator the generator through which the alert is triggered
+     * @param alert          the alert to trigger
+     */
+    protected AlertDecorator(AlertGenerator alertGenerator, Alert alert) {
+        this.alertGenerator = alertGenerator;
+        this.alert = alert;
+    }
+
     /**
      * Triggers an alert. Can be extended to add more behaviors.
      *
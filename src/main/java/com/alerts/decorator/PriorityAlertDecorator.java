@@ -1,16 +1,50 @@
 package com.alerts.decorator;
 
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.dispatch.AlertPriority;
+
 /**
  * Adds priority handling to alerts.
+ * The alert is delivered with an explicit priority, so that it is placed in
+ * the matching queue of the generator's dispatcher ahead of less urgent
+ * alerts.
  */
 public class PriorityAlertDecorator extends AlertDecorator {
-    
+    private final AlertPriority priority;
+
+    /**
+     * Constructs a priority decorator that escalates an alert to
+     * {@link AlertPriority#CRITICAL}.
+     *
+     * @param alertGenerator the generator through which the alert is triggered
+     * @param alert          the alert to trigger
+     */
+    public PriorityAlertDecorator(AlertGenerator alertGenerator, Alert alert) {
+        this(alertGenerator, alert, AlertPriority.CRITICAL);
+    }
+
     /**
-     * Triggers the alert and adds priority handling.
+     * Constructs a priority decorator for an alert.
+     *
+     * @param alertGenerator the generator through which the alert is triggered
+     * @param alert          the alert to trigger
+     * @param priority       the priority with which the alert is delivered
+     */
+    public PriorityAlertDecorator(AlertGenerator alertGenerator, Alert alert, AlertPriority priority) {
+        super(alertGenerator, alert);
+        this.priority = priority;
+    }
+
+    /**
+     * Triggers the alert with the decorator's priority.
      */
     @Override
     public void triggerAlert() {
-        super.triggerAlert();
-        System.out.println("The Priority alert is triggered.");
+        alertGenerator.triggerAlert(alert, priority);
+    }
+
+    public AlertPriority getPriority() {
+        return priority;
     }
 }
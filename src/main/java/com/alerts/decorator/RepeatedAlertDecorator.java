@@ -1,16 +1,40 @@
 package com.alerts.decorator;
 
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.suppression.AlertSuppressor;
+
 /**
  * Adds repeated alert handling.
+ * The alert is only triggered if it is not a duplicate of an active episode;
+ * while the condition persists, the suppressor re-notifies it through the
+ * generator at its repeat interval. Since the decorator's suppressor already
+ * filtered them, the alert and its re-notifications bypass any suppressor set
+ * on the generator.
  */
 public class RepeatedAlertDecorator extends AlertDecorator {
-    
+    private final AlertSuppressor suppressor;
+
+    /**
+     * Constructs a repeated alert decorator for an alert.
+     *
+     * @param alertGenerator the generator through which the alert is triggered
+     * @param alert          the alert to trigger
+     * @param suppressor     the suppressor tracking the episodes and their
+     *                       repeats
+     */
+    public RepeatedAlertDecorator(AlertGenerator alertGenerator, Alert alert, AlertSuppressor suppressor) {
+        super(alertGenerator, alert);
+        this.suppressor = suppressor;
+    }
+
     /**
-     * Triggers the alert and adds repeated alert handling.
+     * Triggers the alert unless it repeats an active episode.
      */
     @Override
     public void triggerAlert() {
-        super.triggerAlert();
-        System.out.println("The repeated alert is triggered.");
+        if (suppressor.admit(alert, alertGenerator::deliverAlert)) {
+            alertGenerator.deliverAlert(alert);
+        }
     }
 }
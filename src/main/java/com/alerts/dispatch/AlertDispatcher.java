@@ -0,0 +1,380 @@
+package com.alerts.dispatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alerts.Alert;
+
+/**
+ * Delivers alerts to {@link AlertSink}s on a dedicated thread, so that the
+ * threads evaluating patient data never wait for console, file or network I/O.
+ * Alerts are placed in a bounded lock-free queue per {@link AlertPriority};
+ * when a queue is full, new alerts are dropped and counted rather than blocking
+ * the caller. The dispatcher thread drains the queues in batches according to
+ * its {@link DrainPolicy} and hands every batch to all sinks. Large batches of
+ * non-critical alerts are delivered in chunks, and critical alerts that arrive
+ * in the meantime are delivered between two chunks.
+ * Queue depth, drop count and the time from {@link #dispatch} to delivery are
+ * exposed for monitoring, the latter also as percentiles per priority.
+ * Closing waits for the {@link #dispatch} calls in progress to finish before
+ * the last queued alerts are delivered, so every alert is either delivered or
+ * counted as dropped.
+ */
+public class AlertDispatcher implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 65536;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int PREEMPTION_CHUNK = 16;
+    private static final int[] WEIGHTS = { 8, 4, 2, 1 };
+    private static final AlertPriority[] PRIORITIES = AlertPriority.values();
+
+    private final BoundedQueue<QueuedAlert>[] queues;
+    private final int batchSize;
+    private final DrainPolicy policy;
+    private final List<AlertSink> sinks = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true; // false once close() was called
+    private volatile boolean draining; // true once no more alerts can be queued
+    private final AtomicInteger dispatching = new AtomicInteger(); // dispatch calls in progress
+    private volatile boolean idle;
+
+    private final AtomicLong[] dropped = new AtomicLong[PRIORITIES.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[PRIORITIES.length];
+    private volatile long delivered;
+    private volatile long failedBatches;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+
+    /**
+     * Constructs a dispatcher with the default queue capacity and batch size and
+     * starts its thread.
+     *
+     * @param sinks the sinks every alert is delivered to
+     */
+    public AlertDispatcher(AlertSink... sinks) {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, sinks);
+    }
+
+    /**
+     * Constructs a dispatcher that drains the priorities strictly in order and
+     * starts its thread.
+     *
+     * @param capacity  the maximum number of alerts waiting for delivery, per
+     *                  priority
+     * @param batchSize the maximum number of alerts delivered in one batch
+     * @param sinks     the sinks every alert is delivered to
+     */
+    public AlertDispatcher(int capacity, int batchSize, AlertSink... sinks) {
+        this(capacity, batchSize, DrainPolicy.STRICT, sinks);
+    }
+
+    /**
+     * Constructs a dispatcher and starts its thread.
+     *
+     * @param capacity  the maximum number of alerts waiting for delivery, per
+     *                  priority
+     * @param batchSize the maximum number of alerts delivered in one batch
+     * @param policy    how the priority queues are drained
+     * @param sinks     the sinks every alert is delivered to
+     */
+    @SuppressWarnings("unchecked")
+    public AlertDispatcher(int capacity, int batchSize, DrainPolicy policy, AlertSink... sinks) {
+        this.queues = (BoundedQueue<QueuedAlert>[]) new BoundedQueue<?>[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues[i] = new BoundedQueue<>(capacity);
+            dropped[i] = new AtomicLong();
+            latencies[i] = new LatencyHistogram();
+        }
+        this.batchSize = batchSize;
+        this.policy = policy;
+        for (AlertSink sink : sinks) {
+            this.sinks.add(sink);
+        }
+        this.thread = new Thread(this::run, "alert-dispatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Adds a sink that receives every alert delivered from now on.
+     *
+     * @param sink the sink to add
+     */
+    public void addSink(AlertSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Queues an alert for delivery without waiting for it to be delivered. The
+     * priority is derived from the alert condition, see {@link AlertPriority#of}.
+     *
+     * @param alert the alert to deliver
+     * @return {@code true} if the alert was queued, {@code false} if it was
+     *         dropped because the queue was full or the dispatcher is closed
+     */
+    public boolean dispatch(Alert alert) {
+        return dispatch(alert, AlertPriority.of(alert));
+    }
+
+    /**
+     * Queues an alert for delivery with the given priority without waiting for
+     * it to be delivered.
+     *
+     * @param alert    the alert to deliver
+     * @param priority the priority of the alert
+     * @return {@code true} if the alert was queued, {@code false} if it was
+     *         dropped because the queue was full or the dispatcher is closed
+     */
+    public boolean dispatch(Alert alert, AlertPriority priority) {
+        int index = priority.ordinal();
+        dispatching.incrementAndGet(); // close() waits for this before the final drain
+        try {
+            if (!running || !queues[index].offer(new QueuedAlert(alert, System.nanoTime()))) {
+                dropped[index].incrementAndGet();
+                return false;
+            }
+        } finally {
+            dispatching.decrementAndGet();
+        }
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of alerts waiting for delivery.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BoundedQueue<QueuedAlert> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of alerts of one priority waiting for delivery.
+     *
+     * @param priority the priority
+     * @return the queue depth of that priority
+     */
+    public int getQueueDepth(AlertPriority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    /**
+     * Returns the number of alerts dropped because their queue was full.
+     *
+     * @return the drop count
+     */
+    public long getDroppedCount() {
+        long count = 0;
+        for (AtomicLong priorityCount : dropped) {
+            count += priorityCount.get();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of alerts of one priority dropped because the queue
+     * was full.
+     *
+     * @param priority the priority
+     * @return the drop count of that priority
+     */
+    public long getDroppedCount(AlertPriority priority) {
+        return dropped[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of alerts handed to the sinks.
+     *
+     * @return the delivered count
+     */
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    /**
+     * Returns the number of batches a sink failed to write.
+     *
+     * @return the failure count
+     */
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    /**
+     * Returns the mean time from {@link #dispatch} until the alert was handed
+     * to the sinks.
+     *
+     * @return the mean latency, in nanoseconds, or 0 if nothing was delivered
+     */
+    public long getMeanLatencyNanos() {
+        long count = delivered;
+        return count == 0 ? 0 : totalLatencyNanos / count;
+    }
+
+    /**
+     * Returns the longest time from {@link #dispatch} until an alert was handed
+     * to the sinks.
+     *
+     * @return the maximum latency, in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * Returns a percentile of the time from {@link #dispatch} until the alerts
+     * of one priority were handed to the sinks.
+     *
+     * @param priority the priority
+     * @param quantile the percentile as a fraction, e.g., 0.5 or 0.99
+     * @return the latency, in nanoseconds, or 0 if nothing was delivered
+     */
+    public long getLatencyPercentileNanos(AlertPriority priority, double quantile) {
+        return latencies[priority.ordinal()].percentile(quantile);
+    }
+
+    /**
+     * Stops accepting alerts, delivers the ones still queued, closes the sinks
+     * and stops the dispatcher thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        // A dispatch that saw running before it was cleared may still be offering its alert
+        while (dispatching.get() != 0) {
+            Thread.yield();
+        }
+        draining = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (AlertSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                System.err.println("Error closing alert sink: " + e.getMessage());
+            }
+        }
+    }
+
+    private void run() {
+        Batch batch = new Batch(batchSize);
+        Batch criticalBatch = new Batch(batchSize);
+        while (true) {
+            boolean lastPass = draining; // read first, so this pass sees every queued alert
+            boolean deliveredAny = false;
+            for (int priority = 0; priority < PRIORITIES.length; priority++) {
+                int limit = policy == DrainPolicy.STRICT
+                        ? batchSize
+                        : Math.max(1, batchSize * WEIGHTS[priority] / WEIGHTS[0]);
+                Batch target = priority == 0 ? criticalBatch : batch;
+                if (drain(priority, limit, target, criticalBatch)) {
+                    deliveredAny = true;
+                    if (policy == DrainPolicy.STRICT) {
+                        break; // start over from the most urgent queue
+                    }
+                }
+            }
+            if (deliveredAny) {
+                continue;
+            }
+            if (lastPass) {
+                return;
+            }
+            idle = true;
+            if (getQueueDepth() == 0) {
+                LockSupport.park(this); // dispatch() and close() unpark
+            }
+            idle = false;
+        }
+    }
+
+    private boolean drain(int priority, int limit, Batch batch, Batch criticalBatch) {
+        BoundedQueue<QueuedAlert> queue = queues[priority];
+        QueuedAlert queued;
+        while (batch.alerts.size() < limit && (queued = queue.poll()) != null) {
+            batch.enqueued[batch.alerts.size()] = queued.enqueuedNanos;
+            batch.alerts.add(queued.alert);
+        }
+        if (batch.alerts.isEmpty()) {
+            return false;
+        }
+        if (priority == 0 || batch.alerts.size() <= PREEMPTION_CHUNK) {
+            deliver(priority, batch.alerts, batch.enqueued, 0);
+        } else {
+            for (int from = 0; from < batch.alerts.size(); from += PREEMPTION_CHUNK) {
+                if (from > 0 && queues[0].size() > 0) {
+                    drain(0, batchSize, criticalBatch, criticalBatch);
+                }
+                int to = Math.min(from + PREEMPTION_CHUNK, batch.alerts.size());
+                deliver(priority, batch.alerts.subList(from, to), batch.enqueued, from);
+            }
+        }
+        batch.alerts.clear();
+        return true;
+    }
+
+    private void deliver(int priority, List<Alert> alerts, long[] enqueued, int offset) {
+        for (AlertSink sink : sinks) {
+            try {
+                sink.deliver(alerts);
+            } catch (IOException | RuntimeException e) {
+                failedBatches++;
+                System.err.println("Error delivering alerts: " + e.getMessage());
+            }
+        }
+        long now = System.nanoTime();
+        long total = totalLatencyNanos;
+        long max = maxLatencyNanos;
+        LatencyHistogram histogram = latencies[priority];
+        for (int i = 0; i < alerts.size(); i++) {
+            long latency = now - enqueued[offset + i];
+            histogram.record(latency);
+            total += latency;
+            max = Math.max(max, latency);
+        }
+        totalLatencyNanos = total;
+        maxLatencyNanos = max;
+        delivered += alerts.size();
+    }
+
+    /**
+     * Reusable storage for the alerts of one batch and their queue times.
+     */
+    private static final class Batch {
+        private final List<Alert> alerts;
+        private final long[] enqueued;
+
+        Batch(int capacity) {
+            this.alerts = new ArrayList<>(capacity);
+            this.enqueued = new long[capacity];
+        }
+    }
+
+    /**
+     * An alert together with the time it was queued.
+     */
+    private static final class QueuedAlert {
+        private final Alert alert;
+        private final long enqueuedNanos;
+
+        QueuedAlert(Alert alert, long enqueuedNanos) {
+            this.alert = alert;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
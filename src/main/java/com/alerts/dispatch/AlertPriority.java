@@ -0,0 +1,66 @@
+package com.alerts.dispatch;
+
+import java.util.Arrays;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+
+/**
+ * The delivery priority of an alert. Every priority has its own queue in the
+ * {@link AlertDispatcher}, so a flood of low-value alerts cannot delay the
+ * critical ones. Priorities are declared from most to least urgent.
+ */
+public enum AlertPriority {
+    /** Life-threatening combinations of conditions. */
+    CRITICAL,
+    /** A single vital sign outside its safe range. */
+    HIGH,
+    /** Irregularities that need attention but not immediately. */
+    NORMAL,
+    /** Trends and other informational alerts. */
+    LOW;
+
+    private static volatile AlertPriority[] byCondition = new AlertPriority[0]; // indexed by condition code
+
+    /**
+     * Returns the default priority of an alert, derived from its condition.
+     * The priority of a condition is derived once and then looked up by its
+     * code.
+     *
+     * @param alert the alert to classify
+     * @return the priority of the alert
+     */
+    public static AlertPriority of(Alert alert) {
+        AlertCondition condition = alert.getAlertCondition();
+        AlertPriority[] known = byCondition;
+        int code = condition.getCode();
+        if (code < known.length && known[code] != null) {
+            return known[code];
+        }
+        AlertPriority priority = classify(condition.getName());
+        synchronized (AlertPriority.class) {
+            AlertPriority[] grown = byCondition;
+            if (code >= grown.length) {
+                grown = Arrays.copyOf(grown, Math.max(code + 1, AlertCondition.size()));
+            } else {
+                grown = grown.clone();
+            }
+            grown[code] = priority;
+            byCondition = grown;
+        }
+        return priority;
+    }
+
+    private static AlertPriority classify(String condition) {
+        if (condition.startsWith("Hypotensive Hypoxemia")) {
+            return CRITICAL;
+        }
+        if (condition.contains("Trend") || condition.contains("Increasing") || condition.contains("Decreasing")) {
+            return LOW;
+        }
+        if (condition.startsWith("Irregular")) {
+            return NORMAL;
+        }
+        return HIGH;
+    }
+}
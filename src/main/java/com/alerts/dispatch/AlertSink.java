@@ -0,0 +1,48 @@
+package com.alerts.dispatch;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.alerts.Alert;
+
+/**
+ * A destination that alerts are delivered to by an {@link AlertDispatcher}.
+ * Sinks receive alerts in batches on the dispatcher thread, so they can write
+ * a whole batch with a single I/O operation.
+ */
+public interface AlertSink {
+
+    /**
+     * Delivers a batch of alerts.
+     *
+     * @param alerts the alerts, in the order they were triggered
+     * @throws IOException if the alerts could not be written
+     */
+    void deliver(List<Alert> alerts) throws IOException;
+
+    /**
+     * Releases the resources held by the sink. The default does nothing.
+     *
+     * @throws IOException if the sink could not be closed cleanly
+     */
+    default void close() throws IOException {
+    }
+
+    /**
+     * Formats an alert as the single line written by the text sinks.
+     *
+     * @param alert the alert to format
+     * @param out   the builder the line is appended to, without a line separator
+     */
+    static void format(Alert alert, StringBuilder out) {
+        out.append("Alert triggered for patient: ");
+        if (alert.getNumericPatientId() >= 0) {
+            out.append(alert.getNumericPatientId()); // no need to build the ID string
+        } else {
+            out.append(alert.getPatientId());
+        }
+        out
+                .append(", Condition: ").append(alert.getCondition())
+                .append(", Timestamp: ").append(alert.getTimestamp());
+    }
+}
@@ -0,0 +1,93 @@
+package com.alerts.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity, lock-free queue for many producers and consumers.
+ * Every slot of the ring carries a sequence number that tells producers and
+ * consumers whose turn it is, so {@link #offer} and {@link #poll} only need a
+ * compare-and-set on the shared position counter and never block. An offer to
+ * a full queue fails immediately instead of waiting.
+ *
+ * @param <E> the type of the elements
+ */
+class BoundedQueue<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // next position to write
+    private final AtomicLong head = new AtomicLong(); // next position to read
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param capacity the maximum number of elements; rounded up to a power of two
+     */
+    BoundedQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room.
+     *
+     * @param element the element to add
+     * @return {@code true} if the element was added, {@code false} if the queue
+     *         was full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // the slot still holds an element from the previous lap
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return the element, or {@code null} if the queue was empty
+     */
+    E poll() {
+        while (true) {
+            long position = head.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(slot);
+                    elements.set(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null; // the slot has not been written in this lap yet
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of elements in the queue.
+     *
+     * @return the number of elements
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+}
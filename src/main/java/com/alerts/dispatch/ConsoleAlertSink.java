@@ -0,0 +1,22 @@
+package com.alerts.dispatch;
+
+import java.util.List;
+
+import com.alerts.Alert;
+
+/**
+ * Prints alerts to standard output, one write per batch.
+ */
+public class ConsoleAlertSink implements AlertSink {
+
+    @Override
+    public void deliver(List<Alert> alerts) {
+        StringBuilder out = new StringBuilder(alerts.size() * 96);
+        for (Alert alert : alerts) {
+            AlertSink.format(alert, out);
+            out.append(System.lineSeparator());
+        }
+        System.out.print(out);
+        System.out.flush();
+    }
+}
@@ -0,0 +1,18 @@
+package com.alerts.dispatch;
+
+/**
+ * How an {@link AlertDispatcher} chooses which priority queue to deliver from
+ * next.
+ */
+public enum DrainPolicy {
+    /**
+     * Always deliver from the most urgent non-empty queue. Lower priorities
+     * only get through when nothing more urgent is waiting.
+     */
+    STRICT,
+    /**
+     * Visit the queues in turn, taking more alerts from the urgent queues than
+     * from the others, so that low priorities are delayed but never starved.
+     */
+    WEIGHTED
+}
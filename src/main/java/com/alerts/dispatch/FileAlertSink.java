@@ -0,0 +1,44 @@
+package com.alerts.dispatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.alerts.Alert;
+
+/**
+ * Appends alerts to a text file, flushing once per batch.
+ */
+public class FileAlertSink implements AlertSink {
+    private final BufferedWriter writer;
+
+    /**
+     * Opens the file for appending, creating it if needed.
+     *
+     * @param filePath the path of the alert log
+     * @throws IOException if the file cannot be opened
+     */
+    public FileAlertSink(String filePath) throws IOException {
+        this.writer = Files.newBufferedWriter(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(List<Alert> alerts) throws IOException {
+        StringBuilder out = new StringBuilder(96);
+        for (Alert alert : alerts) {
+            out.setLength(0);
+            AlertSink.format(alert, out);
+            writer.append(out);
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
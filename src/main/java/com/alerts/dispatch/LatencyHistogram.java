@@ -0,0 +1,79 @@
+package com.alerts.dispatch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of latencies with roughly 6% relative precision.
+ * Values are grouped by their power of two and each power of two is split
+ * into 16 linear sub-buckets, so recording is a few shifts and one array
+ * write no matter how many values were recorded. The histogram has a single
+ * writer; percentiles may be read from any thread.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private volatile long total;
+
+    /**
+     * Records a latency. Must only be called from one thread.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    public void record(long nanos) {
+        int index = indexOf(Math.max(0, nanos));
+        counts.lazySet(index, counts.get(index) + 1);
+        total = total + 1;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long count() {
+        return total;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the recorded
+     * latencies fall.
+     *
+     * @param quantile the fraction, between 0 and 1, e.g., 0.99
+     * @return the upper bound of the bucket holding the quantile, in
+     *         nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(double quantile) {
+        long count = total;
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(counts.length() - 1);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
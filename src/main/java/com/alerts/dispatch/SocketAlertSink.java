@@ -0,0 +1,46 @@
+package com.alerts.dispatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.alerts.Alert;
+
+/**
+ * Sends alerts as text lines over a TCP connection, flushing once per batch.
+ */
+public class SocketAlertSink implements AlertSink {
+    private final Socket socket;
+    private final BufferedWriter writer;
+
+    /**
+     * Connects to the receiver of the alerts.
+     *
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @throws IOException if the connection cannot be established
+     */
+    public SocketAlertSink(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void deliver(List<Alert> alerts) throws IOException {
+        StringBuilder out = new StringBuilder(alerts.size() * 96);
+        for (Alert alert : alerts) {
+            AlertSink.format(alert, out);
+            out.append('\n');
+        }
+        writer.append(out);
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
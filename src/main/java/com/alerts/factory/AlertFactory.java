@@ -1,9 +1,13 @@
 package com.alerts.factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 /**
  * Abstract factory for creating Alert objects.
+ * Each subclass registers the conditions of its kind of alert up front, so
+ * alerts for them can be created from a numeric patient ID and a shared
+ * {@link AlertCondition} without building any strings.
  */
 public abstract class AlertFactory {
 
@@ -17,4 +21,17 @@ public abstract class AlertFactory {
      */
     public abstract Alert createAlert(String patientId, String condition, long timestamp);
 
+    /**
+     * Creates an alert for a registered condition without building any
+     * strings.
+     *
+     * @param patientId ID of the patient
+     * @param condition Condition triggering the alert
+     * @param timestamp Time of the alert
+     * @return Created Alert object
+     */
+    public Alert createAlert(int patientId, AlertCondition condition, long timestamp) {
+        return new Alert(patientId, condition, timestamp);
+    }
+
 }
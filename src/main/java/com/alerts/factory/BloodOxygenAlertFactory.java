@@ -1,11 +1,18 @@
 package com.alerts.factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 /**
  * Factory for creating BloodOxygenAlert objects.
  */
 public class BloodOxygenAlertFactory extends AlertFactory {
+    /** A saturation reading below 92%. */
+    public static final AlertCondition LOW_SATURATION = AlertCondition.of("Low Saturation Alert");
+    /** Saturation five points below the highest reading of the last ten minutes. */
+    public static final AlertCondition RAPID_DROP = AlertCondition.of("Rapid Drop In BloodOxygen");
+    /** Saturation five percent below the highest reading of the last ten minutes. */
+    public static final AlertCondition RAPID_PERCENT_DROP = AlertCondition.of("Rapid Blood Oxygen Drop Alert");
 
     /**
      * Creates a Blood Oxygen alert with the given details.
@@ -1,11 +1,33 @@
 package com.alerts.factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 /**
  * Factory for creating BloodPressureAlert objects.
  */
 public class BloodPressureAlertFactory extends AlertFactory {
+    /** A systolic reading outside the critical range. */
+    public static final AlertCondition CRITICAL_SYSTOLIC_PRESSURE =
+            AlertCondition.of("Critical Pressure Threshold Alert (SystolicPressure)");
+    /** A diastolic reading outside the critical range. */
+    public static final AlertCondition CRITICAL_DIASTOLIC_PRESSURE =
+            AlertCondition.of("Critical Pressure Threshold Alert (DiastolicPressure)");
+    public static final AlertCondition SYSTOLIC_INCREASING_TREND = AlertCondition.of("Systolic Increasing Trend");
+    public static final AlertCondition SYSTOLIC_DECREASING_TREND = AlertCondition.of("Systolic Decreasing Trend");
+    public static final AlertCondition DIASTOLIC_INCREASING_TREND = AlertCondition.of("Diastolic Increasing Trend");
+    public static final AlertCondition DIASTOLIC_DECREASING_TREND = AlertCondition.of("Diastolic Decreasing Trend");
+    // Raised by BloodPressureStrategy
+    public static final AlertCondition SYSTOLIC_PRESSURE_ALERT = AlertCondition.of("Systolic pressure alert");
+    public static final AlertCondition DIASTOLIC_PRESSURE_ALERT = AlertCondition.of("Diastolic pressure alert");
+    public static final AlertCondition SYSTOLIC_PRESSURE_INCREASING = AlertCondition.of("Systolic Pressure Increasing");
+    public static final AlertCondition SYSTOLIC_PRESSURE_DECREASING = AlertCondition.of("Systolic Pressure Decreasing");
+    public static final AlertCondition DIASTOLIC_PRESSURE_INCREASING =
+            AlertCondition.of("Diastolic Pressure Increasing");
+    public static final AlertCondition DIASTOLIC_PRESSURE_DECREASING =
+            AlertCondition.of("Diastolic Pressure Decreasing");
+    /** Low systolic pressure together with low saturation. */
+    public static final AlertCondition HYPOTENSIVE_HYPOXEMIA = AlertCondition.of("Hypotensive Hypoxemia Alert");
 
     /**
      * Creates a Blood Pressure alert with the given details.
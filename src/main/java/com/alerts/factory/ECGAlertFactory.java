@@ -1,11 +1,16 @@
 package com.alerts.factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 
 /**
  * Factory for creating ECGAlert objects.
  */
 public class ECGAlertFactory extends AlertFactory {
+    /** A heart rate below 50 or above 100 beats per minute. */
+    public static final AlertCondition ABNORMAL_HEART_RATE = AlertCondition.of("Abnormal Heart Rate Alert");
+    /** An RR interval far from the mean interval. */
+    public static final AlertCondition IRREGULAR_BEAT = AlertCondition.of("Irregular Beat Alert");
 
     /**
      * Creates an ECG alert with the given details.
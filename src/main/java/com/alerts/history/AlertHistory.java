@@ -0,0 +1,248 @@
+package com.alerts.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+
+/**
+ * An append-only record of the alerts that were delivered.
+ * Every alert is indexed three times: by patient, by condition, and by the
+ * combination of both. Each index entry keeps its alerts sorted by timestamp,
+ * so range queries and counts are answered by binary search in logarithmic
+ * time, regardless of how many alerts are stored.
+ * Alerts older than the retention period, measured back from the newest alert
+ * seen, are dropped, which keeps memory bounded by the alert rate rather than
+ * by uptime. Alerts may be appended and queried concurrently. Queries for a
+ * condition that was never raised find nothing, and do not register it.
+ */
+public class AlertHistory {
+    private final long retention;
+    private final Map<Object, AlertTimeline> byPatient = new ConcurrentHashMap<>(); // by Alert#getPatientKey
+    private final Map<AlertCondition, AlertTimeline> byCondition = new ConcurrentHashMap<>();
+    private final Map<Key, AlertTimeline> byPatientAndCondition = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private volatile long newest = Long.MIN_VALUE;
+    private volatile long lastPrune = Long.MIN_VALUE;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param retentionMillis how long alerts are kept, in milliseconds
+     */
+    public AlertHistory(long retentionMillis) {
+        if (retentionMillis <= 0) {
+            throw new IllegalArgumentException("Retention must be positive");
+        }
+        this.retention = retentionMillis;
+    }
+
+    /**
+     * Records an alert. Alerts older than the retention period are ignored.
+     *
+     * @param alert the alert that was delivered
+     */
+    public void append(Alert alert) {
+        long timestamp = alert.getTimestamp();
+        if (timestamp > newest) {
+            advanceNewest(timestamp);
+        }
+        long cutoff = cutoff();
+        if (timestamp < cutoff) {
+            return;
+        }
+        Object patient = alert.getPatientKey();
+        add(byPatient, patient, alert, cutoff, true);
+        add(byCondition, alert.getAlertCondition(), alert, cutoff, false);
+        add(byPatientAndCondition, new Key(patient, alert.getAlertCondition()), alert, cutoff, false);
+        if (newest - lastPrune > retention / 4) {
+            prune();
+        }
+    }
+
+    /**
+     * Counts a patient's alerts of one condition within a time range.
+     *
+     * @param patientId the patient id
+     * @param condition the alert condition, e.g., "Low Saturation Alert"
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the number of matching alerts
+     */
+    public int count(String patientId, String condition, long from, long to) {
+        AlertCondition known = AlertCondition.lookup(condition);
+        return known != null ? count(byPatientAndCondition, new Key(Alert.patientKey(patientId), known), from, to) : 0;
+    }
+
+    /**
+     * Counts a patient's alerts of any condition within a time range.
+     *
+     * @param patientId the patient id
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the number of matching alerts
+     */
+    public int countByPatient(String patientId, long from, long to) {
+        return count(byPatient, Alert.patientKey(patientId), from, to);
+    }
+
+    /**
+     * Counts the alerts of one condition for all patients within a time range.
+     *
+     * @param condition the alert condition
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the number of matching alerts
+     */
+    public int countByCondition(String condition, long from, long to) {
+        AlertCondition known = AlertCondition.lookup(condition);
+        return known != null ? count(byCondition, known, from, to) : 0;
+    }
+
+    /**
+     * Returns a patient's alerts of one condition within a time range.
+     *
+     * @param patientId the patient id
+     * @param condition the alert condition
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the matching alerts, oldest first
+     */
+    public List<Alert> getAlerts(String patientId, String condition, long from, long to) {
+        AlertCondition known = AlertCondition.lookup(condition);
+        return known != null ? collect(byPatientAndCondition, new Key(Alert.patientKey(patientId), known), from, to)
+                : new ArrayList<>();
+    }
+
+    /**
+     * Returns a patient's alerts of any condition within a time range.
+     *
+     * @param patientId the patient id
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the matching alerts, oldest first
+     */
+    public List<Alert> getAlertsByPatient(String patientId, long from, long to) {
+        return collect(byPatient, Alert.patientKey(patientId), from, to);
+    }
+
+    /**
+     * Returns the alerts of one condition for all patients within a time range.
+     *
+     * @param condition the alert condition
+     * @param from      the start of the range, inclusive
+     * @param to        the end of the range, inclusive
+     * @return the matching alerts, oldest first
+     */
+    public List<Alert> getAlertsByCondition(String condition, long from, long to) {
+        AlertCondition known = AlertCondition.lookup(condition);
+        return known != null ? collect(byCondition, known, from, to) : new ArrayList<>();
+    }
+
+    /**
+     * Returns the number of alerts currently retained.
+     *
+     * @return the number of alerts
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Drops the alerts that fell out of the retention period from every index,
+     * including those of patients and conditions that stopped alerting.
+     */
+    public void prune() {
+        lastPrune = newest;
+        long cutoff = cutoff();
+        expire(byPatient, cutoff, true);
+        expire(byCondition, cutoff, false);
+        expire(byPatientAndCondition, cutoff, false);
+    }
+
+    private long cutoff() {
+        long current = newest;
+        return current == Long.MIN_VALUE ? Long.MIN_VALUE : current - retention;
+    }
+
+    private synchronized void advanceNewest(long timestamp) {
+        if (timestamp > newest) {
+            if (newest == Long.MIN_VALUE) {
+                lastPrune = timestamp;
+            }
+            newest = timestamp;
+        }
+    }
+
+    private <K> void add(Map<K, AlertTimeline> index, K key, Alert alert, long cutoff, boolean counted) {
+        index.compute(key, (k, timeline) -> {
+            if (timeline == null) {
+                timeline = new AlertTimeline();
+            }
+            int expired = timeline.expire(cutoff);
+            timeline.add(alert);
+            if (counted) {
+                size.addAndGet(1 - expired);
+            }
+            return timeline;
+        });
+    }
+
+    private <K> void expire(Map<K, AlertTimeline> index, long cutoff, boolean counted) {
+        for (K key : index.keySet()) {
+            index.computeIfPresent(key, (k, timeline) -> {
+                int expired = timeline.expire(cutoff);
+                if (counted) {
+                    size.addAndGet(-expired);
+                }
+                return timeline.size() == 0 ? null : timeline;
+            });
+        }
+    }
+
+    private static <K> int count(Map<K, AlertTimeline> index, K key, long from, long to) {
+        int[] count = new int[1];
+        index.computeIfPresent(key, (k, timeline) -> {
+            count[0] = timeline.count(from, to);
+            return timeline;
+        });
+        return count[0];
+    }
+
+    private static <K> List<Alert> collect(Map<K, AlertTimeline> index, K key, long from, long to) {
+        List<Alert> alerts = new ArrayList<>();
+        index.computeIfPresent(key, (k, timeline) -> {
+            timeline.collect(from, to, alerts);
+            return timeline;
+        });
+        return alerts;
+    }
+
+    private static final class Key {
+        private final Object patient;
+        private final AlertCondition condition;
+
+        Key(Object patient, AlertCondition condition) {
+            this.patient = patient;
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return patient.equals(key.patient) && condition == key.condition;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * patient.hashCode() + condition.getCode();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.alerts.history;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.alerts.Alert;
+
+/**
+ * The alerts of one index key, sorted by timestamp.
+ * Timestamps and alerts are kept in two parallel arrays; expired alerts are
+ * dropped from the front by moving a start offset, and the arrays are
+ * compacted once the dropped prefix makes up half of them. Callers guard
+ * access with the timeline's monitor or the map entry that holds it.
+ */
+class AlertTimeline {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private Alert[] alerts = new Alert[INITIAL_CAPACITY];
+    private int start;
+    private int end;
+
+    /**
+     * Adds an alert; late alerts are inserted at their sorted position.
+     *
+     * @param alert the alert to add
+     */
+    void add(Alert alert) {
+        if (end == timestamps.length) {
+            makeRoom();
+        }
+        long timestamp = alert.getTimestamp();
+        int index = end;
+        if (end > start && timestamps[end - 1] > timestamp) {
+            index = upperBound(timestamp);
+            System.arraycopy(timestamps, index, timestamps, index + 1, end - index);
+            System.arraycopy(alerts, index, alerts, index + 1, end - index);
+        }
+        timestamps[index] = timestamp;
+        alerts[index] = alert;
+        end++;
+    }
+
+    /**
+     * Drops the alerts older than the cutoff.
+     *
+     * @param cutoff the oldest timestamp to keep
+     * @return the number of alerts dropped
+     */
+    int expire(long cutoff) {
+        int newStart = lowerBound(cutoff);
+        int expired = newStart - start;
+        Arrays.fill(alerts, start, newStart, null);
+        start = newStart;
+        return expired;
+    }
+
+    /**
+     * Counts the alerts within a time range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive
+     * @return the number of alerts in the range
+     */
+    int count(long from, long to) {
+        return Math.max(0, upperBound(to) - lowerBound(from));
+    }
+
+    /**
+     * Adds the alerts within a time range to a list, oldest first.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive
+     * @param out  the list the alerts are added to
+     */
+    void collect(long from, long to, List<Alert> out) {
+        for (int i = lowerBound(from), last = upperBound(to); i < last; i++) {
+            out.add(alerts[i]);
+        }
+    }
+
+    int size() {
+        return end - start;
+    }
+
+    private int lowerBound(long timestamp) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(long timestamp) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void makeRoom() {
+        int size = end - start;
+        if (start > 0 && size <= timestamps.length / 2) {
+            System.arraycopy(timestamps, start, timestamps, 0, size);
+            System.arraycopy(alerts, start, alerts, 0, size);
+            Arrays.fill(alerts, size, end, null);
+        } else {
+            long[] grownTimestamps = new long[timestamps.length * 2];
+            Alert[] grownAlerts = new Alert[timestamps.length * 2];
+            System.arraycopy(timestamps, start, grownTimestamps, 0, size);
+            System.arraycopy(alerts, start, grownAlerts, 0, size);
+            timestamps = grownTimestamps;
+            alerts = grownAlerts;
+        }
+        start = 0;
+        end = size;
+    }
+}
@@ -0,0 +1,129 @@
+package com.alerts.rules;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.alerts.streaming.StreamingAlertRule;
+import com.alerts.window.MonotonicWindow;
+import com.alerts.window.WindowedStatistics;
+
+/**
+ * An alert rule of a {@link RuleSet}, compiled from its text into a tree of
+ * specialized condition and value nodes.
+ * On every reading of a signal the rule refers to, the rule updates that
+ * signal's latest value and windows in the patient's {@link RuleState} and
+ * evaluates its condition. A rule declared with {@code once} triggers when its
+ * condition becomes true, other rules trigger for every reading for which it
+ * holds. Evaluating a rule allocates nothing apart from the alerts it triggers.
+ */
+public final class CompiledRule implements StreamingAlertRule<RuleState> {
+    private final AlertCondition condition;
+    private final boolean once;
+    private final ConditionNode expression;
+    private final int[] signalTypes; // record type code per signal slot
+    private final int[] extremeSignals; // signal slot per min/max window
+    private final long[] extremeLengths;
+    private final boolean[] extremeMaximum;
+    private final int[] statisticsSignals; // signal slot per mean/count/stddev window
+    private final long[] statisticsLengths;
+
+    CompiledRule(String condition, boolean once, ConditionNode expression, int[] signalTypes,
+            int[] extremeSignals, long[] extremeLengths, boolean[] extremeMaximum,
+            int[] statisticsSignals, long[] statisticsLengths) {
+        this.condition = AlertCondition.of(condition);
+        this.once = once;
+        this.expression = expression;
+        this.signalTypes = signalTypes;
+        this.extremeSignals = extremeSignals;
+        this.extremeLengths = extremeLengths;
+        this.extremeMaximum = extremeMaximum;
+        this.statisticsSignals = statisticsSignals;
+        this.statisticsLengths = statisticsLengths;
+    }
+
+    /**
+     * Returns the condition reported in the alerts of this rule.
+     *
+     * @return the alert condition
+     */
+    public String getCondition() {
+        return condition.getName();
+    }
+
+    @Override
+    public int[] getRecordTypes() {
+        return signalTypes.clone();
+    }
+
+    @Override
+    public RuleState createState(int patientId) {
+        MonotonicWindow[] extremes = new MonotonicWindow[extremeSignals.length];
+        for (int i = 0; i < extremes.length; i++) {
+            extremes[i] = extremeMaximum[i]
+                    ? MonotonicWindow.max(extremeLengths[i])
+                    : MonotonicWindow.min(extremeLengths[i]);
+        }
+        WindowedStatistics[] statistics = new WindowedStatistics[statisticsSignals.length];
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new WindowedStatistics(statisticsLengths[i]);
+        }
+        return new RuleState(signalTypes.length, extremes, statistics);
+    }
+
+    @Override
+    public void onReading(RuleState state, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator) {
+        if (evaluate(state, recordType, timestamp, measurementValue)) {
+            alertGenerator.triggerAlert(new Alert(patientId, condition, timestamp));
+        }
+    }
+
+    /**
+     * Adds a reading to the state and evaluates the condition without
+     * triggering an alert, for evaluators that report the result under a
+     * condition of their own.
+     *
+     * @param state            the patient's state of this rule
+     * @param recordType       the record type code of the reading
+     * @param timestamp        the time of the reading, in milliseconds
+     * @param measurementValue the value of the reading
+     * @return {@code true} if the rule triggers for this reading
+     */
+    public boolean evaluate(RuleState state, int recordType, long timestamp, double measurementValue) {
+        int signal = signalOf(recordType);
+        if (signal < 0) {
+            return false;
+        }
+        state.now = timestamp;
+        state.latest[signal] = measurementValue;
+        state.latestTime[signal] = timestamp;
+        for (int i = 0; i < extremeSignals.length; i++) {
+            if (extremeSignals[i] == signal) {
+                state.extremes[i].add(timestamp, measurementValue);
+            }
+        }
+        for (int i = 0; i < statisticsSignals.length; i++) {
+            if (statisticsSignals[i] == signal) {
+                state.statistics[i].add(timestamp, measurementValue);
+            }
+        }
+        boolean met = expression.test(state);
+        boolean triggers = met && !(once && state.met);
+        state.met = met;
+        return triggers;
+    }
+
+    @Override
+    public String getName() {
+        return condition.getName();
+    }
+
+    private int signalOf(int recordType) {
+        for (int i = 0; i < signalTypes.length; i++) {
+            if (signalTypes[i] == recordType) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
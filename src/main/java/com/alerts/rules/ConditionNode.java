@@ -0,0 +1,146 @@
+package com.alerts.rules;
+
+/**
+ * A boolean term of a compiled rule. Comparisons are compiled against a
+ * constant where possible, so the common {@code Signal < 90} becomes a single
+ * field read and compare. A comparison involving a {@code NaN} term is false,
+ * so {@code not} of it is true while a signal has no reading.
+ */
+abstract class ConditionNode {
+
+    abstract boolean test(RuleState state);
+
+    static final class LessThan extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        LessThan(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return value.value(state) < limit;
+        }
+    }
+
+    static final class AtMost extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        AtMost(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return value.value(state) <= limit;
+        }
+    }
+
+    static final class GreaterThan extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        GreaterThan(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return value.value(state) > limit;
+        }
+    }
+
+    static final class AtLeast extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        AtLeast(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return value.value(state) >= limit;
+        }
+    }
+
+    static final class EqualTo extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        EqualTo(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return value.value(state) == limit;
+        }
+    }
+
+    static final class NotEqualTo extends ConditionNode {
+        private final ValueNode value;
+        private final double limit;
+
+        NotEqualTo(ValueNode value, double limit) {
+            this.value = value;
+            this.limit = limit;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            double current = value.value(state);
+            return current == current && current != limit; // false for NaN
+        }
+    }
+
+    static final class And extends ConditionNode {
+        private final ConditionNode left;
+        private final ConditionNode right;
+
+        And(ConditionNode left, ConditionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return left.test(state) && right.test(state);
+        }
+    }
+
+    static final class Or extends ConditionNode {
+        private final ConditionNode left;
+        private final ConditionNode right;
+
+        Or(ConditionNode left, ConditionNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return left.test(state) || right.test(state);
+        }
+    }
+
+    static final class Not extends ConditionNode {
+        private final ConditionNode operand;
+
+        Not(ConditionNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        boolean test(RuleState state) {
+            return !operand.test(state);
+        }
+    }
+}
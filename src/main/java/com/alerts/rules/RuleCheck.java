@@ -0,0 +1,32 @@
+package com.alerts.rules;
+
+/**
+ * Replays the stored readings of one patient through one rule of a
+ * {@link RuleSet} and tells for which of them the rule triggers. The
+ * evaluators over stored readings use it to apply the same rules as the
+ * {@link RuleEngine} while reporting alerts under their own conditions.
+ * Readings must be replayed in time order; a check of a rule that is missing
+ * from the set never triggers, so removing a rule from the rule file turns
+ * the check off.
+ */
+public final class RuleCheck {
+    private final CompiledRule rule; // null if the set has no such rule
+    private final RuleState state;
+
+    RuleCheck(CompiledRule rule, int patientId) {
+        this.rule = rule;
+        this.state = rule == null ? null : rule.createState(patientId);
+    }
+
+    /**
+     * Replays a reading through the rule.
+     *
+     * @param recordType       the record type code of the reading
+     * @param timestamp        the time of the reading, in milliseconds
+     * @param measurementValue the value of the reading
+     * @return {@code true} if the rule triggers for this reading
+     */
+    public boolean test(int recordType, long timestamp, double measurementValue) {
+        return rule != null && rule.evaluate(state, recordType, timestamp, measurementValue);
+    }
+}
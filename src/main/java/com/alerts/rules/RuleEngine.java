@@ -0,0 +1,189 @@
+package com.alerts.rules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alerts.AlertGenerator;
+import com.data_management.DataListener;
+
+/**
+ * Evaluates a {@link RuleSet} as readings are added to a
+ * {@link com.data_management.DataStorage}, and replaces the rule set while
+ * readings keep arriving.
+ * The current rule set is held in a volatile field. Replacing it is a single
+ * write, so ingest never waits for a reload; compiling the new rules happens
+ * before, on the thread that loads them. Every patient's rule states belong
+ * to the rule set they were created for, and are recreated for the new set
+ * with that patient's next reading, so windows of a reloaded rule start empty.
+ * The engine also hands every rule set to its {@link AlertGenerator}, so the
+ * evaluators over stored readings apply the same thresholds.
+ * <p>
+ * Typical use:
+ *
+ * <pre>
+ * RuleEngine engine = new RuleEngine(alertGenerator, RuleSet.load(rulesFile));
+ * engine.watch(rulesFile, 5000);
+ * dataStorage.addListener(engine);
+ * </pre>
+ */
+public class RuleEngine implements DataListener, AutoCloseable {
+    private final AlertGenerator alertGenerator;
+    private volatile RuleSet ruleSet;
+    private final Map<Integer, PatientRules> patients = new ConcurrentHashMap<>();
+    private ScheduledExecutorService watcher;
+    private final AtomicLong reloadCount = new AtomicLong(); // set by callers and the watcher thread
+    private final AtomicLong failedReloadCount = new AtomicLong();
+
+    /**
+     * Constructs an engine that evaluates a rule set and triggers alerts
+     * through the given generator, and sets the rule set of that generator.
+     *
+     * @param alertGenerator the generator through which alerts are triggered
+     * @param ruleSet        the rules to evaluate
+     */
+    public RuleEngine(AlertGenerator alertGenerator, RuleSet ruleSet) {
+        this.alertGenerator = alertGenerator;
+        this.ruleSet = ruleSet;
+        alertGenerator.setRuleSet(ruleSet);
+    }
+
+    /**
+     * Returns the rule set currently evaluated.
+     *
+     * @return the rule set
+     */
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Replaces the rule set, here and in the alert generator. Readings
+     * evaluated after this call use the new rules.
+     *
+     * @param ruleSet the rules to evaluate from now on
+     */
+    public void setRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+        alertGenerator.setRuleSet(ruleSet);
+        reloadCount.incrementAndGet();
+    }
+
+    /**
+     * Checks a rule file for changes at a fixed interval and loads the rules
+     * whenever it changed. A file that cannot be read or compiled is reported
+     * and the current rules stay in effect.
+     *
+     * @param file         the rule file
+     * @param periodMillis the time between two checks, in milliseconds
+     */
+    public synchronized void watch(Path file, long periodMillis) {
+        if (watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "alert-rule-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long[] lastModified = { lastModified(file) };
+        watcher.scheduleWithFixedDelay(() -> {
+            long modified = lastModified(file);
+            if (modified == lastModified[0]) {
+                return;
+            }
+            lastModified[0] = modified;
+            try {
+                setRuleSet(RuleSet.load(file));
+            } catch (IOException | IllegalArgumentException e) {
+                failedReloadCount.incrementAndGet();
+                System.err.println("Error reloading alert rules from " + file + ": " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the number of times the rule set was replaced.
+     *
+     * @return the reload count
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Returns the number of times a changed rule file could not be loaded.
+     *
+     * @return the failed reload count
+     */
+    public long getFailedReloadCount() {
+        return failedReloadCount.get();
+    }
+
+    /**
+     * Stops watching rule files.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Updates the state of every rule that reads the reading's record type and
+     * triggers the resulting alerts.
+     */
+    @Override
+    public void onPatientData(int patientId, int recordType, long timestamp, double measurementValue) {
+        RuleSet current = ruleSet;
+        int[] ruleIndexes = current.rulesFor(recordType);
+        if (ruleIndexes == null) {
+            return;
+        }
+        PatientRules states = patients.computeIfAbsent(patientId, id -> new PatientRules());
+        synchronized (states) {
+            if (states.ruleSet != current) {
+                states.reset(current, patientId);
+            }
+            List<CompiledRule> rules = current.getRules();
+            for (int ruleIndex : ruleIndexes) {
+                rules.get(ruleIndex).onReading(states.states[ruleIndex], patientId, recordType, timestamp,
+                        measurementValue, alertGenerator);
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() ^ Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The rule states of one patient and the rule set they were created for.
+     */
+    private static class PatientRules {
+        private RuleSet ruleSet;
+        private RuleState[] states;
+
+        void reset(RuleSet ruleSet, int patientId) {
+            List<CompiledRule> rules = ruleSet.getRules();
+            RuleState[] newStates = new RuleState[rules.size()];
+            for (int i = 0; i < newStates.length; i++) {
+                newStates[i] = rules.get(i).createState(patientId);
+            }
+            this.ruleSet = ruleSet;
+            this.states = newStates;
+        }
+    }
+}
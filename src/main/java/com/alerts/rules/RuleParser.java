@@ -0,0 +1,490 @@
+package com.alerts.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.data_management.RecordTypeRegistry;
+
+/**
+ * Parses the text of a rule file and compiles every rule as it is read.
+ * The grammar, with {@code #} starting a comment that runs to the end of the
+ * line and line breaks otherwise insignificant:
+ *
+ * <pre>
+ * file       := rule*
+ * rule       := 'alert' 'once'? STRING 'when' condition
+ * condition  := conjunct ('or' conjunct)*
+ * conjunct   := negation ('and' negation)*
+ * negation   := 'not' negation | '(' condition ')' | value OP value
+ * value      := product (('+' | '-') product)*
+ * product    := operand (('*' | '/') operand)*
+ * operand    := NUMBER | '-' operand | '(' value ')' | SIGNAL
+ *             | AGGREGATE '(' SIGNAL ',' DURATION ')'
+ * OP         := '&lt;' | '&lt;=' | '&gt;' | '&gt;=' | '==' | '!='
+ * AGGREGATE  := 'min' | 'max' | 'mean' | 'stddev' | 'count' | 'last'
+ * DURATION   := NUMBER ('ms' | 's' | 'm' | 'h' | 'd')
+ * </pre>
+ *
+ * A signal is a record type label such as {@code SystolicPressure}.
+ */
+final class RuleParser {
+    private static final String[] AGGREGATES = { "min", "max", "mean", "stddev", "count", "last" };
+
+    private final List<Token> tokens;
+    private int position;
+
+    // The rule being compiled
+    private List<Integer> signalTypes;
+    private List<long[]> extremes; // { signal, length, maximum ? 1 : 0 }
+    private List<long[]> statistics; // { signal, length }
+
+    private RuleParser(String text) {
+        this.tokens = tokenize(text);
+    }
+
+    /**
+     * Parses and compiles the rules of a rule file.
+     *
+     * @param text the content of the rule file
+     * @return the compiled rules, in the order of the file
+     * @throws IllegalArgumentException if the text is not a valid rule file
+     */
+    static List<CompiledRule> parse(String text) {
+        RuleParser parser = new RuleParser(text);
+        List<CompiledRule> rules = new ArrayList<>();
+        while (parser.peek().kind != Kind.END) {
+            rules.add(parser.rule());
+        }
+        return rules;
+    }
+
+    private CompiledRule rule() {
+        expectWord("alert");
+        boolean once = acceptWord("once");
+        Token condition = next();
+        if (condition.kind != Kind.STRING) {
+            throw error(condition, "expected the alert condition in quotes");
+        }
+        expectWord("when");
+        signalTypes = new ArrayList<>();
+        extremes = new ArrayList<>();
+        statistics = new ArrayList<>();
+        ConditionNode expression = condition();
+
+        int[] types = new int[signalTypes.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = signalTypes.get(i);
+        }
+        int[] extremeSignals = new int[extremes.size()];
+        long[] extremeLengths = new long[extremes.size()];
+        boolean[] extremeMaximum = new boolean[extremes.size()];
+        for (int i = 0; i < extremeSignals.length; i++) {
+            extremeSignals[i] = (int) extremes.get(i)[0];
+            extremeLengths[i] = extremes.get(i)[1];
+            extremeMaximum[i] = extremes.get(i)[2] == 1;
+        }
+        int[] statisticsSignals = new int[statistics.size()];
+        long[] statisticsLengths = new long[statistics.size()];
+        for (int i = 0; i < statisticsSignals.length; i++) {
+            statisticsSignals[i] = (int) statistics.get(i)[0];
+            statisticsLengths[i] = statistics.get(i)[1];
+        }
+        return new CompiledRule(condition.text, once, expression, types, extremeSignals, extremeLengths,
+                extremeMaximum, statisticsSignals, statisticsLengths);
+    }
+
+    private ConditionNode condition() {
+        ConditionNode node = conjunct();
+        while (acceptWord("or")) {
+            node = new ConditionNode.Or(node, conjunct());
+        }
+        return node;
+    }
+
+    private ConditionNode conjunct() {
+        ConditionNode node = negation();
+        while (acceptWord("and")) {
+            node = new ConditionNode.And(node, negation());
+        }
+        return node;
+    }
+
+    private ConditionNode negation() {
+        if (acceptWord("not")) {
+            return new ConditionNode.Not(negation());
+        }
+        if (peek().kind == Kind.SYMBOL && peek().text.equals("(")) {
+            // Either a parenthesized condition or a comparison starting with a parenthesized value
+            int start = position;
+            int signals = signalTypes.size();
+            int extremeCount = extremes.size();
+            int statisticsCount = statistics.size();
+            try {
+                next();
+                ConditionNode node = condition();
+                expectSymbol(")");
+                return node;
+            } catch (IllegalArgumentException e) {
+                position = start;
+                signalTypes.subList(signals, signalTypes.size()).clear();
+                extremes.subList(extremeCount, extremes.size()).clear();
+                statistics.subList(statisticsCount, statistics.size()).clear();
+            }
+        }
+        return comparison();
+    }
+
+    private ConditionNode comparison() {
+        ValueNode left = value();
+        Token operator = next();
+        if (operator.kind != Kind.OPERATOR) {
+            throw error(operator, "expected a comparison");
+        }
+        ValueNode right = value();
+        String op = operator.text;
+        if (left instanceof ValueNode.Constant && !(right instanceof ValueNode.Constant)) {
+            // Compare the term with the constant, mirroring the operator
+            ValueNode swap = left;
+            left = right;
+            right = swap;
+            op = mirror(op);
+        }
+        double limit;
+        if (right instanceof ValueNode.Constant) {
+            limit = ((ValueNode.Constant) right).constant;
+        } else {
+            left = new ValueNode.Subtract(left, right);
+            limit = 0;
+        }
+        switch (op) {
+            case "<":
+                return new ConditionNode.LessThan(left, limit);
+            case "<=":
+                return new ConditionNode.AtMost(left, limit);
+            case ">":
+                return new ConditionNode.GreaterThan(left, limit);
+            case ">=":
+                return new ConditionNode.AtLeast(left, limit);
+            case "==":
+                return new ConditionNode.EqualTo(left, limit);
+            default:
+                return new ConditionNode.NotEqualTo(left, limit);
+        }
+    }
+
+    private ValueNode value() {
+        ValueNode node = product();
+        while (true) {
+            if (acceptSymbol("+")) {
+                node = arithmetic(node, product(), '+');
+            } else if (acceptSymbol("-")) {
+                node = arithmetic(node, product(), '-');
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ValueNode product() {
+        ValueNode node = operand();
+        while (true) {
+            if (acceptSymbol("*")) {
+                node = arithmetic(node, operand(), '*');
+            } else if (acceptSymbol("/")) {
+                node = arithmetic(node, operand(), '/');
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ValueNode operand() {
+        Token token = next();
+        switch (token.kind) {
+            case NUMBER:
+                return new ValueNode.Constant(token.number);
+            case SYMBOL:
+                if (token.text.equals("-")) {
+                    ValueNode operand = operand();
+                    return operand instanceof ValueNode.Constant
+                            ? new ValueNode.Constant(-((ValueNode.Constant) operand).constant)
+                            : new ValueNode.Negate(operand);
+                }
+                if (token.text.equals("(")) {
+                    ValueNode node = value();
+                    expectSymbol(")");
+                    return node;
+                }
+                break;
+            case WORD:
+                if (isAggregate(token.text) && acceptSymbol("(")) {
+                    return aggregate(token.text);
+                }
+                return new ValueNode.Latest(signal(token));
+            default:
+                break;
+        }
+        throw error(token, "expected a number, signal or aggregate");
+    }
+
+    private ValueNode aggregate(String function) {
+        int signal = signal(next());
+        expectSymbol(",");
+        Token duration = next();
+        if (duration.kind != Kind.DURATION) {
+            throw error(duration, "expected a window length such as 10m");
+        }
+        expectSymbol(")");
+        long length = (long) duration.number;
+        switch (function) {
+            case "min":
+                return new ValueNode.Extreme(window(extremes, signal, length, 0));
+            case "max":
+                return new ValueNode.Extreme(window(extremes, signal, length, 1));
+            case "mean":
+                return new ValueNode.Mean(window(statistics, signal, length, -1));
+            case "stddev":
+                return new ValueNode.StandardDeviation(window(statistics, signal, length, -1));
+            case "count":
+                return new ValueNode.Count(window(statistics, signal, length, -1));
+            default:
+                return new ValueNode.LatestWithin(signal, length);
+        }
+    }
+
+    /**
+     * Returns the slot of a window, sharing windows between aggregates of the
+     * same signal and length.
+     */
+    private static int window(List<long[]> windows, int signal, long length, int maximum) {
+        for (int i = 0; i < windows.size(); i++) {
+            long[] window = windows.get(i);
+            if (window[0] == signal && window[1] == length && (maximum < 0 || window[2] == maximum)) {
+                return i;
+            }
+        }
+        windows.add(maximum < 0 ? new long[] { signal, length } : new long[] { signal, length, maximum });
+        return windows.size() - 1;
+    }
+
+    private int signal(Token token) {
+        if (token.kind != Kind.WORD || isAggregate(token.text) || isKeyword(token.text)) {
+            throw error(token, "expected a signal name");
+        }
+        int recordType = RecordTypeRegistry.codeOf(token.text);
+        int slot = signalTypes.indexOf(recordType);
+        if (slot < 0) {
+            signalTypes.add(recordType);
+            slot = signalTypes.size() - 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Combines two terms, computing arithmetic on two constants once, here.
+     */
+    private static ValueNode arithmetic(ValueNode left, ValueNode right, char operator) {
+        if (left instanceof ValueNode.Constant && right instanceof ValueNode.Constant) {
+            double a = ((ValueNode.Constant) left).constant;
+            double b = ((ValueNode.Constant) right).constant;
+            switch (operator) {
+                case '+':
+                    return new ValueNode.Constant(a + b);
+                case '-':
+                    return new ValueNode.Constant(a - b);
+                case '*':
+                    return new ValueNode.Constant(a * b);
+                default:
+                    return new ValueNode.Constant(a / b);
+            }
+        }
+        switch (operator) {
+            case '+':
+                return new ValueNode.Add(left, right);
+            case '-':
+                return new ValueNode.Subtract(left, right);
+            case '*':
+                return new ValueNode.Multiply(left, right);
+            default:
+                return new ValueNode.Divide(left, right);
+        }
+    }
+
+    private static String mirror(String operator) {
+        switch (operator) {
+            case "<":
+                return ">";
+            case "<=":
+                return ">=";
+            case ">":
+                return "<";
+            case ">=":
+                return "<=";
+            default:
+                return operator;
+        }
+    }
+
+    private static boolean isAggregate(String word) {
+        for (String aggregate : AGGREGATES) {
+            if (aggregate.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isKeyword(String word) {
+        return word.equals("alert") || word.equals("once") || word.equals("when") || word.equals("and")
+                || word.equals("or") || word.equals("not");
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.kind != Kind.END) {
+            position++;
+        }
+        return token;
+    }
+
+    private boolean acceptWord(String word) {
+        if (peek().kind == Kind.WORD && peek().text.equals(word)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectWord(String word) {
+        if (!acceptWord(word)) {
+            throw error(peek(), "expected '" + word + "'");
+        }
+    }
+
+    private boolean acceptSymbol(String symbol) {
+        if (peek().kind == Kind.SYMBOL && peek().text.equals(symbol)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectSymbol(String symbol) {
+        if (!acceptSymbol(symbol)) {
+            throw error(peek(), "expected '" + symbol + "'");
+        }
+    }
+
+    private static IllegalArgumentException error(Token token, String message) {
+        String found = token.kind == Kind.END ? "end of file" : "'" + token.text + "'";
+        return new IllegalArgumentException("Line " + token.line + ": " + message + ", found " + found);
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int line = 1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '#') {
+                while (i < text.length() && text.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0 || text.substring(i, end).indexOf('\n') >= 0) {
+                    throw new IllegalArgumentException("Line " + line + ": unterminated string");
+                }
+                tokens.add(new Token(Kind.STRING, text.substring(i + 1, end), 0, line));
+                i = end + 1;
+            } else if (Character.isDigit(c) || c == '.') {
+                int start = i;
+                while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+                    i++;
+                }
+                int unitStart = i;
+                while (i < text.length() && Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                String digits = text.substring(start, unitStart);
+                double number;
+                try {
+                    number = Double.parseDouble(digits);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + line + ": invalid number '" + digits + "'");
+                }
+                String unit = text.substring(unitStart, i);
+                if (unit.isEmpty()) {
+                    tokens.add(new Token(Kind.NUMBER, digits, number, line));
+                } else {
+                    tokens.add(new Token(Kind.DURATION, digits + unit, number * unitMillis(unit, line), line));
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(Kind.WORD, text.substring(start, i), 0, line));
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                boolean twoChars = i + 1 < text.length() && text.charAt(i + 1) == '=';
+                String operator = text.substring(i, i + (twoChars ? 2 : 1));
+                if (operator.equals("=") || operator.equals("!")) {
+                    throw new IllegalArgumentException("Line " + line + ": unknown operator '" + operator + "'");
+                }
+                tokens.add(new Token(Kind.OPERATOR, operator, 0, line));
+                i += operator.length();
+            } else if ("()+-*/,".indexOf(c) >= 0) {
+                tokens.add(new Token(Kind.SYMBOL, String.valueOf(c), 0, line));
+                i++;
+            } else {
+                throw new IllegalArgumentException("Line " + line + ": unexpected character '" + c + "'");
+            }
+        }
+        tokens.add(new Token(Kind.END, "", 0, line));
+        return tokens;
+    }
+
+    private static long unitMillis(String unit, int line) {
+        switch (unit) {
+            case "ms":
+                return 1;
+            case "s":
+                return 1000;
+            case "m":
+                return 60000;
+            case "h":
+                return 3600000;
+            case "d":
+                return 86400000;
+            default:
+                throw new IllegalArgumentException("Line " + line + ": unknown time unit '" + unit + "'");
+        }
+    }
+
+    private enum Kind {
+        WORD, NUMBER, DURATION, STRING, OPERATOR, SYMBOL, END
+    }
+
+    private static final class Token {
+        private final Kind kind;
+        private final String text;
+        private final double number;
+        private final int line;
+
+        Token(Kind kind, String text, double number, int line) {
+            this.kind = kind;
+            this.text = text;
+            this.number = number;
+            this.line = line;
+        }
+    }
+}
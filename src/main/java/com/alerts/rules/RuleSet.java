@@ -0,0 +1,166 @@
+package com.alerts.rules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of alert rules compiled from the rule language, e.g.:
+ *
+ * <pre>
+ * # Pressure outside the critical range
+ * alert "Critical Pressure Threshold Alert (SystolicPressure)"
+ *     when SystolicPressure &lt; 90 or SystolicPressure &gt; 180
+ *
+ * # Saturation five points below the highest reading of the last ten minutes
+ * alert once "Rapid Drop In BloodOxygen" when max(Saturation, 10m) - Saturation &gt;= 5
+ * </pre>
+ *
+ * Each rule names the condition reported in its alerts and a condition over
+ * signals, i.e. record type labels, combined with {@code and}, {@code or} and
+ * {@code not}. A bare signal is its latest reading; {@code min}, {@code max},
+ * {@code mean}, {@code stddev}, {@code count} and {@code last} aggregate a
+ * signal over a sliding window. See {@link RuleParser} for the full grammar.
+ * <p>
+ * The rules are compiled when the set is created, so a rule file with errors
+ * is rejected as a whole before any of its rules is used. The compiled rules
+ * can be registered with a {@link com.alerts.streaming.StreamingAlertEvaluator}
+ * individually, or the set can be run by a {@link RuleEngine}, which can
+ * replace it while readings keep arriving. The evaluators over stored
+ * readings, {@link com.alerts.AlertGenerator#evaluateData} and the
+ * {@link com.alerts.strategy.AlertStrategy} implementations, take their
+ * thresholds from the set of their {@link com.alerts.AlertGenerator} through
+ * {@link #check}.
+ */
+public final class RuleSet {
+    private static final String DEFAULT_RULES = "default.rules";
+
+    private final List<CompiledRule> rules;
+    private final int[][] rulesByType; // rule indexes per record type code
+
+    private RuleSet(List<CompiledRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        int[][] byType = new int[0][];
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            for (int recordType : rules.get(ruleIndex).getRecordTypes()) {
+                if (recordType >= byType.length) {
+                    byType = Arrays.copyOf(byType, recordType + 1);
+                }
+                int[] indexes = byType[recordType] == null ? new int[0] : byType[recordType];
+                indexes = Arrays.copyOf(indexes, indexes.length + 1);
+                indexes[indexes.length - 1] = ruleIndex;
+                byType[recordType] = indexes;
+            }
+        }
+        this.rulesByType = byType;
+    }
+
+    /**
+     * Compiles the rules of a rule file.
+     *
+     * @param text the content of the rule file
+     * @return the compiled rule set
+     * @throws IllegalArgumentException if the text is not a valid rule file
+     */
+    public static RuleSet parse(String text) {
+        return new RuleSet(RuleParser.parse(text));
+    }
+
+    /**
+     * Reads and compiles a rule file.
+     *
+     * @param file the rule file, in UTF-8
+     * @return the compiled rule set
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid rule file
+     */
+    public static RuleSet load(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compiles the rule file bundled with the application, which holds the
+     * standard threshold rules.
+     *
+     * @return the compiled default rule set
+     */
+    public static RuleSet loadDefaults() {
+        try (InputStream in = RuleSet.class.getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing bundled rule file " + DEFAULT_RULES);
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+            return parse(new String(content.toByteArray(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read bundled rule file " + DEFAULT_RULES, e);
+        }
+    }
+
+    /**
+     * Returns the compiled rules, in the order of the rule file.
+     *
+     * @return an unmodifiable list of the rules
+     */
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the rule that reports a condition.
+     *
+     * @param condition the alert condition of the rule
+     * @return the first rule with that condition, or {@code null} if the set
+     *         has none
+     */
+    public CompiledRule getRule(String condition) {
+        for (CompiledRule rule : rules) {
+            if (rule.getCondition().equals(condition)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts replaying one patient's readings through the rule that reports a
+     * condition, see {@link RuleCheck}.
+     *
+     * @param condition the alert condition of the rule
+     * @param patientId the patient whose readings are replayed
+     * @return the check, which never triggers if the set has no such rule
+     */
+    public RuleCheck check(String condition, int patientId) {
+        return new RuleCheck(getRule(condition), patientId);
+    }
+
+    /**
+     * Returns the number of rules in the set.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Returns the indexes of the rules that read a record type.
+     *
+     * @param recordType the record type code
+     * @return the rule indexes, or {@code null} if no rule reads the type
+     */
+    int[] rulesFor(int recordType) {
+        return recordType < rulesByType.length ? rulesByType[recordType] : null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.alerts.rules;
+
+import java.util.Arrays;
+
+import com.alerts.window.MonotonicWindow;
+import com.alerts.window.WindowedStatistics;
+
+/**
+ * The per-patient state of a {@link CompiledRule}: the latest reading of each
+ * signal the rule refers to and the sliding windows behind its aggregates.
+ * The state is only touched by the rule that created it.
+ */
+public final class RuleState {
+    long now; // timestamp of the reading being evaluated
+    final double[] latest;
+    final long[] latestTime;
+    final MonotonicWindow[] extremes;
+    final WindowedStatistics[] statistics;
+    boolean met; // whether the condition held at the previous reading
+
+    RuleState(int signals, MonotonicWindow[] extremes, WindowedStatistics[] statistics) {
+        this.latest = new double[signals];
+        this.latestTime = new long[signals];
+        Arrays.fill(latest, Double.NaN);
+        this.extremes = extremes;
+        this.statistics = statistics;
+    }
+}
@@ -0,0 +1,210 @@
+package com.alerts.rules;
+
+import com.alerts.window.MonotonicWindow;
+import com.alerts.window.WindowedStatistics;
+
+/**
+ * A numeric term of a compiled rule. Every kind of term is its own small final
+ * class, so evaluating a rule is a tree of monomorphic calls that read the
+ * rule's state directly and allocate nothing.
+ * A term is {@code NaN} while the signal it reads has no reading in range.
+ */
+abstract class ValueNode {
+
+    abstract double value(RuleState state);
+
+    /**
+     * A number written in the rule.
+     */
+    static final class Constant extends ValueNode {
+        final double constant;
+
+        Constant(double constant) {
+            this.constant = constant;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return constant;
+        }
+    }
+
+    /**
+     * The latest reading of a signal, however old.
+     */
+    static final class Latest extends ValueNode {
+        private final int signal;
+
+        Latest(int signal) {
+            this.signal = signal;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return state.latest[signal];
+        }
+    }
+
+    /**
+     * The latest reading of a signal if it lies within the window.
+     */
+    static final class LatestWithin extends ValueNode {
+        private final int signal;
+        private final long windowMillis;
+
+        LatestWithin(int signal, long windowMillis) {
+            this.signal = signal;
+            this.windowMillis = windowMillis;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return state.latestTime[signal] >= state.now - windowMillis ? state.latest[signal] : Double.NaN;
+        }
+    }
+
+    /**
+     * The minimum or maximum of a signal within a window.
+     */
+    static final class Extreme extends ValueNode {
+        private final int window;
+
+        Extreme(int window) {
+            this.window = window;
+        }
+
+        @Override
+        double value(RuleState state) {
+            MonotonicWindow extreme = state.extremes[window];
+            extreme.expire(state.now);
+            return extreme.get();
+        }
+    }
+
+    /**
+     * The mean of a signal within a window.
+     */
+    static final class Mean extends ValueNode {
+        private final int window;
+
+        Mean(int window) {
+            this.window = window;
+        }
+
+        @Override
+        double value(RuleState state) {
+            WindowedStatistics statistics = state.statistics[window];
+            statistics.expire(state.now);
+            return statistics.mean();
+        }
+    }
+
+    /**
+     * The standard deviation of a signal within a window.
+     */
+    static final class StandardDeviation extends ValueNode {
+        private final int window;
+
+        StandardDeviation(int window) {
+            this.window = window;
+        }
+
+        @Override
+        double value(RuleState state) {
+            WindowedStatistics statistics = state.statistics[window];
+            statistics.expire(state.now);
+            return Math.sqrt(statistics.variance());
+        }
+    }
+
+    /**
+     * The number of readings of a signal within a window.
+     */
+    static final class Count extends ValueNode {
+        private final int window;
+
+        Count(int window) {
+            this.window = window;
+        }
+
+        @Override
+        double value(RuleState state) {
+            WindowedStatistics statistics = state.statistics[window];
+            statistics.expire(state.now);
+            return statistics.count();
+        }
+    }
+
+    static final class Negate extends ValueNode {
+        private final ValueNode operand;
+
+        Negate(ValueNode operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return -operand.value(state);
+        }
+    }
+
+    static final class Add extends ValueNode {
+        private final ValueNode left;
+        private final ValueNode right;
+
+        Add(ValueNode left, ValueNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return left.value(state) + right.value(state);
+        }
+    }
+
+    static final class Subtract extends ValueNode {
+        private final ValueNode left;
+        private final ValueNode right;
+
+        Subtract(ValueNode left, ValueNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return left.value(state) - right.value(state);
+        }
+    }
+
+    static final class Multiply extends ValueNode {
+        private final ValueNode left;
+        private final ValueNode right;
+
+        Multiply(ValueNode left, ValueNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return left.value(state) * right.value(state);
+        }
+    }
+
+    static final class Divide extends ValueNode {
+        private final ValueNode left;
+        private final ValueNode right;
+
+        Divide(ValueNode left, ValueNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double value(RuleState state) {
+            return left.value(state) / right.value(state);
+        }
+    }
+}
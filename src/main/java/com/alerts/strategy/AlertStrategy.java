@@ -4,6 +4,10 @@ import com.data_management.Patient;
 
 /**
  * Interface for defining alert strategies.
+ * A strategy can either check a patient on its own through
+ * {@link #checkAlert(Patient)}, or take part in a shared scan run by an
+ * {@link AlertStrategyExecutor}, which reads the patient's history once for all
+ * strategies and feeds each one the readings it asked for.
  */
 public interface AlertStrategy {
     
@@ -13,4 +17,46 @@ public interface AlertStrategy {
      * @param patient The patient for whom the alert is being checked.
      */
     public void checkAlert(Patient patient);
+
+    /**
+     * Returns how far back from the current time this strategy looks.
+     *
+     * @return the length of the window, in milliseconds
+     */
+    default long getWindow() {
+        return 0;
+    }
+
+    /**
+     * Returns the record types whose readings this strategy needs.
+     *
+     * @return the record type codes, see
+     *         {@link com.data_management.RecordTypeRegistry}
+     */
+    default int[] getRecordTypes() {
+        return new int[0];
+    }
+
+    /**
+     * Starts a shared scan of a patient's readings.
+     * The default implementation ignores the readings and runs
+     * {@link #checkAlert(Patient)} when the scan finishes, so strategies that do
+     * not support shared scans still work with an {@link AlertStrategyExecutor}.
+     *
+     * @param patient     The patient being scanned.
+     * @param currentTime The end of the window, in milliseconds since UNIX epoch.
+     * @return the scan that receives the patient's readings
+     */
+    default RecordScan startScan(Patient patient, long currentTime) {
+        return new RecordScan() {
+            @Override
+            public void accept(int recordType, long timestamp, double measurementValue) {
+            }
+
+            @Override
+            public void finish() {
+                checkAlert(patient);
+            }
+        };
+    }
 }
@@ -0,0 +1,232 @@
+package com.alerts.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alerts.clock.AlertClock;
+import com.data_management.Patient;
+import com.data_management.RecordSeries;
+import com.data_management.RecordTypeRegistry;
+
+/**
+ * Registry of {@link AlertStrategy} implementations that evaluates all of them
+ * in one pass over a patient's history.
+ * For each record type the strategies need, the executor reads the patient's
+ * series once for the widest window any of them asks for. It then walks the
+ * readings of all those types in timestamp order and hands each reading to the
+ * strategies that registered for its type and whose window covers it. Adding a
+ * strategy therefore does not add another read of the patient's history.
+ * When only some record types of a patient changed, only the strategies that
+ * read one of those types need to run; the executor keeps a plan per subset of
+ * strategies so that such partial evaluations cost no more setup than full
+ * ones.
+ */
+public class AlertStrategyExecutor {
+    private final List<AlertStrategy> strategies = new CopyOnWriteArrayList<>();
+    private volatile Plan plan = new Plan(new AlertStrategy[0]);
+
+    /**
+     * Constructs an executor with no strategies.
+     */
+    public AlertStrategyExecutor() {
+    }
+
+    /**
+     * Constructs an executor with the given strategies.
+     *
+     * @param strategies the strategies to register
+     */
+    public AlertStrategyExecutor(List<AlertStrategy> strategies) {
+        for (AlertStrategy strategy : strategies) {
+            register(strategy);
+        }
+    }
+
+    /**
+     * Adds a strategy to the shared scan.
+     *
+     * @param strategy the strategy to register
+     */
+    public synchronized void register(AlertStrategy strategy) {
+        strategies.add(strategy);
+        plan = new Plan(strategies.toArray(new AlertStrategy[0]));
+    }
+
+    /**
+     * Returns the registered strategies.
+     *
+     * @return the strategies, in registration order
+     */
+    public List<AlertStrategy> getStrategies() {
+        return strategies;
+    }
+
+    /**
+     * Evaluates every registered strategy for a patient, using the wall-clock
+     * time as the end of the window.
+     *
+     * @param patient the patient to evaluate
+     */
+    public void evaluate(Patient patient) {
+        evaluate(patient, AlertClock.SYSTEM.currentTimeMillis());
+    }
+
+    /**
+     * Evaluates every registered strategy for a patient in a single ordered pass.
+     *
+     * @param patient     the patient to evaluate
+     * @param currentTime the end of the window, in milliseconds since UNIX epoch
+     */
+    public void evaluate(Patient patient, long currentTime) {
+        evaluate(patient, currentTime, plan);
+    }
+
+    /**
+     * Evaluates only the strategies that read at least one of the changed
+     * record types. Strategies that do not declare their record types depend on
+     * every type and always run.
+     *
+     * @param patient      the patient to evaluate
+     * @param currentTime  the end of the window, in milliseconds since UNIX epoch
+     * @param changedTypes the record types that changed, as a set of bits, see
+     *                     {@link RecordTypeRegistry#maskOf(int)}
+     */
+    public void evaluate(Patient patient, long currentTime, long changedTypes) {
+        Plan current = plan;
+        long selection = 0;
+        for (int s = 0; s < current.strategies.length; s++) {
+            if ((current.typeMasks[s] & changedTypes) != 0) {
+                selection |= 1L << Math.min(s, 63);
+            }
+        }
+        if (selection == 0) {
+            return;
+        }
+        if (selection != current.allSelected && current.strategies.length <= 63) {
+            current = current.subset(selection);
+        }
+        evaluate(patient, currentTime, current);
+    }
+
+    private void evaluate(Patient patient, long currentTime, Plan current) {
+        RecordScan[] scans = new RecordScan[current.strategies.length];
+        for (int i = 0; i < scans.length; i++) {
+            scans[i] = current.strategies[i].startScan(patient, currentTime);
+        }
+
+        int typeCount = current.recordTypes.length;
+        RecordSeries[] series = new RecordSeries[typeCount];
+        int[] positions = new int[typeCount];
+        for (int t = 0; t < typeCount; t++) {
+            RecordSeries stored = patient.getSeries(current.recordTypes[t]);
+            if (stored != null) {
+                series[t] = stored.slice(currentTime - current.typeWindows[t], currentTime);
+            }
+        }
+
+        while (true) {
+            int next = -1;
+            long nextTimestamp = Long.MAX_VALUE;
+            for (int t = 0; t < typeCount; t++) {
+                if (series[t] != null && positions[t] < series[t].size()
+                        && series[t].getTimestamp(positions[t]) < nextTimestamp) {
+                    next = t;
+                    nextTimestamp = series[t].getTimestamp(positions[t]);
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            double value = series[next].getValue(positions[next]++);
+            int recordType = current.recordTypes[next];
+            for (int strategyIndex : current.strategiesByType[next]) {
+                if (nextTimestamp >= currentTime - current.strategies[strategyIndex].getWindow()) {
+                    scans[strategyIndex].accept(recordType, nextTimestamp, value);
+                }
+            }
+        }
+
+        for (RecordScan scan : scans) {
+            scan.finish();
+        }
+    }
+
+    /**
+     * The record types to read, the widest window per type and the strategies
+     * interested in each type, derived once per registration. The plans for
+     * subsets of the strategies are derived on first use and cached.
+     */
+    private static class Plan {
+        private final AlertStrategy[] strategies;
+        private final long[] typeMasks;
+        private final long allSelected;
+        private final int[] recordTypes;
+        private final long[] typeWindows;
+        private final int[][] strategiesByType;
+        private final Map<Long, Plan> subsets = new ConcurrentHashMap<>();
+
+        Plan(AlertStrategy[] strategies) {
+            this.strategies = strategies;
+            this.typeMasks = new long[strategies.length];
+            long all = 0;
+            for (int s = 0; s < strategies.length; s++) {
+                long mask = 0;
+                for (int recordType : strategies[s].getRecordTypes()) {
+                    mask |= RecordTypeRegistry.maskOf(recordType);
+                }
+                typeMasks[s] = mask == 0 ? -1L : mask;
+                all |= 1L << Math.min(s, 63);
+            }
+            this.allSelected = all;
+            int[] types = new int[0];
+            long[] windows = new long[0];
+            int[][] byType = new int[0][];
+            for (int s = 0; s < strategies.length; s++) {
+                for (int recordType : strategies[s].getRecordTypes()) {
+                    int t = indexOf(types, recordType);
+                    if (t < 0) {
+                        t = types.length;
+                        types = Arrays.copyOf(types, t + 1);
+                        windows = Arrays.copyOf(windows, t + 1);
+                        byType = Arrays.copyOf(byType, t + 1);
+                        types[t] = recordType;
+                        byType[t] = new int[0];
+                    }
+                    windows[t] = Math.max(windows[t], strategies[s].getWindow());
+                    byType[t] = Arrays.copyOf(byType[t], byType[t].length + 1);
+                    byType[t][byType[t].length - 1] = s;
+                }
+            }
+            this.recordTypes = types;
+            this.typeWindows = windows;
+            this.strategiesByType = byType;
+        }
+
+        Plan subset(long selection) {
+            return subsets.computeIfAbsent(selection, this::createSubset);
+        }
+
+        private Plan createSubset(long selection) {
+            List<AlertStrategy> selected = new ArrayList<>();
+            for (int s = 0; s < strategies.length; s++) {
+                if ((selection & (1L << s)) != 0) {
+                    selected.add(strategies[s]);
+                }
+            }
+            return new Plan(selected.toArray(new AlertStrategy[0]));
+        }
+
+        private static int indexOf(int[] values, int value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,22 +1,37 @@
 package com.alerts.strategy;
 
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import com.alerts.Alert;
+import com.alerts.AlertCondition;
 import com.alerts.AlertGenerator;
-import com.data_management.DataStorage;
+import com.alerts.factory.BloodPressureAlertFactory;
+import com.alerts.rules.RuleCheck;
+import com.alerts.rules.RuleSet;
+import com.alerts.window.DeltaRunLength;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
+import com.data_management.RecordTypeRegistry;
 
 /**
- * Strategy for checking blood pressure alerts.
+ * Strategy for checking blood pressure alerts. The thresholds are those of the
+ * critical pressure rules in the rule set of the alert generator, see
+ * {@link AlertGenerator#getRuleSet()}.
  */
 public class BloodPressureStrategy implements AlertStrategy {
+    private static final long WINDOW = 86400000; // one day
 
-    public DataStorage dataStorage;
     public AlertGenerator alertGenerator;
+    private final BloodPressureAlertFactory alertFactory = new BloodPressureAlertFactory();
+
+    /**
+     * Constructs a blood pressure strategy.
+     *
+     * @param alertGenerator The generator through which alerts are triggered.
+     */
+    public BloodPressureStrategy(AlertGenerator alertGenerator) {
+        this.alertGenerator = alertGenerator;
+    }
 
     /**
      * Checks for blood pressure alerts for the given patient.
@@ -25,25 +40,23 @@ public class BloodPressureStrategy implements AlertStrategy {
      */
     @Override
     public void checkAlert(Patient patient) {
-        long currentTime = System.currentTimeMillis();
-        long oneDayAgo = currentTime - 86400000;
-
-        List<PatientRecord> records = dataStorage.getRecords(patient.getPatientId(), oneDayAgo, currentTime);
+        new AlertStrategyExecutor(Collections.singletonList(this))
+                .evaluate(patient, alertGenerator.getClock().currentTimeMillis());
+    }
 
-        List<PatientRecord> systolicRecords = records.stream()
-                .filter(r -> "SystolicPressure".equals(r.getRecordType()))
-                .sorted(Comparator.comparingLong(PatientRecord::getTimestamp).reversed())
-                .collect(Collectors.toList());
+    @Override
+    public long getWindow() {
+        return WINDOW;
+    }
 
-        List<PatientRecord> diastolicRecords = records.stream()
-                .filter(r -> "DiastolicPressure".equals(r.getRecordType()))
-                .sorted(Comparator.comparingLong(PatientRecord::getTimestamp).reversed())
-                .collect(Collectors.toList());
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { RecordTypeRegistry.SYSTOLIC_PRESSURE, RecordTypeRegistry.DIASTOLIC_PRESSURE };
+    }
 
-        checkPressureAlerts(systolicRecords, "Systolic", patient);
-        checkPressureAlerts(diastolicRecords, "Diastolic", patient);
-        checkTrendAndTriggerAlert(systolicRecords, "Systolic", patient, currentTime);
-        checkTrendAndTriggerAlert(diastolicRecords, "Diastolic", patient, currentTime);
+    @Override
+    public RecordScan startScan(Patient patient, long currentTime) {
+        return new PressureScan(patient, currentTime);
     }
 
     /**
@@ -54,38 +67,105 @@ public class BloodPressureStrategy implements AlertStrategy {
      * @param patient The patient for whom the alerts are checked.
      */
     public void checkPressureAlerts(List<PatientRecord> records, String type, Patient patient) {
+        AlertCondition condition = AlertCondition.of(type + " pressure alert");
+        RuleSet rules = alertGenerator.getRuleSet();
+        RuleCheck systolic = rules.check(BloodPressureAlertFactory.CRITICAL_SYSTOLIC_PRESSURE.getName(),
+                patient.getPatientId());
+        RuleCheck diastolic = rules.check(BloodPressureAlertFactory.CRITICAL_DIASTOLIC_PRESSURE.getName(),
+                patient.getPatientId());
         for (PatientRecord record : records) {
-            double value = record.getMeasurementValue();
-            if (("Systolic".equals(type) && (value > 180 || value < 90)) ||
-                    ("Diastolic".equals(type) && (value > 120 || value < 60))) {
-                alertGenerator.triggerAlert(new Alert(Integer.toString(patient.getPatientId()), type + " pressure alert", record.getTimestamp()));
-            }
+            RuleCheck threshold = record.getRecordTypeCode() == RecordTypeRegistry.SYSTOLIC_PRESSURE
+                    ? systolic
+                    : diastolic;
+            checkPressure(threshold, record.getRecordTypeCode(), record.getMeasurementValue(), record.getTimestamp(),
+                    condition, patient);
         }
     }
 
     /**
      * Checks for trends in blood pressure and triggers alerts accordingly.
      *
-     * @param records     List of patient records
+     * @param records     List of patient records, oldest first
      * @param type        Type of pressure (Systolic or Diastolic)
      * @param patient     The patient for whom the alerts are checked.
      * @param currentTime The current time
      */
     public void checkTrendAndTriggerAlert(List<PatientRecord> records, String type, Patient patient, long currentTime) {
-        if (records.size() >= 3) {
-            boolean increasing = true;
-            boolean decreasing = true;
-            for (int i = 0; i < records.size() - 1; i++) {
-                increasing &= (records.get(i).getMeasurementValue() - records.get(i + 1).getMeasurementValue() > 10);
-                decreasing &= (records.get(i + 1).getMeasurementValue() - records.get(i).getMeasurementValue() > 10);
-            }
+        DeltaRunLength runs = new DeltaRunLength(10, Long.MAX_VALUE);
+        for (PatientRecord record : records) {
+            runs.add(record.getTimestamp(), record.getMeasurementValue());
+        }
+        checkTrend(runs, records.size(), AlertCondition.of(type + " Pressure Increasing"),
+                AlertCondition.of(type + " Pressure Decreasing"), patient, currentTime);
+    }
+
+    private void checkPressure(RuleCheck threshold, int recordType, double value, long timestamp,
+            AlertCondition condition, Patient patient) {
+        if (threshold.test(recordType, timestamp, value)) {
+            alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(), condition, timestamp));
+        }
+    }
+
+    private void checkTrend(DeltaRunLength runs, int readings, AlertCondition increasingAlert,
+            AlertCondition decreasingAlert, Patient patient, long currentTime) {
+        if (readings >= 3) {
+            boolean increasing = runs.risingRun() == readings;
+            boolean decreasing = runs.fallingRun() == readings;
 
             if (increasing) {
-                alertGenerator.triggerAlert(new Alert(Integer.toString(patient.getPatientId()), type + " Pressure Increasing", currentTime));
+                alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(), increasingAlert, currentTime));
             }
             if (decreasing) {
-                alertGenerator.triggerAlert(new Alert(Integer.toString(patient.getPatientId()), type + " Pressure Decreasing", currentTime));
+                alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(), decreasingAlert, currentTime));
+            }
+        }
+    }
+
+    /**
+     * Checks thresholds as the readings pass by and the trends of the whole day
+     * once the scan finishes.
+     */
+    private class PressureScan implements RecordScan {
+        private final Patient patient;
+        private final long currentTime;
+        private final DeltaRunLength systolicRuns = new DeltaRunLength(10, Long.MAX_VALUE);
+        private final DeltaRunLength diastolicRuns = new DeltaRunLength(10, Long.MAX_VALUE);
+        private final RuleCheck systolicThreshold;
+        private final RuleCheck diastolicThreshold;
+        private int systolicReadings;
+        private int diastolicReadings;
+
+        PressureScan(Patient patient, long currentTime) {
+            this.patient = patient;
+            this.currentTime = currentTime;
+            RuleSet rules = alertGenerator.getRuleSet();
+            this.systolicThreshold = rules.check(BloodPressureAlertFactory.CRITICAL_SYSTOLIC_PRESSURE.getName(),
+                    patient.getPatientId());
+            this.diastolicThreshold = rules.check(BloodPressureAlertFactory.CRITICAL_DIASTOLIC_PRESSURE.getName(),
+                    patient.getPatientId());
+        }
+
+        @Override
+        public void accept(int recordType, long timestamp, double measurementValue) {
+            if (recordType == RecordTypeRegistry.SYSTOLIC_PRESSURE) {
+                checkPressure(systolicThreshold, recordType, measurementValue, timestamp,
+                        BloodPressureAlertFactory.SYSTOLIC_PRESSURE_ALERT, patient);
+                systolicRuns.add(timestamp, measurementValue);
+                systolicReadings++;
+            } else {
+                checkPressure(diastolicThreshold, recordType, measurementValue, timestamp,
+                        BloodPressureAlertFactory.DIASTOLIC_PRESSURE_ALERT, patient);
+                diastolicRuns.add(timestamp, measurementValue);
+                diastolicReadings++;
             }
         }
+
+        @Override
+        public void finish() {
+            checkTrend(systolicRuns, systolicReadings, BloodPressureAlertFactory.SYSTOLIC_PRESSURE_INCREASING,
+                    BloodPressureAlertFactory.SYSTOLIC_PRESSURE_DECREASING, patient, currentTime);
+            checkTrend(diastolicRuns, diastolicReadings, BloodPressureAlertFactory.DIASTOLIC_PRESSURE_INCREASING,
+                    BloodPressureAlertFactory.DIASTOLIC_PRESSURE_DECREASING, patient, currentTime);
+        }
     }
 }
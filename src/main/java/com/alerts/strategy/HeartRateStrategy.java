@@ -1,20 +1,33 @@
 package com.alerts.strategy;
 
-import java.util.List;
+import java.util.Collections;
 
-import com.alerts.Alert;
 import com.alerts.AlertGenerator;
-import com.data_management.DataStorage;
+import com.alerts.factory.ECGAlertFactory;
+import com.alerts.rules.RuleCheck;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.data_management.RecordTypeRegistry;
 
 /**
- * Strategy for generating alerts based on heart rate readings from ECG records.
+ * Strategy for generating alerts based on heart rate readings, which are derived
+ * from the ECG waveform by {@link com.data_management.EcgBeatDetector}. The
+ * normal range is that of the abnormal heart rate rule in the rule set of the
+ * alert generator, see {@link AlertGenerator#getRuleSet()}.
  */
 public class HeartRateStrategy implements AlertStrategy {
+    private static final long WINDOW = 3600000; // one hour
 
-    private DataStorage dataStorage;
     private AlertGenerator alertGenerator;
+    private final ECGAlertFactory alertFactory = new ECGAlertFactory();
+
+    /**
+     * Constructs a heart rate strategy.
+     *
+     * @param alertGenerator The generator through which alerts are triggered.
+     */
+    public HeartRateStrategy(AlertGenerator alertGenerator) {
+        this.alertGenerator = alertGenerator;
+    }
 
     /**
      * Checks for abnormal heart rate alerts for the given patient.
@@ -23,14 +36,36 @@ public class HeartRateStrategy implements AlertStrategy {
      */
     @Override
     public void checkAlert(Patient patient) {
-        long currentTime = System.currentTimeMillis();
-        long oneHourAgo = currentTime - 3600000;
-        List<PatientRecord> ecgRecords = dataStorage.getRecords(patient.getPatientId(), oneHourAgo, currentTime);
+        new AlertStrategyExecutor(Collections.singletonList(this))
+                .evaluate(patient, alertGenerator.getClock().currentTimeMillis());
+    }
+
+    @Override
+    public long getWindow() {
+        return WINDOW;
+    }
+
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { RecordTypeRegistry.HEART_RATE };
+    }
+
+    @Override
+    public RecordScan startScan(Patient patient, long currentTime) {
+        RuleCheck abnormal = alertGenerator.getRuleSet().check(ECGAlertFactory.ABNORMAL_HEART_RATE.getName(),
+                patient.getPatientId());
+        return new RecordScan() {
+            @Override
+            public void accept(int recordType, long timestamp, double measurementValue) {
+                if (abnormal.test(recordType, timestamp, measurementValue)) {
+                    alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(),
+                            ECGAlertFactory.ABNORMAL_HEART_RATE, timestamp));
+                }
+            }
 
-        for (PatientRecord record : ecgRecords) {
-            if ("ECG".equals(record.getRecordType()) && (record.getMeasurementValue() < 50 || record.getMeasurementValue() > 100)) {
-                alertGenerator.triggerAlert(new Alert(Integer.toString(patient.getPatientId()), "Abnormal Heart Rate Alert", record.getTimestamp()));
+            @Override
+            public void finish() {
             }
-        }
+        };
     }
 }
@@ -1,20 +1,33 @@
 package com.alerts.strategy;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collections;
 
-import com.alerts.Alert;
 import com.alerts.AlertGenerator;
-import com.data_management.DataStorage;
+import com.alerts.factory.BloodOxygenAlertFactory;
+import com.alerts.rules.RuleCheck;
+import com.alerts.window.DropFromWindowMax;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.data_management.RecordTypeRegistry;
 
 /**
- * Strategy for generating alerts based on oxygen saturation levels.
+ * Strategy for generating alerts based on oxygen saturation levels. The low
+ * saturation threshold is that of the rule in the rule set of the alert
+ * generator, see {@link AlertGenerator#getRuleSet()}.
  */
 public class OxygenSaturationStrategy implements AlertStrategy {
-    private DataStorage dataStorage;
+    private static final long WINDOW = 600000; // ten minutes
+
     private AlertGenerator alertGenerator;
+    private final BloodOxygenAlertFactory alertFactory = new BloodOxygenAlertFactory();
+
+    /**
+     * Constructs an oxygen saturation strategy.
+     *
+     * @param alertGenerator The generator through which alerts are triggered.
+     */
+    public OxygenSaturationStrategy(AlertGenerator alertGenerator) {
+        this.alertGenerator = alertGenerator;
+    }
 
     /**
      * Checks for oxygen saturation alerts for the given patient.
@@ -23,43 +36,54 @@ public class OxygenSaturationStrategy implements AlertStrategy {
      */
     @Override
     public void checkAlert(Patient patient) {
-        long currentTime = System.currentTimeMillis();
-        List<PatientRecord> records = dataStorage.getRecords(patient.getPatientId(), currentTime - 600000, currentTime)
-                .stream()
-                .filter(r -> "Saturation".equals(r.getRecordType()))
-                .sorted((r1, r2) -> Long.compare(r1.getTimestamp(), r2.getTimestamp()))
-                .collect(Collectors.toList());
+        new AlertStrategyExecutor(Collections.singletonList(this))
+                .evaluate(patient, alertGenerator.getClock().currentTimeMillis());
+    }
 
-        if (records.isEmpty()) return;
+    @Override
+    public long getWindow() {
+        return WINDOW;
+    }
 
-        PatientRecord previousRecord = null;
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { RecordTypeRegistry.SATURATION };
+    }
 
-        for (PatientRecord record : records) {
-            double value = record.getMeasurementValue();
+    @Override
+    public RecordScan startScan(Patient patient, long currentTime) {
+        RuleCheck lowSaturation = alertGenerator.getRuleSet().check(BloodOxygenAlertFactory.LOW_SATURATION.getName(),
+                patient.getPatientId());
+        return new RecordScan() {
+            private final DropFromWindowMax drop = new DropFromWindowMax(WINDOW);
+            private boolean alerted; // only the first alert of the window is reported
 
-            // Check for low saturation
-            if (value < 92) {
-                alertGenerator.triggerAlert(new Alert(
-                        Integer.toString(patient.getPatientId()),
-                        "Low Saturation Alert",
-                        record.getTimestamp()
-                ));
-                return;
-            }
+            @Override
+            public void accept(int recordType, long timestamp, double value) {
+                if (alerted) {
+                    return;
+                }
 
-            // Check for rapid drop in blood oxygen levels
-            if (previousRecord != null) {
-                double dropPercentage = 100.0 * (previousRecord.getMeasurementValue() - value) / previousRecord.getMeasurementValue();
-                if (dropPercentage >= 5) {
-                    alertGenerator.triggerAlert(new Alert(
-                            Integer.toString(patient.getPatientId()),
-                            "Rapid Blood Oxygen Drop Alert",
-                            record.getTimestamp()
-                    ));
+                // Check for low saturation
+                if (lowSaturation.test(recordType, timestamp, value)) {
+                    alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(),
+                            BloodOxygenAlertFactory.LOW_SATURATION, timestamp));
+                    alerted = true;
                     return;
                 }
+
+                // Check for rapid drop in blood oxygen levels from the highest reading in the window
+                drop.add(timestamp, value);
+                if (drop.percentDrop() >= 5) {
+                    alertGenerator.triggerAlert(alertFactory.createAlert(patient.getPatientId(),
+                            BloodOxygenAlertFactory.RAPID_PERCENT_DROP, timestamp));
+                    alerted = true;
+                }
+            }
+
+            @Override
+            public void finish() {
             }
-            previousRecord = record;
-        }
+        };
     }
 }
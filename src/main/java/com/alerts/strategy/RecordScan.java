@@ -0,0 +1,26 @@
+package com.alerts.strategy;
+
+/**
+ * Receives the readings of one patient during a single ordered pass over the
+ * patient's history, see {@link AlertStrategyExecutor}.
+ * A scan is created per patient and evaluation, so it may keep its working
+ * state in fields.
+ */
+public interface RecordScan {
+
+    /**
+     * Called for every reading of a record type the strategy asked for, in
+     * timestamp order, oldest first.
+     *
+     * @param recordType       the record type code of the reading
+     * @param timestamp        the time of the reading
+     * @param measurementValue the value of the reading
+     */
+    void accept(int recordType, long timestamp, double measurementValue);
+
+    /**
+     * Called once after the last reading, so checks over the whole window can
+     * trigger their alerts.
+     */
+    void finish();
+}
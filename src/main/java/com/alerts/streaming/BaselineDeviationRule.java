@@ -0,0 +1,89 @@
+package com.alerts.streaming;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.data_management.DataStorage;
+import com.data_management.SignalBaseline;
+
+/**
+ * Triggers an alert when a reading lies further from the patient's own
+ * baseline than a number of standard deviations, rather than outside a range
+ * that is fixed for all patients.
+ * The baseline is the {@link SignalBaseline} the {@link DataStorage} keeps for
+ * the patient and signal, so the rule must be registered with the evaluator
+ * listening to that storage. A reading is compared with the baseline as it
+ * was before the reading was added. The alert fires when the deviation is
+ * first detected, not again for every deviating reading that follows, and
+ * only once the baseline has seen enough readings to be meaningful.
+ */
+public class BaselineDeviationRule implements StreamingAlertRule<BaselineDeviationRule.State> {
+    private final DataStorage storage;
+    private final int recordType;
+    private final double maxDeviations;
+    private final long minReadings;
+    private final AlertCondition condition;
+
+    /**
+     * Constructs a baseline deviation rule.
+     *
+     * @param storage       the storage maintaining the baselines
+     * @param recordType    the record type code of the monitored signal
+     * @param maxDeviations the number of standard deviations from the baseline
+     *                      mean beyond which a reading deviates
+     * @param minReadings   the number of readings the baseline needs before
+     *                      the rule triggers
+     * @param condition     the condition reported in the alerts
+     */
+    public BaselineDeviationRule(DataStorage storage, int recordType, double maxDeviations, long minReadings,
+            String condition) {
+        if (maxDeviations <= 0) {
+            throw new IllegalArgumentException("The number of standard deviations must be positive");
+        }
+        this.storage = storage;
+        this.recordType = recordType;
+        this.maxDeviations = maxDeviations;
+        this.minReadings = minReadings;
+        this.condition = AlertCondition.of(condition);
+    }
+
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { recordType };
+    }
+
+    @Override
+    public State createState(int patientId) {
+        return new State();
+    }
+
+    @Override
+    public void onReading(State state, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator) {
+        if (state.baseline == null) {
+            state.baseline = storage.getBaseline(patientId, recordType);
+            if (state.baseline == null) {
+                return;
+            }
+        }
+        // The storage added this reading to the baseline before notifying the rule
+        boolean deviating = Math.abs(state.baseline.getLatestZScore(minReadings)) > maxDeviations;
+        if (deviating && !state.deviating) {
+            alertGenerator.triggerAlert(new Alert(patientId, condition, timestamp));
+        }
+        state.deviating = deviating;
+    }
+
+    @Override
+    public String getName() {
+        return condition.getName();
+    }
+
+    /**
+     * Per-patient state of a {@link BaselineDeviationRule}.
+     */
+    static class State {
+        private SignalBaseline baseline;
+        private boolean deviating;
+    }
+}
@@ -0,0 +1,29 @@
+package com.alerts.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alerts.rules.RuleSet;
+import com.data_management.RecordTypeRegistry;
+
+/**
+ * The streaming counterparts of the checks performed by
+ * {@link com.alerts.AlertGenerator#evaluateData}, using the same thresholds and
+ * alert conditions. The threshold rules are compiled from the bundled rule
+ * file, see {@link RuleSet#loadDefaults()}; the rules that need more than a
+ * condition over windows are implemented here.
+ */
+final class DefaultStreamingRules {
+
+    private DefaultStreamingRules() {
+    }
+
+    static List<StreamingAlertRule<?>> create() {
+        List<StreamingAlertRule<?>> rules = new ArrayList<>(RuleSet.loadDefaults().getRules());
+        rules.add(new TrendRule(RecordTypeRegistry.SYSTOLIC_PRESSURE, 10, "Systolic"));
+        rules.add(new TrendRule(RecordTypeRegistry.DIASTOLIC_PRESSURE, 10, "Diastolic"));
+        rules.add(new HypotensiveHypoxemiaRule());
+        rules.add(new IrregularBeatRule());
+        return rules;
+    }
+}
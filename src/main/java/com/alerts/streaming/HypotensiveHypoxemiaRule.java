@@ -0,0 +1,53 @@
+package com.alerts.streaming;
+
+import com.data_management.RecordTypeRegistry;
+
+/**
+ * Triggers an alert when a low systolic pressure reading and a low saturation
+ * reading occur close together in time.
+ * <p>
+ * Unlike the threshold rules, the two cut-offs are fixed here rather than taken
+ * from the rule set: the rule language has no way to join two signals in
+ * time, and the rule set's pressure rule also fires on high readings, so it
+ * cannot stand in for "low". They match the lower bounds in
+ * {@code default.rules} (systolic below 90, saturation below 92) and are not
+ * changed by patient overrides or a reloaded rule file. The join over stored
+ * readings in {@link com.alerts.AlertGenerator} shares them through
+ * {@link #createJoin(long)}.
+ */
+public class HypotensiveHypoxemiaRule extends TemporalJoinRule {
+    private static final String CONDITION = "Hypotensive Hypoxemia Alert";
+    private static final double LOW_SYSTOLIC = 90;
+    private static final double LOW_SATURATION = 92;
+    private static final long DEFAULT_TOLERANCE = 600000; // ten minutes
+
+    /**
+     * Constructs the rule with a tolerance of ten minutes.
+     */
+    public HypotensiveHypoxemiaRule() {
+        this(DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Constructs the rule.
+     *
+     * @param toleranceMillis the largest time difference between the low
+     *                        readings of the two signals, in milliseconds
+     */
+    public HypotensiveHypoxemiaRule(long toleranceMillis) {
+        super(CONDITION, createJoin(toleranceMillis));
+    }
+
+    /**
+     * Creates the join of low systolic pressure and low saturation.
+     *
+     * @param toleranceMillis the largest time difference between the low
+     *                        readings, in milliseconds
+     * @return the join
+     */
+    public static TemporalJoin createJoin(long toleranceMillis) {
+        return new TemporalJoin(toleranceMillis)
+                .on(RecordTypeRegistry.SYSTOLIC_PRESSURE, value -> value < LOW_SYSTOLIC)
+                .on(RecordTypeRegistry.SATURATION, value -> value < LOW_SATURATION);
+    }
+}
@@ -0,0 +1,49 @@
+package com.alerts.streaming;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.factory.ECGAlertFactory;
+import com.data_management.RecordTypeRegistry;
+
+/**
+ * Triggers an alert when an RR interval deviates by more than ten percent
+ * from the patient's recent average interval.
+ * The average is an exponentially weighted mean of the previous intervals,
+ * and the rule waits for a few beats before it judges any interval.
+ */
+public class IrregularBeatRule implements StreamingAlertRule<IrregularBeatRule.State> {
+    private static final double ALLOWED_VARIATION = 0.1;
+    private static final double MEAN_WEIGHT = 0.125;
+    private static final int WARM_UP_BEATS = 4;
+
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { RecordTypeRegistry.RR_INTERVAL };
+    }
+
+    @Override
+    public State createState(int patientId) {
+        return new State();
+    }
+
+    @Override
+    public void onReading(State state, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator) {
+        if (state.beats >= WARM_UP_BEATS
+                && Math.abs(measurementValue - state.meanInterval) > state.meanInterval * ALLOWED_VARIATION) {
+            alertGenerator.triggerAlert(new Alert(patientId, ECGAlertFactory.IRREGULAR_BEAT, timestamp));
+        }
+        state.meanInterval = state.beats == 0
+                ? measurementValue
+                : state.meanInterval + MEAN_WEIGHT * (measurementValue - state.meanInterval);
+        state.beats++;
+    }
+
+    /**
+     * Per-patient state of an {@link IrregularBeatRule}.
+     */
+    static class State {
+        private double meanInterval;
+        private int beats;
+    }
+}
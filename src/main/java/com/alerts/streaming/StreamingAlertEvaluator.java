@@ -0,0 +1,125 @@
+package com.alerts.streaming;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alerts.AlertGenerator;
+import com.data_management.DataListener;
+import com.data_management.DataStorage;
+
+/**
+ * Evaluates alert rules as readings are added to a {@link DataStorage}, rather
+ * than recomputing them from stored history on every pass.
+ * Each reading is dispatched only to the rules registered for its record type,
+ * and each rule updates a small per-patient state, so the cost of a reading
+ * does not depend on how much history has been stored.
+ * <p>
+ * Typical use:
+ * 
+ * <pre>
+ * StreamingAlertEvaluator evaluator = StreamingAlertEvaluator.withDefaultRules(alertGenerator);
+ * dataStorage.addListener(evaluator);
+ * </pre>
+ */
+public class StreamingAlertEvaluator implements DataListener {
+    private final AlertGenerator alertGenerator;
+    private final List<StreamingAlertRule<?>> rules = new CopyOnWriteArrayList<>();
+    private volatile int[][] rulesByType = new int[0][]; // rule indexes per record type code
+    private final Map<Integer, Object[]> patientStates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an evaluator without rules that triggers alerts through the
+     * given generator.
+     *
+     * @param alertGenerator the generator through which alerts are triggered
+     */
+    public StreamingAlertEvaluator(AlertGenerator alertGenerator) {
+        this.alertGenerator = alertGenerator;
+    }
+
+    /**
+     * Constructs an evaluator with the standard blood pressure, saturation,
+     * heart rhythm and hypotensive hypoxemia rules.
+     *
+     * @param alertGenerator the generator through which alerts are triggered
+     * @return the evaluator
+     */
+    public static StreamingAlertEvaluator withDefaultRules(AlertGenerator alertGenerator) {
+        StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(alertGenerator);
+        for (StreamingAlertRule<?> rule : defaultRules()) {
+            evaluator.addRule(rule);
+        }
+        return evaluator;
+    }
+
+    /**
+     * Creates the standard blood pressure, saturation, heart rhythm and
+     * hypotensive hypoxemia rules.
+     *
+     * @return new instances of the standard rules
+     */
+    public static List<StreamingAlertRule<?>> defaultRules() {
+        return DefaultStreamingRules.create();
+    }
+
+    /**
+     * Registers a rule. Rules should be registered before readings start to
+     * arrive; patients seen earlier do not get state for rules added later.
+     *
+     * @param rule the rule to register
+     */
+    public synchronized void addRule(StreamingAlertRule<?> rule) {
+        int ruleIndex = rules.size();
+        rules.add(rule);
+        int[][] byType = rulesByType;
+        for (int recordType : rule.getRecordTypes()) {
+            if (recordType >= byType.length) {
+                byType = Arrays.copyOf(byType, recordType + 1);
+            }
+            int[] indexes = byType[recordType] == null ? new int[0] : byType[recordType];
+            indexes = Arrays.copyOf(indexes, indexes.length + 1);
+            indexes[indexes.length - 1] = ruleIndex;
+            byType[recordType] = indexes;
+        }
+        rulesByType = byType;
+    }
+
+    /**
+     * Updates the state of every rule interested in the reading's record type
+     * and triggers the resulting alerts.
+     */
+    @Override
+    public void onPatientData(int patientId, int recordType, long timestamp, double measurementValue) {
+        int[][] byType = rulesByType;
+        if (recordType >= byType.length || byType[recordType] == null) {
+            return;
+        }
+        Object[] states = patientStates.computeIfAbsent(patientId, this::createStates);
+        synchronized (states) {
+            for (int ruleIndex : byType[recordType]) {
+                if (ruleIndex < states.length) {
+                    evaluate(rules.get(ruleIndex), states[ruleIndex], patientId, recordType, timestamp, measurementValue);
+                }
+            }
+        }
+    }
+
+    private Object[] createStates(int patientId) {
+        synchronized (this) {
+            Object[] states = new Object[rules.size()];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = rules.get(i).createState(patientId);
+            }
+            return states;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> void evaluate(StreamingAlertRule<S> rule, Object state, int patientId, int recordType,
+            long timestamp, double measurementValue) {
+        rule.onReading((S) state, patientId, recordType, timestamp, measurementValue, alertGenerator);
+    }
+}
@@ -0,0 +1,54 @@
+package com.alerts.streaming;
+
+import com.alerts.AlertGenerator;
+
+/**
+ * A rule evaluated incrementally as readings arrive, instead of re-querying a
+ * window of stored records.
+ * The rule keeps whatever it needs to remember about a patient in a state
+ * object created by {@link #createState(int)}; the evaluator owns one state per
+ * patient and rule and never calls a rule concurrently for the same patient.
+ *
+ * @param <S> the type of the per-patient state
+ */
+public interface StreamingAlertRule<S> {
+
+    /**
+     * Returns the record type codes this rule reacts to.
+     *
+     * @return the record type codes, see
+     *         {@link com.data_management.RecordTypeRegistry}
+     */
+    int[] getRecordTypes();
+
+    /**
+     * Creates the initial state of this rule for a patient.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return the state object
+     */
+    S createState(int patientId);
+
+    /**
+     * Updates the state with a new reading and triggers alerts if the rule's
+     * condition is met. Implementations should do constant work per reading.
+     *
+     * @param state            the patient's state for this rule
+     * @param patientId        the unique identifier of the patient
+     * @param recordType       the record type code of the reading
+     * @param timestamp        the time of the reading
+     * @param measurementValue the value of the reading
+     * @param alertGenerator   the generator through which alerts are triggered
+     */
+    void onReading(S state, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator);
+
+    /**
+     * Returns a short name of the rule for reports. Defaults to the class name.
+     *
+     * @return the name of the rule
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,115 @@
+package com.alerts.streaming;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+
+/**
+ * Correlates conditions on two or more signals of the same patient that occur
+ * within a time tolerance of each other.
+ * Each signal is a record type together with a condition on the reading value,
+ * e.g. "systolic pressure below 90". The join completes when a reading meets
+ * its signal's condition and every other signal was met within the tolerance
+ * of that reading. Because only the time of the latest matching reading of
+ * each signal can complete a join with the readings that follow, the state per
+ * patient is one timestamp per signal, whatever the tolerance or the reading
+ * rate.
+ * Signals are added with {@link #on} before the join is used. Readings are
+ * expected roughly in time order.
+ */
+public class TemporalJoin {
+    private static final long NEVER = Long.MIN_VALUE / 2;
+
+    private final long tolerance;
+    private int[] recordTypes = new int[0];
+    private DoublePredicate[] conditions = new DoublePredicate[0];
+
+    /**
+     * Constructs a join without signals.
+     *
+     * @param toleranceMillis the largest time difference between the matching
+     *                        readings of two signals, in milliseconds
+     */
+    public TemporalJoin(long toleranceMillis) {
+        this.tolerance = toleranceMillis;
+    }
+
+    /**
+     * Adds a signal to the join.
+     *
+     * @param recordType the record type code of the signal
+     * @param condition  the condition a reading must meet to match
+     * @return this join
+     */
+    public TemporalJoin on(int recordType, DoublePredicate condition) {
+        int signal = recordTypes.length;
+        if (signal == 64) {
+            throw new IllegalStateException("A join supports at most 64 signals");
+        }
+        recordTypes = Arrays.copyOf(recordTypes, signal + 1);
+        conditions = Arrays.copyOf(conditions, signal + 1);
+        recordTypes[signal] = recordType;
+        conditions[signal] = condition;
+        return this;
+    }
+
+    /**
+     * Returns the largest time difference between the matching readings of
+     * two signals.
+     *
+     * @return the tolerance, in milliseconds
+     */
+    public long getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Returns the distinct record types of the signals.
+     *
+     * @return the record type codes
+     */
+    public int[] getRecordTypes() {
+        return Arrays.stream(recordTypes).distinct().toArray();
+    }
+
+    /**
+     * Creates the state of the join for one patient: the time of the latest
+     * matching reading of every signal.
+     *
+     * @return the initial state
+     */
+    public long[] createState() {
+        long[] lastMatch = new long[recordTypes.length];
+        Arrays.fill(lastMatch, NEVER);
+        return lastMatch;
+    }
+
+    /**
+     * Updates the state with a reading and reports whether it completes the
+     * join.
+     *
+     * @param lastMatch        the patient's state, see {@link #createState()}
+     * @param recordType       the record type code of the reading
+     * @param timestamp        the time of the reading
+     * @param measurementValue the value of the reading
+     * @return {@code true} if the reading matched one of the signals and every
+     *         other signal matched within the tolerance
+     */
+    public boolean offer(long[] lastMatch, int recordType, long timestamp, double measurementValue) {
+        long matched = 0;
+        for (int signal = 0; signal < recordTypes.length; signal++) {
+            if (recordTypes[signal] == recordType && conditions[signal].test(measurementValue)) {
+                lastMatch[signal] = Math.max(lastMatch[signal], timestamp);
+                matched |= 1L << signal;
+            }
+        }
+        if (matched == 0) {
+            return false;
+        }
+        for (int signal = 0; signal < recordTypes.length; signal++) {
+            if ((matched & (1L << signal)) == 0 && Math.abs(timestamp - lastMatch[signal]) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
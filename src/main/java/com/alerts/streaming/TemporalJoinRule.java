@@ -0,0 +1,70 @@
+package com.alerts.streaming;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+
+/**
+ * Triggers an alert when a {@link TemporalJoin} completes, that is when the
+ * conditions on all of its signals were met close together in time.
+ * While the join keeps completing, it is one episode: the alert fires when the
+ * episode starts, not again for every matching reading, and fires again only
+ * once the join did not complete for longer than its tolerance. A join over a
+ * fast signal such as saturation would otherwise alert on every reading.
+ */
+public class TemporalJoinRule implements StreamingAlertRule<TemporalJoinRule.State> {
+    private final AlertCondition condition;
+    private final TemporalJoin join;
+
+    /**
+     * Constructs a join rule.
+     *
+     * @param condition the condition reported in the alert
+     * @param join      the join of the signals
+     */
+    public TemporalJoinRule(String condition, TemporalJoin join) {
+        this.condition = AlertCondition.of(condition);
+        this.join = join;
+    }
+
+    @Override
+    public int[] getRecordTypes() {
+        return join.getRecordTypes();
+    }
+
+    @Override
+    public State createState(int patientId) {
+        return new State(join.createState());
+    }
+
+    @Override
+    public void onReading(State state, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator) {
+        if (!join.offer(state.lastMatch, recordType, timestamp, measurementValue)) {
+            return;
+        }
+        if (!state.completed || timestamp - state.lastCompletion > join.getTolerance()) {
+            alertGenerator.triggerAlert(new Alert(patientId, condition, timestamp));
+        }
+        state.lastCompletion = state.completed ? Math.max(state.lastCompletion, timestamp) : timestamp;
+        state.completed = true;
+    }
+
+    @Override
+    public String getName() {
+        return condition.getName();
+    }
+
+    /**
+     * Per-patient state of a {@link TemporalJoinRule}.
+     */
+    static class State {
+        private final long[] lastMatch;
+        private boolean completed;
+        private long lastCompletion;
+
+        State(long[] lastMatch) {
+            this.lastMatch = lastMatch;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.alerts.streaming;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.alerts.window.DeltaRunLength;
+
+/**
+ * Triggers an alert when three consecutive readings of a record type each rise,
+ * or each fall, by more than a given step.
+ * Per patient only a {@link DeltaRunLength} is kept, so each reading costs
+ * constant time.
+ */
+public class TrendRule implements StreamingAlertRule<DeltaRunLength> {
+    private static final int TREND_LENGTH = 3; // readings, i.e. two consecutive changes
+    private static final long MAX_GAP = 86400000; // readings a day apart do not form a trend
+
+    private final int recordType;
+    private final double minimumChange;
+    private final String label;
+    private final AlertCondition increasing;
+    private final AlertCondition decreasing;
+
+    /**
+     * Constructs a trend rule.
+     *
+     * @param recordType    the record type code the rule applies to
+     * @param minimumChange the change between consecutive readings that counts
+     *                      towards a trend
+     * @param label         the prefix of the reported condition, e.g. "Systolic"
+     */
+    public TrendRule(int recordType, double minimumChange, String label) {
+        this.recordType = recordType;
+        this.minimumChange = minimumChange;
+        this.label = label;
+        this.increasing = AlertCondition.of(label + " Increasing Trend");
+        this.decreasing = AlertCondition.of(label + " Decreasing Trend");
+    }
+
+    @Override
+    public int[] getRecordTypes() {
+        return new int[] { recordType };
+    }
+
+    @Override
+    public DeltaRunLength createState(int patientId) {
+        return new DeltaRunLength(minimumChange, MAX_GAP);
+    }
+
+    @Override
+    public void onReading(DeltaRunLength runs, int patientId, int recordType, long timestamp, double measurementValue,
+            AlertGenerator alertGenerator) {
+        runs.add(timestamp, measurementValue);
+        if (runs.risingRun() == TREND_LENGTH) {
+            alertGenerator.triggerAlert(new Alert(patientId, increasing, timestamp));
+        } else if (runs.fallingRun() == TREND_LENGTH) {
+            alertGenerator.triggerAlert(new Alert(patientId, decreasing, timestamp));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return label + " Trend";
+    }
+}
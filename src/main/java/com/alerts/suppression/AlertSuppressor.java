@@ -0,0 +1,274 @@
+package com.alerts.suppression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+
+/**
+ * Suppresses duplicate alerts and schedules re-notifications for conditions
+ * that persist.
+ * Every (patient, condition) pair moves through a small state machine. The
+ * first alert opens an episode and is let through. Further alerts for the same
+ * pair are suppressed as long as each arrives within the hold-off of the
+ * previous one. An episode that has not seen an alert for longer than the
+ * hold-off is resolved, and the next alert opens a new one.
+ * Every pair also remembers the timestamp of the newest alert it saw, beyond
+ * the end of its episodes. Alerts at or before that time are dropped, so the
+ * evaluation passes that trigger the alerts of stored readings again with
+ * their original timestamps deliver each of them once, not once per pass.
+ * This costs one small entry per pair that ever raised an alert.
+ * While an episode stays active, it is re-notified once per repeat interval,
+ * provided the condition fired again since the last notification. The pending
+ * checks live in a {@link HashedTimingWheel}, so each open episode costs one
+ * small node no matter how many are pending.
+ * Time is taken from the alert timestamps and from {@link #advance}, so the
+ * suppressor works the same on live data and on replayed data.
+ * Re-notifications that become due are collected while the suppressor's lock
+ * is held and handed to the caller's consumer after it was released, so a slow
+ * delivery never holds up other threads admitting alerts.
+ */
+public class AlertSuppressor {
+    private static final long DEFAULT_TICK = 1000;
+    private static final int DEFAULT_BUCKETS = 1024;
+
+    private final long holdOff;
+    private final long repeatInterval;
+    private final Map<Key, Episode> episodes = new HashMap<>(); // by pair, including resolved episodes
+    private int activeCount;
+    private final Key probe = new Key(0, null, null); // looks up episodes without allocating a key
+    private final HashedTimingWheel<Episode> wheel;
+    private List<Alert> due; // re-notifications collected under the lock, null if none
+    private long suppressedCount;
+    private long repeatCount;
+
+    /**
+     * Constructs a suppressor with a one second timer resolution.
+     *
+     * @param holdOffMillis        the longest gap between two alerts of the same
+     *                             episode, in milliseconds
+     * @param repeatIntervalMillis the interval between re-notifications of an
+     *                             active episode, or 0 to never re-notify
+     */
+    public AlertSuppressor(long holdOffMillis, long repeatIntervalMillis) {
+        this(holdOffMillis, repeatIntervalMillis, DEFAULT_TICK, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * Constructs a suppressor with a specific timer resolution.
+     *
+     * @param holdOffMillis        the longest gap between two alerts of the same
+     *                             episode, in milliseconds
+     * @param repeatIntervalMillis the interval between re-notifications of an
+     *                             active episode, or 0 to never re-notify
+     * @param tickMillis           the resolution of the timing wheel
+     * @param bucketCount          the number of buckets of the timing wheel
+     */
+    public AlertSuppressor(long holdOffMillis, long repeatIntervalMillis, long tickMillis, int bucketCount) {
+        if (holdOffMillis < 0 || repeatIntervalMillis < 0) {
+            throw new IllegalArgumentException("Hold-off and repeat interval must not be negative");
+        }
+        this.holdOff = holdOffMillis;
+        this.repeatInterval = repeatIntervalMillis;
+        this.wheel = new HashedTimingWheel<>(tickMillis, bucketCount);
+    }
+
+    /**
+     * Decides whether an alert should be delivered. The clock is first moved
+     * to the alert timestamp, which may re-notify other episodes.
+     *
+     * @param alert    the alert that was triggered
+     * @param renotify receives the re-notifications that became due
+     * @return {@code true} if the alert opens a new episode and should be
+     *         delivered, {@code false} if it is a duplicate
+     */
+    public boolean admit(Alert alert, Consumer<Alert> renotify) {
+        boolean admitted;
+        List<Alert> repeats;
+        synchronized (this) {
+            admitted = admitLocked(alert);
+            repeats = takeDue();
+        }
+        deliverAll(repeats, renotify);
+        return admitted;
+    }
+
+    private boolean admitLocked(Alert alert) {
+        long now = alert.getTimestamp();
+        wheel.advance(now, this::check);
+
+        probe.patientId = alert.getNumericPatientId();
+        probe.patientText = probe.patientId >= 0 ? null : alert.getPatientId();
+        probe.condition = alert.getAlertCondition();
+        Episode episode = episodes.get(probe);
+        if (episode == null) {
+            Key key = new Key(probe.patientId, probe.patientText, probe.condition);
+            episode = new Episode(key);
+            episodes.put(key, episode);
+        } else if (now <= episode.newest) {
+            suppressedCount++; // seen before, e.g., a stored reading evaluated again by a later pass
+            return false;
+        }
+        episode.newest = now;
+        if (!episode.active) {
+            episode.active = true;
+            activeCount++;
+            episode.open(now);
+            schedule(episode);
+            return true;
+        }
+        if (now - episode.lastSeen <= holdOff) {
+            episode.lastSeen = now;
+            episode.suppressed++;
+            suppressedCount++;
+            return false;
+        }
+        episode.open(now); // resolved but not collected yet; its pending check reschedules it
+        return true;
+    }
+
+    /**
+     * Moves the clock forward, re-notifying the episodes that are still active
+     * and resolving the ones that went quiet. Moving backwards has no effect.
+     *
+     * @param now      the current time, in milliseconds
+     * @param renotify receives the re-notifications that became due
+     */
+    public void advance(long now, Consumer<Alert> renotify) {
+        List<Alert> repeats;
+        synchronized (this) {
+            wheel.advance(now, this::check);
+            repeats = takeDue();
+        }
+        deliverAll(repeats, renotify);
+    }
+
+    private List<Alert> takeDue() {
+        List<Alert> repeats = due;
+        due = null;
+        return repeats;
+    }
+
+    private static void deliverAll(List<Alert> repeats, Consumer<Alert> renotify) {
+        if (repeats != null) {
+            for (Alert repeat : repeats) {
+                renotify.accept(repeat);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of episodes that are currently open.
+     *
+     * @return the number of open episodes
+     */
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Returns the number of alerts suppressed as duplicates.
+     *
+     * @return the number of suppressed alerts
+     */
+    public synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /**
+     * Returns the number of re-notifications sent.
+     *
+     * @return the number of re-notifications
+     */
+    public synchronized long getRepeatCount() {
+        return repeatCount;
+    }
+
+    private void check(Episode episode) {
+        long now = episode.scheduledAt;
+        if (now - episode.lastSeen > holdOff) {
+            episode.active = false; // kept for its newest timestamp
+            activeCount--;
+            return;
+        }
+        if (repeatInterval > 0 && now - episode.lastNotified >= repeatInterval) {
+            if (episode.suppressed > 0) {
+                if (due == null) {
+                    due = new ArrayList<>();
+                }
+                due.add(episode.key.alertAt(now));
+                repeatCount++;
+            }
+            episode.lastNotified = now;
+            episode.suppressed = 0;
+        }
+        schedule(episode);
+    }
+
+    private void schedule(Episode episode) {
+        long next = episode.lastSeen + holdOff + 1;
+        if (repeatInterval > 0) {
+            next = Math.min(next, episode.lastNotified + repeatInterval);
+        }
+        episode.scheduledAt = next;
+        wheel.schedule(episode, next);
+    }
+
+    private static final class Key {
+        private int patientId;
+        private String patientText; // the textual ID of patients without a numeric one, see Alert#getPatientKey
+        private AlertCondition condition;
+
+        Key(int patientId, String patientText, AlertCondition condition) {
+            this.patientId = patientId;
+            this.patientText = patientText;
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return patientId == key.patientId && condition == key.condition
+                    && Objects.equals(patientText, key.patientText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * patientId + Objects.hashCode(patientText)) + condition.getCode();
+        }
+
+        Alert alertAt(long timestamp) {
+            return patientText != null
+                    ? new Alert(patientText, condition.getName(), timestamp)
+                    : new Alert(patientId, condition, timestamp);
+        }
+    }
+
+    private static final class Episode {
+        private final Key key;
+        private boolean active;
+        private long newest; // timestamp of the newest alert seen, outlives the episode
+        private long lastSeen;
+        private long lastNotified;
+        private long scheduledAt;
+        private int suppressed;
+
+        Episode(Key key) {
+            this.key = key;
+        }
+
+        void open(long now) {
+            lastSeen = now;
+            lastNotified = now;
+            suppressed = 0;
+        }
+    }
+}
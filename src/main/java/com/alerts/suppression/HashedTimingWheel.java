@@ -0,0 +1,126 @@
+package com.alerts.suppression;
+
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel for very large numbers of pending timeouts.
+ * Time is divided into ticks, and each timeout is placed in the bucket for its
+ * deadline tick, modulo the number of buckets. Scheduling is constant time,
+ * and advancing the clock only visits the buckets of the ticks that passed, so
+ * the cost of a pending timeout is a single small node.
+ * Time is supplied by the caller through {@link #advance}, which makes the
+ * wheel usable with event time as well as wall-clock time. The wheel is not
+ * thread-safe; callers synchronize externally.
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class HashedTimingWheel<T> {
+    private final long tickMillis;
+    private final Node<T>[] buckets;
+    private final int mask;
+    private long currentTick = Long.MIN_VALUE;
+    private int size;
+
+    /**
+     * Constructs an empty wheel.
+     *
+     * @param tickMillis  the resolution of the wheel, in milliseconds
+     * @param bucketCount the number of buckets; rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int bucketCount) {
+        int count = Integer.highestOneBit(Math.max(2, bucketCount) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = (Node<T>[]) new Node<?>[count];
+        this.mask = count - 1;
+    }
+
+    /**
+     * Schedules an item to expire at a given time. Deadlines that have already
+     * passed expire on the next tick.
+     *
+     * @param item     the item to schedule
+     * @param deadline the expiry time, in milliseconds
+     */
+    public void schedule(T item, long deadline) {
+        long tick = Math.floorDiv(deadline + tickMillis - 1, tickMillis);
+        if (currentTick == Long.MIN_VALUE) {
+            currentTick = tick - 1;
+        } else if (tick <= currentTick) {
+            tick = currentTick + 1;
+        }
+        int bucket = (int) tick & mask;
+        buckets[bucket] = new Node<>(item, tick, buckets[bucket]);
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and hands every item whose
+     * deadline has passed to the consumer. Moving backwards has no effect.
+     *
+     * @param now     the current time, in milliseconds
+     * @param expired receives the expired items
+     */
+    public void advance(long now, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(now, tickMillis);
+        if (currentTick == Long.MIN_VALUE) {
+            currentTick = targetTick;
+            return;
+        }
+        if (targetTick <= currentTick) {
+            return;
+        }
+        long steps = Math.min(targetTick - currentTick, buckets.length);
+        long firstTick = currentTick + 1;
+        currentTick = targetTick; // items scheduled by the consumer land after this tick
+        for (long i = 0; i < steps; i++) {
+            expireBucket((int) (firstTick + i) & mask, targetTick, expired);
+        }
+    }
+
+    /**
+     * Returns the number of scheduled items that have not expired yet.
+     *
+     * @return the number of pending items
+     */
+    public int size() {
+        return size;
+    }
+
+    private void expireBucket(int bucket, long upToTick, Consumer<T> expired) {
+        Node<T> node = buckets[bucket];
+        Node<T> kept = null;
+        buckets[bucket] = null;
+        while (node != null) {
+            Node<T> next = node.next;
+            if (node.tick <= upToTick) {
+                size--;
+                expired.accept(node.item);
+            } else {
+                node.next = kept; // due in a later round of the wheel
+                kept = node;
+            }
+            node = next;
+        }
+        if (kept != null) {
+            Node<T> tail = kept;
+            while (tail.next != null) {
+                tail = tail.next;
+            }
+            tail.next = buckets[bucket]; // keep items the consumer scheduled meanwhile
+            buckets[bucket] = kept;
+        }
+    }
+
+    private static final class Node<T> {
+        private final T item;
+        private final long tick;
+        private Node<T> next;
+
+        Node(T item, long tick, Node<T> next) {
+            this.item = item;
+            this.tick = tick;
+            this.next = next;
+        }
+    }
+}
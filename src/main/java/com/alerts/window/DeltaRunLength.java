@@ -0,0 +1,72 @@
+package com.alerts.window;
+
+/**
+ * Counts how many consecutive readings have each risen, or each fallen, by
+ * more than a minimum change.
+ * Only the previous reading is remembered. A run is broken by a change that is
+ * too small or in the other direction, or by a gap between readings longer
+ * than the window.
+ */
+public class DeltaRunLength {
+    private final double minimumChange;
+    private final long windowMillis;
+
+    private boolean hasPrevious;
+    private long previousTimestamp;
+    private double previousValue;
+    private int risingRun;
+    private int fallingRun;
+
+    /**
+     * Constructs a run counter.
+     *
+     * @param minimumChange the change between consecutive readings that extends
+     *                      a run; changes must exceed it
+     * @param windowMillis  the longest gap between consecutive readings of one
+     *                      run, in milliseconds
+     */
+    public DeltaRunLength(double minimumChange, long windowMillis) {
+        this.minimumChange = minimumChange;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Adds a reading and updates the rising and falling runs.
+     *
+     * @param timestamp the time of the reading, in milliseconds
+     * @param value     the value of the reading
+     */
+    public void add(long timestamp, double value) {
+        if (hasPrevious && timestamp - previousTimestamp <= windowMillis) {
+            double change = value - previousValue;
+            risingRun = change > minimumChange ? risingRun + 1 : 1;
+            fallingRun = -change > minimumChange ? fallingRun + 1 : 1;
+        } else {
+            risingRun = 1;
+            fallingRun = 1;
+        }
+        hasPrevious = true;
+        previousTimestamp = timestamp;
+        previousValue = value;
+    }
+
+    /**
+     * Returns the number of readings in the current rising run, including the
+     * latest reading.
+     *
+     * @return the length of the rising run, or 0 before the first reading
+     */
+    public int risingRun() {
+        return risingRun;
+    }
+
+    /**
+     * Returns the number of readings in the current falling run, including the
+     * latest reading.
+     *
+     * @return the length of the falling run, or 0 before the first reading
+     */
+    public int fallingRun() {
+        return fallingRun;
+    }
+}
@@ -0,0 +1,52 @@
+package com.alerts.window;
+
+/**
+ * Measures how far the latest reading lies below the highest reading taken
+ * within a sliding time window, in absolute terms and as a percentage.
+ * Builds on {@link MonotonicWindow}, so every update costs amortized constant
+ * time. Readings must be added in time order.
+ */
+public class DropFromWindowMax {
+    private final MonotonicWindow max;
+    private double latest = Double.NaN;
+
+    /**
+     * Constructs a drop detector over a window of the given length.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     */
+    public DropFromWindowMax(long windowMillis) {
+        this.max = MonotonicWindow.max(windowMillis);
+    }
+
+    /**
+     * Adds a reading and drops the readings that fell out of the window.
+     *
+     * @param timestamp the time of the reading, in milliseconds
+     * @param value     the value of the reading
+     */
+    public void add(long timestamp, double value) {
+        max.add(timestamp, value);
+        latest = value;
+    }
+
+    /**
+     * Returns the difference between the window maximum and the latest reading.
+     *
+     * @return the drop, 0 if the latest reading is the maximum, or {@code NaN}
+     *         before the first reading
+     */
+    public double drop() {
+        return max.get() - latest;
+    }
+
+    /**
+     * Returns the drop as a percentage of the window maximum.
+     *
+     * @return the percentage drop, or {@code NaN} before the first reading
+     */
+    public double percentDrop() {
+        double peak = max.get();
+        return 100.0 * (peak - latest) / peak;
+    }
+}
@@ -0,0 +1,115 @@
+package com.alerts.window;
+
+/**
+ * Tracks the minimum or maximum of the readings taken within a sliding time
+ * window.
+ * Readings that can no longer become the extreme are discarded as soon as a
+ * better one arrives, so the retained readings form a monotonic deque and
+ * every update costs amortized constant time.
+ * Readings must be added in time order.
+ */
+public class MonotonicWindow {
+    private final long windowMillis;
+    private final boolean maximum;
+
+    private long[] timestamps = new long[8];
+    private double[] values = new double[8];
+    private int head;
+    private int size;
+
+    private MonotonicWindow(long windowMillis, boolean maximum) {
+        this.windowMillis = windowMillis;
+        this.maximum = maximum;
+    }
+
+    /**
+     * Creates a window that tracks the maximum reading.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     * @return the window
+     */
+    public static MonotonicWindow max(long windowMillis) {
+        return new MonotonicWindow(windowMillis, true);
+    }
+
+    /**
+     * Creates a window that tracks the minimum reading.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     * @return the window
+     */
+    public static MonotonicWindow min(long windowMillis) {
+        return new MonotonicWindow(windowMillis, false);
+    }
+
+    /**
+     * Adds a reading and drops the readings that fell out of the window.
+     *
+     * @param timestamp the time of the reading, in milliseconds
+     * @param value     the value of the reading
+     */
+    public void add(long timestamp, double value) {
+        expire(timestamp);
+        while (size > 0 && !dominates(values[index(size - 1)], value)) {
+            size--;
+        }
+        if (size == timestamps.length) {
+            grow();
+        }
+        int tail = index(size);
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    /**
+     * Drops the readings taken more than the window length before the given
+     * time.
+     *
+     * @param now the current time, in milliseconds
+     */
+    public void expire(long now) {
+        while (size > 0 && timestamps[head] < now - windowMillis) {
+            head = index(1);
+            size--;
+        }
+    }
+
+    /**
+     * Returns whether the window holds no readings.
+     *
+     * @return {@code true} if the window is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the extreme reading within the window.
+     *
+     * @return the maximum or minimum value, or {@code NaN} if the window is empty
+     */
+    public double get() {
+        return size == 0 ? Double.NaN : values[head];
+    }
+
+    private boolean dominates(double retained, double added) {
+        return maximum ? retained > added : retained < added;
+    }
+
+    private int index(int offset) {
+        return (head + offset) & (timestamps.length - 1);
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamps[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+}
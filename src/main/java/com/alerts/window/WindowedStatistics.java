@@ -0,0 +1,114 @@
+package com.alerts.window;
+
+/**
+ * Maintains the running mean and variance of the readings taken within a
+ * sliding time window.
+ * Sums are updated as readings enter and leave the window, so every update
+ * costs amortized constant time regardless of how many readings the window
+ * holds. Readings must be added in time order.
+ */
+public class WindowedStatistics {
+    private final long windowMillis;
+
+    private long[] timestamps = new long[16];
+    private double[] values = new double[16];
+    private int head;
+    private int size;
+    private double sum;
+    private double sumOfSquares;
+
+    /**
+     * Constructs empty statistics over a window of the given length.
+     *
+     * @param windowMillis the length of the window, in milliseconds
+     */
+    public WindowedStatistics(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Adds a reading and drops the readings that fell out of the window.
+     *
+     * @param timestamp the time of the reading, in milliseconds
+     * @param value     the value of the reading
+     */
+    public void add(long timestamp, double value) {
+        expire(timestamp);
+        if (size == timestamps.length) {
+            grow();
+        }
+        int tail = index(size);
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+        sum += value;
+        sumOfSquares += value * value;
+    }
+
+    /**
+     * Drops the readings taken more than the window length before the given
+     * time.
+     *
+     * @param now the current time, in milliseconds
+     */
+    public void expire(long now) {
+        while (size > 0 && timestamps[head] < now - windowMillis) {
+            double value = values[head];
+            sum -= value;
+            sumOfSquares -= value * value;
+            head = index(1);
+            size--;
+        }
+        if (size == 0) {
+            sum = 0; // discard accumulated rounding error
+            sumOfSquares = 0;
+        }
+    }
+
+    /**
+     * Returns the number of readings within the window.
+     *
+     * @return the number of readings
+     */
+    public int count() {
+        return size;
+    }
+
+    /**
+     * Returns the mean of the readings within the window.
+     *
+     * @return the mean, or {@code NaN} if the window is empty
+     */
+    public double mean() {
+        return size == 0 ? Double.NaN : sum / size;
+    }
+
+    /**
+     * Returns the population variance of the readings within the window.
+     *
+     * @return the variance, or {@code NaN} if the window is empty
+     */
+    public double variance() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        double mean = sum / size;
+        return Math.max(0, sumOfSquares / size - mean * mean);
+    }
+
+    private int index(int offset) {
+        return (head + offset) & (timestamps.length - 1);
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamps[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+}
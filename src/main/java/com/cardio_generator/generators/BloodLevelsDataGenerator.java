@@ -33,10 +33,10 @@ public class BloodLevelsDataGenerator implements PatientDataGenerator {
             double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2; // Small variation
 
             // Output the generated values
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
+            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", cholesterol);
             outputStrategy.output(patientId, System.currentTimeMillis(), "WhiteBloodCells",
-                    Double.toString(whiteCells));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
+                    whiteCells);
+            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", redCells);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood levels data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
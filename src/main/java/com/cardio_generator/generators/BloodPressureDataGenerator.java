@@ -35,9 +35,9 @@ public class BloodPressureDataGenerator implements PatientDataGenerator {
             lastDiastolicValues[patientId] = newDiastolicValue;
 
             outputStrategy.output(patientId, System.currentTimeMillis(), "SystolicPressure",
-                    Double.toString(newSystolicValue));
+                    newSystolicValue);
             outputStrategy.output(patientId, System.currentTimeMillis(), "DiastolicPressure",
-                    Double.toString(newDiastolicValue));
+                    newDiastolicValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
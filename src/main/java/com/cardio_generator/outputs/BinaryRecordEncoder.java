@@ -0,0 +1,161 @@
+package com.cardio_generator.outputs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes readings in the compact binary wire format that the TCP and
+ * WebSocket outputs use with readers that ask for it.
+ * Readings are collected into frames, each an {@code int} length followed by
+ * that many bytes of entries. A reading entry is the byte {@link #READING},
+ * the {@code int} patient ID, the {@code long} timestamp, the {@code short}
+ * label code and the {@code double} value, 23 bytes in all. Label codes are
+ * assigned per connection: before a label is first used, a label entry
+ * defines it as the byte {@link #LABEL}, the {@code short} code, and the
+ * {@code short} length and UTF-8 bytes of the label. All numbers are
+ * big-endian.
+ * A frame is sent once it holds {@link #FLUSH_BYTES} bytes or when
+ * {@link #flush()} is called, which the outputs do every
+ * {@link #FLUSH_INTERVAL} milliseconds. An encoder may be used by several
+ * threads; readings are sent in the order they were added.
+ *
+ * <p>A reader asks for the binary format when it connects: over TCP it sends
+ * the line {@link #HELLO}, and the output answers with {@link #MAGIC} before
+ * the first frame; over WebSocket it sends the header {@link #HEADER} with the
+ * value {@link #HEADER_VALUE}, and frames arrive as binary messages. Outputs
+ * that do not receive the request, and readers that do not receive the
+ * answer, use the text format.
+ */
+public final class BinaryRecordEncoder {
+    /** The line a TCP reader sends to ask for the binary format. */
+    public static final String HELLO = "CARDIO-BINARY/1";
+    /** The bytes a TCP output sends to accept; no text line starts with a zero byte. */
+    public static final byte[] MAGIC = { 0, 'C', 'B', 1 };
+    /** The handshake header a WebSocket reader sends to ask for the binary format. */
+    public static final String HEADER = "X-Cardio-Wire";
+    /** The value of {@link #HEADER} that asks for the binary format. */
+    public static final String HEADER_VALUE = "binary/1";
+    /** The first byte of a label entry. */
+    public static final byte LABEL = 1;
+    /** The first byte of a reading entry. */
+    public static final byte READING = 2;
+    /** The size of a reading entry in bytes. */
+    public static final int READING_SIZE = 23;
+    /** The largest frame, excluding its length prefix, in bytes. */
+    public static final int MAX_FRAME_BYTES = 32 * 1024;
+    /** The frame size, in bytes, at which a frame is sent without waiting for a flush. */
+    public static final int FLUSH_BYTES = 16 * 1024;
+    /** The interval at which outputs send incomplete frames, in milliseconds. */
+    public static final long FLUSH_INTERVAL = 10;
+
+    /**
+     * Receives the frames of an encoder.
+     */
+    public interface FrameSink {
+        /**
+         * Sends a frame.
+         *
+         * @param frame the length prefix and entries, from the buffer's position
+         *              to its limit; the buffer is reused once this returns
+         * @throws IOException if the frame cannot be sent
+         */
+        void send(ByteBuffer frame) throws IOException;
+    }
+
+    private final FrameSink sink;
+    private final ByteBuffer frame = ByteBuffer.allocate(4 + MAX_FRAME_BYTES);
+    private final Map<String, Short> labelCodes = new HashMap<>();
+
+    /**
+     * Constructs an encoder for one connection.
+     *
+     * @param sink where the frames are sent
+     */
+    public BinaryRecordEncoder(FrameSink sink) {
+        this.sink = sink;
+        frame.position(4);
+    }
+
+    /**
+     * Adds a reading, sending the frame if it is full.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param timestamp the time of the reading
+     * @param label     the label of the reading, e.g., "ECG"
+     * @param value     the value of the reading
+     * @throws IOException if a frame cannot be sent
+     */
+    public synchronized void add(int patientId, long timestamp, String label, double value) throws IOException {
+        Short code = labelCodes.get(label);
+        if (code == null) {
+            code = defineLabel(label);
+        }
+        if (frame.remaining() < READING_SIZE) {
+            flush();
+        }
+        frame.put(READING).putInt(patientId).putLong(timestamp).putShort(code).putDouble(value);
+        if (frame.position() - 4 >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the readings added since the last frame, if any.
+     *
+     * @throws IOException if the frame cannot be sent
+     */
+    public synchronized void flush() throws IOException {
+        int length = frame.position() - 4;
+        if (length == 0) {
+            return;
+        }
+        frame.putInt(0, length);
+        frame.flip();
+        try {
+            sink.send(frame);
+        } finally {
+            frame.clear();
+            frame.position(4);
+        }
+    }
+
+    /**
+     * Converts the text data of a reading to the value sent in the binary
+     * format: the "%" suffix of saturation values is dropped, and "triggered"
+     * and "resolved" alerts become 1 and 0.
+     *
+     * @param data the text data
+     * @return the value
+     * @throws NumberFormatException if the data is not a number
+     */
+    public static double valueOf(String data) {
+        switch (data) {
+            case "triggered":
+                return 1;
+            case "resolved":
+                return 0;
+            default:
+                return Double.parseDouble(data.endsWith("%") ? data.substring(0, data.length() - 1) : data);
+        }
+    }
+
+    private short defineLabel(String label) throws IOException {
+        if (labelCodes.size() > Short.MAX_VALUE) {
+            throw new IOException("Too many labels");
+        }
+        byte[] name = label.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 1024) {
+            throw new IOException("Label too long: " + label);
+        }
+        short code = (short) labelCodes.size();
+        if (frame.remaining() < 5 + name.length) {
+            flush();
+        }
+        frame.put(LABEL).putShort(code).putShort((short) name.length).put(name);
+        labelCodes.put(label, code);
+        return code;
+    }
+}
@@ -14,4 +14,18 @@ public interface OutputStrategy {
      */
 
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a numeric reading. Strategies that can send numbers without
+     * formatting them, such as the binary format of the TCP and WebSocket
+     * outputs, override this; by default the value is formatted as text.
+     *
+     * @param patientId The unique key for a spacific patient.
+     * @param timestamp Its the timestamp when the data was generated.
+     * @param label     Is the label that identify the type of health data.
+     * @param value     The value that is need to be output.
+     */
+    default void output(int patientId, long timestamp, String label, double value) {
+        output(patientId, timestamp, label, Double.toString(value));
+    }
 }
@@ -1,20 +1,33 @@
 package com.cardio_generator.outputs;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * it is a strategy using to output the data unsig the tcp socket 
+ * it is a strategy using to output the data unsig the tcp socket
  * which It insures that information provided from one endpoint is appropriately received by another endpoint in the same sequence.
+ * A client that sends the {@link BinaryRecordEncoder#HELLO} line right after
+ * connecting receives the readings in the binary format of
+ * {@link BinaryRecordEncoder}; any other client receives text lines.
  */
 public class TcpOutputStrategy implements OutputStrategy {
+    /** How long a new client has to ask for the binary format, in milliseconds. */
+    public static final int NEGOTIATION_TIMEOUT = 500;
 
     private ServerSocket serverSocket;
     private Socket clientSocket;
-    private PrintWriter out;
+    private volatile PrintWriter out;
+    private volatile BinaryRecordEncoder encoder;
+    private ScheduledExecutorService flusher;
     /**
      * the contractorTcpOutputStrategy initiate serverSocket with the specified port.
      *
@@ -30,8 +43,21 @@ public class TcpOutputStrategy implements OutputStrategy {
             Executors.newSingleThreadExecutor().submit(() -> {
                 try {
                     clientSocket = serverSocket.accept();
-                    out = new PrintWriter(clientSocket.getOutputStream(), true);
-                    System.out.println("Client connected: " + clientSocket.getInetAddress());
+                    if (requestsBinary(clientSocket)) {
+                        OutputStream stream = clientSocket.getOutputStream();
+                        stream.write(BinaryRecordEncoder.MAGIC);
+                        stream.flush();
+                        BinaryRecordEncoder binary = new BinaryRecordEncoder(frame -> {
+                            stream.write(frame.array(), frame.position(), frame.remaining());
+                            stream.flush();
+                        });
+                        encoder = binary;
+                        startFlusher(binary);
+                    } else {
+                        out = new PrintWriter(clientSocket.getOutputStream(), true);
+                    }
+                    System.out.println("Client connected: " + clientSocket.getInetAddress()
+                            + (encoder != null ? " (binary)" : ""));
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -40,6 +66,16 @@ public class TcpOutputStrategy implements OutputStrategy {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port, or -1 if the server could not be started
+     */
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
     /**
      * It Output the health data to the connected client using TCP socket.
      *
@@ -50,9 +86,87 @@ public class TcpOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        if (out != null) {
+        if (encoder != null) {
+            try {
+                output(patientId, timestamp, label, BinaryRecordEncoder.valueOf(data));
+            } catch (NumberFormatException e) {
+                System.err.println("Cannot send " + label + " data in binary: " + data);
+            }
+        } else if (out != null) {
             String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
             out.println(message);
         }
     }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, double value) {
+        BinaryRecordEncoder current = encoder;
+        if (current == null) {
+            output(patientId, timestamp, label, Double.toString(value));
+            return;
+        }
+        try {
+            current.add(patientId, timestamp, label, value);
+        } catch (IOException e) {
+            disconnect(current, e);
+        }
+    }
+
+    /**
+     * Waits briefly for the client to ask for the binary format.
+     */
+    private static boolean requestsBinary(Socket socket) throws IOException {
+        byte[] hello = (BinaryRecordEncoder.HELLO + "\n").getBytes(StandardCharsets.US_ASCII);
+        socket.setSoTimeout(NEGOTIATION_TIMEOUT);
+        try {
+            InputStream in = socket.getInputStream();
+            for (byte expected : hello) {
+                int b = in.read();
+                if (b == '\r' && expected == '\n') {
+                    b = in.read();
+                }
+                if (b != expected) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (SocketTimeoutException e) {
+            return false; // a text client, which sends nothing
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    private synchronized void startFlusher(BinaryRecordEncoder binary) {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tcp-output-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(() -> {
+            try {
+                binary.flush();
+            } catch (IOException e) {
+                disconnect(binary, e);
+            }
+        }, BinaryRecordEncoder.FLUSH_INTERVAL, BinaryRecordEncoder.FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sending to a binary client after the first failed write, so a
+     * client that went away is reported once instead of on every reading.
+     */
+    private synchronized void disconnect(BinaryRecordEncoder failed, IOException e) {
+        if (encoder != failed) {
+            return; // the other thread got here first
+        }
+        encoder = null;
+        System.err.println("Error sending to TCP client, disconnecting: " + e.getMessage());
+        flusher.shutdown();
+        try {
+            clientSocket.close();
+        } catch (IOException closeError) {
+            // the connection is gone either way
+        }
+    }
 }
@@ -1,13 +1,27 @@
 package com.cardio_generator.outputs;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.java_websocket.server.WebSocketServer;
 
+/**
+ * Broadcasts the readings to every connected WebSocket client.
+ * Clients that send the {@link BinaryRecordEncoder#HEADER} header when they
+ * connect receive the readings as binary messages in the format of
+ * {@link BinaryRecordEncoder}, one frame per message; any other client
+ * receives one text message per reading.
+ */
 public class WebSocketOutputStrategy implements OutputStrategy {
 
     private WebSocketServer server;
+    private ScheduledExecutorService flusher; // started with the first binary client
 
     public WebSocketOutputStrategy(int port) {
         server = new SimpleWebSocketServer(new InetSocketAddress(port));
@@ -17,14 +31,87 @@ public class WebSocketOutputStrategy implements OutputStrategy {
 
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
+        String message = null;
+        double value = 0;
+        boolean converted = false;
+        boolean numeric = false;
         // Broadcast the message to all connected clients
         for (WebSocket conn : server.getConnections()) {
-            conn.send(message);
+            BinaryRecordEncoder encoder = conn.getAttachment();
+            if (encoder == null) {
+                if (message == null) {
+                    message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
+                }
+                conn.send(message);
+                continue;
+            }
+            if (!converted) {
+                converted = true;
+                try {
+                    value = BinaryRecordEncoder.valueOf(data);
+                    numeric = true;
+                } catch (NumberFormatException e) {
+                    System.err.println("Cannot send " + label + " data in binary: " + data);
+                }
+            }
+            if (numeric) {
+                send(encoder, patientId, timestamp, label, value);
+            }
         }
     }
 
-    private static class SimpleWebSocketServer extends WebSocketServer {
+    @Override
+    public void output(int patientId, long timestamp, String label, double value) {
+        String message = null;
+        for (WebSocket conn : server.getConnections()) {
+            BinaryRecordEncoder encoder = conn.getAttachment();
+            if (encoder != null) {
+                send(encoder, patientId, timestamp, label, value);
+            } else {
+                if (message == null) {
+                    message = String.format("%d,%d,%s,%s", patientId, timestamp, label, Double.toString(value));
+                }
+                conn.send(message);
+            }
+        }
+    }
+
+    private static void send(BinaryRecordEncoder encoder, int patientId, long timestamp, String label,
+            double value) {
+        try {
+            encoder.add(patientId, timestamp, label, value);
+        } catch (IOException | WebsocketNotConnectedException e) {
+            System.err.println("Error sending to WebSocket client: " + e.getMessage());
+        }
+    }
+
+    private synchronized void startFlusher() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-output-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flush, BinaryRecordEncoder.FLUSH_INTERVAL,
+                BinaryRecordEncoder.FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        for (WebSocket conn : server.getConnections()) {
+            BinaryRecordEncoder encoder = conn.getAttachment();
+            if (encoder != null) {
+                try {
+                    encoder.flush();
+                } catch (IOException | WebsocketNotConnectedException e) {
+                    System.err.println("Error sending to WebSocket client: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private class SimpleWebSocketServer extends WebSocketServer {
 
         public SimpleWebSocketServer(InetSocketAddress address) {
             super(address);
@@ -32,6 +119,15 @@ public class WebSocketOutputStrategy implements OutputStrategy {
 
         @Override
         public void onOpen(WebSocket conn, org.java_websocket.handshake.ClientHandshake handshake) {
+            if (BinaryRecordEncoder.HEADER_VALUE.equals(handshake.getFieldValue(BinaryRecordEncoder.HEADER))) {
+                // The frame buffer is reused, so every message gets its own copy
+                conn.setAttachment(new BinaryRecordEncoder(frame -> {
+                    ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+                    copy.put(frame).flip();
+                    conn.send(copy);
+                }));
+                startFlusher();
+            }
             System.out.println("New connection: " + conn.getRemoteSocketAddress());
         }
 
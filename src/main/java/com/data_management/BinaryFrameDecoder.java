@@ -0,0 +1,65 @@
+package com.data_management;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.cardio_generator.outputs.BinaryRecordEncoder;
+
+/**
+ * Decodes the frames of the binary wire format described by
+ * {@link BinaryRecordEncoder} into a {@link RecordBatch}.
+ * Label codes are assigned per connection, so every connection needs its own
+ * decoder; a decoder maps the codes defined on its connection to record type
+ * codes of the {@link RecordTypeRegistry} as the definitions arrive. Decoding
+ * a reading allocates nothing. A decoder is not thread-safe.
+ */
+final class BinaryFrameDecoder {
+    private int[] recordTypes = new int[0]; // record type code by label code
+
+    /**
+     * Decodes the entries of one frame, without its length prefix.
+     *
+     * @param buffer the buffer holding the frame
+     * @param from   the position of the first entry
+     * @param to     the end of the frame
+     * @param batch  receives the readings
+     * @throws IllegalArgumentException if the frame is malformed
+     */
+    void decode(ByteBuffer buffer, int from, int to, RecordBatch batch) {
+        int position = from;
+        while (position < to) {
+            byte kind = buffer.get(position);
+            if (kind == BinaryRecordEncoder.READING && to - position >= BinaryRecordEncoder.READING_SIZE) {
+                int patientId = buffer.getInt(position + 1);
+                long timestamp = buffer.getLong(position + 5);
+                int labelCode = buffer.getShort(position + 13);
+                double value = buffer.getDouble(position + 15);
+                if (labelCode < 0 || labelCode >= recordTypes.length || recordTypes[labelCode] < 0) {
+                    throw new IllegalArgumentException("Undefined label code " + labelCode);
+                }
+                batch.add(patientId, value, recordTypes[labelCode], timestamp);
+                position += BinaryRecordEncoder.READING_SIZE;
+            } else if (kind == BinaryRecordEncoder.LABEL && to - position >= 5) {
+                int labelCode = buffer.getShort(position + 1);
+                int length = buffer.getShort(position + 3);
+                if (labelCode < 0 || length < 0 || to - position - 5 < length) {
+                    throw new IllegalArgumentException("Malformed label definition");
+                }
+                define(labelCode, RecordTypeRegistry.codeOf(ByteText.decode(buffer, position + 5,
+                        position + 5 + length)));
+                position += 5 + length;
+            } else {
+                throw new IllegalArgumentException("Malformed entry at offset " + (position - from));
+            }
+        }
+    }
+
+    private void define(int labelCode, int recordType) {
+        if (labelCode >= recordTypes.length) {
+            int oldLength = recordTypes.length;
+            recordTypes = Arrays.copyOf(recordTypes, Math.max(labelCode + 1, oldLength * 2));
+            Arrays.fill(recordTypes, oldLength, recordTypes.length, -1);
+        }
+        recordTypes[labelCode] = recordType;
+    }
+}
@@ -0,0 +1,269 @@
+package com.data_management;
+
+/**
+ * Parses numbers and record type labels in place, for the readers that ingest
+ * text without splitting it into substrings. The text is accessed through
+ * {@link CharSequence}: a {@link String} for the messages parsed by
+ * {@link MessageParser}, a {@link ByteText} view for the readers of files and
+ * sockets, so both are parsed by the same code.
+ * All methods use absolute positions. Leading and trailing blanks of a field
+ * are ignored, see {@link #isBlank}.
+ */
+final class ByteParsing {
+    static final long MAX_EXACT_MANTISSA = 1L << 53;
+    static final int MAX_EXACT_EXPONENT = 22; // the largest power of ten a double holds exactly
+    static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final String TRIGGERED = "triggered";
+    private static final String RESOLVED = "resolved";
+
+    private ByteParsing() {
+    }
+
+    /**
+     * Parses a reading line of the simulator and appends it to a batch. Both
+     * the plain {@code id,timestamp,label,value} format and the labeled
+     * {@code Patient ID: id, Timestamp: ..., Label: ..., Data: value} format
+     * are accepted: a field that contains a colon is read from after it.
+     *
+     * @throws IllegalArgumentException if the line is not a reading, or its
+     *                                  label is rejected by the
+     *                                  {@link RecordTypeRegistry}
+     */
+    static void parseReading(CharSequence text, int from, int to, LabelCache labels, RecordBatch batch) {
+        int idEnd = indexOf(text, ',', from, to);
+        int timestampEnd = indexOf(text, ',', Math.min(idEnd + 1, to), to);
+        int labelEnd = indexOf(text, ',', Math.min(timestampEnd + 1, to), to);
+        if (labelEnd == to || indexOf(text, ',', labelEnd + 1, to) != to) {
+            throw new NumberFormatException("Expected four fields");
+        }
+        int patientId = parseInt(text, valueStart(text, from, idEnd), idEnd);
+        long timestamp = parseLong(text, valueStart(text, idEnd + 1, timestampEnd), timestampEnd);
+        int recordType = labels.codeOf(text, valueStart(text, timestampEnd + 1, labelEnd), labelEnd);
+        double value = parseValue(text, valueStart(text, labelEnd + 1, to), to);
+        batch.add(patientId, value, recordType, timestamp);
+    }
+
+    /**
+     * Returns the start of a field's value: after its colon, if it has one.
+     */
+    static int valueStart(CharSequence text, int from, int to) {
+        int colon = indexOf(text, ':', from, to);
+        return colon < to ? colon + 1 : from;
+    }
+
+    /**
+     * Parses the value of a reading: a number, where the "%" suffix of
+     * saturation values is ignored, or a "triggered" or "resolved" alert,
+     * read as 1 and 0.
+     *
+     * @throws NumberFormatException if the field is not a value
+     */
+    static double parseValue(CharSequence text, int from, int to) {
+        from = trimStart(text, from, to);
+        to = trimEnd(text, from, to);
+        if (equals(text, from, to, TRIGGERED)) {
+            return 1;
+        }
+        if (equals(text, from, to, RESOLVED)) {
+            return 0;
+        }
+        if (to > from && text.charAt(to - 1) == '%') {
+            to--;
+        }
+        return parseDouble(text, from, to);
+    }
+
+    /**
+     * Parses a decimal integer.
+     *
+     * @throws NumberFormatException if the field is not an integer
+     */
+    static long parseLong(CharSequence text, int from, int to) {
+        from = trimStart(text, from, to);
+        to = trimEnd(text, from, to);
+        boolean negative = from < to && text.charAt(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("Missing number");
+        }
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Invalid integer \"" + text.subSequence(from, to) + "\"");
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses a decimal integer that must fit an {@code int}.
+     *
+     * @throws NumberFormatException if the field is not such an integer
+     */
+    static int parseInt(CharSequence text, int from, int to) {
+        long value = parseLong(text, from, to);
+        if (value != (int) value) {
+            throw new NumberFormatException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a floating point number in the syntax of
+     * {@link Double#parseDouble(String)}. Numbers whose digits and exponent a
+     * double represents exactly are converted without allocating; any other
+     * number falls back to {@code Double.parseDouble}, so the result is always
+     * correctly rounded.
+     *
+     * @throws NumberFormatException if the field is not a number
+     */
+    static double parseDouble(CharSequence text, int from, int to) {
+        from = trimStart(text, from, to);
+        to = trimEnd(text, from, to);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa < MAX_EXACT_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else {
+                    exact = false;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E') && digits > 0) {
+            i++;
+            boolean negativeExponent = i < to && text.charAt(i) == '-';
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int value = 0;
+            int start = i;
+            for (; i < to && text.charAt(i) >= '0' && text.charAt(i) <= '9' && value < 10000; i++) {
+                value = value * 10 + (text.charAt(i) - '0');
+            }
+            exact &= i > start;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i == to && digits > 0 && exact && mantissa <= MAX_EXACT_MANTISSA
+                && exponent >= -MAX_EXACT_EXPONENT && exponent <= MAX_EXACT_EXPONENT) {
+            // Both operands are exact, so the one rounding makes the result correctly rounded
+            double result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent]
+                    : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -result : result;
+        }
+        return Double.parseDouble(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * Returns whether a field consists of exactly the given text.
+     */
+    static boolean equals(CharSequence text, int from, int to, String expected) {
+        from = trimStart(text, from, to);
+        to = trimEnd(text, from, to);
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the first occurrence of a character, or
+     * {@code to} if there is none.
+     */
+    static int indexOf(CharSequence text, char value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    static int trimStart(CharSequence text, int from, int to) {
+        while (from < to && isBlank(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    static int trimEnd(CharSequence text, int from, int to) {
+        while (to > from && isBlank(text.charAt(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Returns whether a character is a blank that is trimmed from a field: a
+     * space, tab, carriage return or line feed.
+     */
+    static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * Resolves record type labels by comparing them with the labels seen so
+     * far, so a known label costs no allocation. A view of bytes matches the
+     * ASCII labels of the simulator; other labels are looked up in the
+     * {@link RecordTypeRegistry} every time. A cache is not thread-safe; each
+     * reader keeps its own.
+     */
+    static final class LabelCache {
+        private String[] labels = new String[0]; // labels by record type code
+
+        /**
+         * Returns the record type code of a label, registering the label with
+         * the {@link RecordTypeRegistry} if it has not been seen before.
+         *
+         * @throws IllegalArgumentException if the registry rejects the label
+         */
+        int codeOf(CharSequence text, int from, int to) {
+            from = trimStart(text, from, to);
+            to = trimEnd(text, from, to);
+            String[] known = labels;
+            for (int code = 0; code < known.length; code++) {
+                if (ByteParsing.equals(text, from, to, known[code])) {
+                    return code;
+                }
+            }
+            int code = RecordTypeRegistry.codeOf(text.subSequence(from, to).toString());
+            if (known.length != RecordTypeRegistry.size()) {
+                known = new String[RecordTypeRegistry.size()];
+                for (int i = 0; i < known.length; i++) {
+                    known[i] = RecordTypeRegistry.labelOf(i);
+                }
+                labels = known;
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.data_management;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable view of the bytes of a buffer as characters, so that
+ * {@link ByteParsing} parses buffers and strings with the same code.
+ * Characters are read by absolute position, one byte each, which is exact for
+ * the ASCII digits, signs and separators the parser looks at; text taken out
+ * of the view with {@link #subSequence} or {@link #toString} is decoded as
+ * UTF-8. A view is not thread-safe; each reader keeps its own and points it
+ * at its buffer with {@link #wrap}.
+ */
+final class ByteText implements CharSequence {
+    private ByteBuffer buffer;
+
+    /**
+     * Points the view at a buffer.
+     *
+     * @param buffer the buffer whose bytes are read
+     * @return this view
+     */
+    ByteText wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return decode(buffer, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return decode(buffer, 0, buffer.limit());
+    }
+
+    /**
+     * Decodes a range of a buffer as UTF-8 text; used for labels, error
+     * messages and fallbacks.
+     */
+    static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,20 @@
+package com.data_management;
+
+/**
+ * Receives every reading as it is added to a {@link DataStorage}.
+ * Listeners are called on the thread that added the reading, after the reading
+ * has been stored, so implementations should be quick and thread-safe.
+ */
+public interface DataListener {
+
+    /**
+     * Called when a reading has been added to the storage.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param recordType       the record type code, see {@link RecordTypeRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     * @param measurementValue the value of the health metric
+     */
+    void onPatientData(int patientId, int recordType, long timestamp, double measurementValue);
+}
@@ -1,27 +1,45 @@
 package com.data_management;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.alerts.AlertEvaluationScheduler;
 import com.alerts.AlertGenerator;
+import com.alerts.history.AlertHistory;
+import com.alerts.strategy.AlertStrategy;
+import com.alerts.suppression.AlertSuppressor;
+import com.alerts.strategy.BloodPressureStrategy;
+import com.alerts.strategy.HeartRateStrategy;
+import com.alerts.strategy.OxygenSaturationStrategy;
 
 /**
  * Manages storage and retrieval of patient data within a healthcare monitoring
  * system.
  * This class serves as a repository for all patient records, organized by
  * patient IDs.
+ * It is safe for use by concurrent writers, such as a WebSocket reader thread,
+ * and concurrent readers, such as alert evaluation.
+ * The storage also tracks which record types of which patients received data
+ * since the changes were last drained, so periodic evaluation can skip patients
+ * and rules whose inputs did not change.
  */
 public class DataStorage {
     private Map<Integer, Patient> patientMap; // Stores patient objects indexed by their unique patient ID.
+    private final List<DataListener> listeners = new CopyOnWriteArrayList<>(); // Notified of every new reading
+    private final Queue<Patient> changedPatients = new ConcurrentLinkedQueue<>(); // Patients with pending changes
     private static volatile DataStorage instance; // Singleton instance
     /**
      * Constructs a new instance of DataStorage, initializing the underlying storage
      * structure.
      */
     public DataStorage() {
-        this.patientMap = new HashMap<>();
+        this.patientMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -38,12 +56,120 @@ public class DataStorage {
      *                         milliseconds since the Unix epoch
      */
     public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
-        Patient patient = patientMap.get(patientId);
-        if (patient == null) {
-            patient = new Patient(patientId);
-            patientMap.put(patientId, patient);
-        }
+        addPatientData(patientId, measurementValue, RecordTypeRegistry.codeOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds or updates patient data in the storage using a record type code that
+     * was already resolved at the ingest boundary.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric being recorded
+     * @param recordType       the record type code, see {@link RecordTypeRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    public void addPatientData(int patientId, double measurementValue, int recordType, long timestamp) {
+        Patient patient = patientMap.computeIfAbsent(patientId, Patient::new);
         patient.addRecord(measurementValue, recordType, timestamp);
+        if (patient.markChanged(recordType)) {
+            changedPatients.add(patient);
+        }
+        for (DataListener listener : listeners) {
+            listener.onPatientData(patientId, recordType, timestamp, measurementValue);
+        }
+    }
+
+    /**
+     * Adds a batch of readings, in batch order, as if each was added with
+     * {@link #addPatientData(int, double, int, long)}. Consecutive readings of
+     * the same patient share a single patient lookup.
+     *
+     * @param batch the readings to add; the batch is left unchanged
+     */
+    public void addPatientData(RecordBatch batch) {
+        Patient patient = null;
+        for (int i = 0; i < batch.size; i++) {
+            int patientId = batch.patientIds[i];
+            int recordType = batch.recordTypes[i];
+            long timestamp = batch.timestamps[i];
+            double measurementValue = batch.values[i];
+            if (patient == null || patient.getPatientId() != patientId) {
+                patient = patientMap.computeIfAbsent(patientId, Patient::new);
+            }
+            patient.addRecord(measurementValue, recordType, timestamp);
+            if (patient.markChanged(recordType)) {
+                changedPatients.add(patient);
+            }
+            for (DataListener listener : listeners) {
+                listener.onPatientData(patientId, recordType, timestamp, measurementValue);
+            }
+        }
+    }
+
+    /**
+     * Hands every patient that received data since the last drain to the
+     * visitor, together with the record types that changed, and clears the
+     * changes. A patient appears at most once per drain. Data added while the
+     * changes are drained is reported either now or by the next drain.
+     *
+     * @param visitor receives the changed patients
+     * @return the number of patients handed to the visitor
+     */
+    public int drainChanges(PatientChangeVisitor visitor) {
+        int count = 0;
+        Patient patient;
+        while ((patient = changedPatients.poll()) != null) {
+            long recordTypes = patient.takeChanges();
+            if (recordTypes != 0) {
+                visitor.onChange(patient, recordTypes);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the patient with the given ID.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return the patient, or {@code null} if no data was added for it
+     */
+    public Patient getPatient(int patientId) {
+        return patientMap.get(patientId);
+    }
+
+    /**
+     * Returns the running baseline of a patient's readings of a record type.
+     * Baselines are updated before listeners are notified, so a listener sees
+     * the baseline including the reading it is notified of.
+     *
+     * @param patientId  the unique identifier of the patient
+     * @param recordType the record type code, see {@link RecordTypeRegistry}
+     * @return the baseline, or {@code null} if no reading of that type was added
+     *         for the patient
+     */
+    public SignalBaseline getBaseline(int patientId, int recordType) {
+        Patient patient = patientMap.get(patientId);
+        return patient != null ? patient.getBaseline(recordType) : null;
+    }
+
+    /**
+     * Registers a listener that is notified of every reading added from now on.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(DataListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DataListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -67,6 +193,46 @@ public class DataStorage {
         return new ArrayList<>(); // return an empty list if no patient is found
     }
 
+    /**
+     * Retrieves the records of a single record type for a specific patient,
+     * filtered by a time range.
+     * Unlike {@link #getRecords(int, long, long)} this only touches the series of
+     * the requested type, so callers need not filter by record type themselves.
+     *
+     * @param patientId  the unique identifier of the patient whose records are to
+     *                   be retrieved
+     * @param recordType the type of record, e.g., "ECG", "SystolicPressure"
+     * @param startTime  the start of the time range, in milliseconds since the
+     *                   Unix epoch
+     * @param endTime    the end of the time range, in milliseconds since the Unix
+     *                   epoch
+     * @return a list of PatientRecord objects ordered by timestamp, oldest first
+     */
+    public List<PatientRecord> getRecords(int patientId, String recordType, long startTime, long endTime) {
+        return getRecords(patientId, RecordTypeRegistry.lookup(recordType), startTime, endTime);
+    }
+
+    /**
+     * Retrieves the records of a single record type for a specific patient,
+     * filtered by a time range, oldest first.
+     *
+     * @param patientId  the unique identifier of the patient whose records are to
+     *                   be retrieved
+     * @param recordType the record type code, see {@link RecordTypeRegistry}
+     * @param startTime  the start of the time range, in milliseconds since the
+     *                   Unix epoch
+     * @param endTime    the end of the time range, in milliseconds since the Unix
+     *                   epoch
+     * @return a list of PatientRecord objects ordered by timestamp, oldest first
+     */
+    public List<PatientRecord> getRecords(int patientId, int recordType, long startTime, long endTime) {
+        Patient patient = patientMap.get(patientId);
+        if (patient != null) {
+            return patient.getRecords(recordType, startTime, endTime);
+        }
+        return new ArrayList<>(); // return an empty list if no patient is found
+    }
+
     /**
      * Retrieves a collection of all patients stored in the data storage.
      *
@@ -88,6 +254,8 @@ public class DataStorage {
         // DataReader is not defined in this scope, should be initialized appropriately.
         // DataReader reader = new SomeDataReaderImplementation("path/to/data");
         DataStorage storage = new DataStorage();
+        // Derive heart rate and HRV from the ECG waveform as it arrives
+        EcgBeatDetector.attachTo(storage);
 
         // Assuming the reader has been properly initialized and can read data into the
         // storage
@@ -104,11 +272,22 @@ public class DataStorage {
 
         // Initialize the AlertGenerator with the storage
         AlertGenerator alertGenerator = new AlertGenerator(storage);
+        // Report each condition once, and again every 15 minutes while it persists
+        alertGenerator.setSuppressor(new AlertSuppressor(300000, 900000));
+        // Keep a week of delivered alerts for per-patient and per-condition queries
+        alertGenerator.setHistory(new AlertHistory(7L * 86400000));
 
-        // Evaluate all patients' data to check for conditions that may trigger alerts
-        for (Patient patient : storage.getAllPatients()) {
-            alertGenerator.evaluateData(patient);
-        }
+        // Evaluate all patients' data in parallel to check for conditions that may trigger alerts
+        List<AlertStrategy> strategies = Arrays.asList(
+                new BloodPressureStrategy(alertGenerator),
+                new HeartRateStrategy(alertGenerator),
+                new OxygenSaturationStrategy(alertGenerator));
+        AlertEvaluationScheduler scheduler = new AlertEvaluationScheduler(storage, strategies,
+                Runtime.getRuntime().availableProcessors());
+        long passNanos = scheduler.runPass();
+        System.out.println("Evaluated " + scheduler.getLastPassPatients() + " patients in "
+                + passNanos / 1000000 + " ms");
+        scheduler.stop();
     }
     
     /**
@@ -0,0 +1,269 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the per-label files written by
+ * {@link com.cardio_generator.outputs.FileOutputStrategy}, such as
+ * {@code ECG.txt} and {@code Saturation.txt}, and keeps following them.
+ * {@link #readData} first reads every {@code .txt} file of the directory in
+ * parallel, then returns and follows the directory on a daemon thread: a
+ * {@link WatchService} reports appended and new files, and each file is read
+ * on from the byte offset where the previous read stopped, so nothing is read
+ * twice. A line is only ingested once its newline was written. Since some
+ * platforms deliver watch events late, the files are also checked every
+ * {@link #RESCAN_INTERVAL} milliseconds.
+ * Lines are parsed from their bytes by
+ * {@link ByteParsing#parseReading}, and the lines of each read are added to
+ * the storage as one {@link RecordBatch}. Malformed lines are reported and
+ * skipped.
+ */
+public class DirectoryDataReader implements DataReader, AutoCloseable {
+    /** The interval at which files are checked for missed changes, in milliseconds. */
+    public static final long RESCAN_INTERVAL = 250;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int parallelism;
+    private final Map<Path, TailedFile> files = new HashMap<>(); // owned by the follower once started
+    private WatchService watchService;
+    private Thread follower;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a reader that reads the initial files with one worker per
+     * processor.
+     *
+     * @param directoryPath the directory the files are written to
+     */
+    public DirectoryDataReader(String directoryPath) {
+        this(directoryPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a reader.
+     *
+     * @param directoryPath the directory the files are written to
+     * @param parallelism   the number of files read at once initially
+     */
+    public DirectoryDataReader(String directoryPath, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.directory = Paths.get(directoryPath);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads all files of the directory into the storage and starts following
+     * them. The directory is created if it does not exist yet.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @param server      not used
+     * @throws IOException if the directory cannot be read or watched
+     */
+    @Override
+    public synchronized void readData(DataStorage dataStorage, URI server) throws IOException {
+        if (follower != null || closed) {
+            throw new IllegalStateException("The reader was already started");
+        }
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+        // Register before the initial read, so lines appended meanwhile raise an event
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        readInitialFiles(dataStorage);
+        follower = new Thread(() -> follow(dataStorage), "output-directory-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * Stops following the directory.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (follower != null) {
+            follower.interrupt();
+        }
+    }
+
+    private void readInitialFiles(DataStorage dataStorage) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path path : stream) {
+                files.put(path, new TailedFile(path));
+            }
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, files.size())));
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (TailedFile file : files.values()) {
+                tasks.add(() -> {
+                    file.readNewLines(dataStorage, ByteBuffer.allocate(BUFFER_SIZE), new RecordBatch());
+                    return null;
+                });
+            }
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + directory, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void follow(DataStorage dataStorage) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        RecordBatch batch = new RecordBatch();
+        while (!closed) {
+            try {
+                WatchKey key = watchService.poll(RESCAN_INTERVAL, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    rescan(dataStorage, buffer, batch);
+                    continue;
+                }
+                try {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            rescan(dataStorage, buffer, batch);
+                        } else {
+                            Path path = directory.resolve((Path) event.context());
+                            if (path.getFileName().toString().endsWith(".txt")) {
+                                readNewLines(files.computeIfAbsent(path, TailedFile::new), dataStorage, buffer, batch);
+                            }
+                        }
+                    }
+                } finally {
+                    key.reset(); // otherwise the key is never signalled again
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Error following " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void rescan(DataStorage dataStorage, ByteBuffer buffer, RecordBatch batch) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path path : stream) {
+                files.computeIfAbsent(path, TailedFile::new);
+            }
+        }
+        for (TailedFile file : files.values()) {
+            readNewLines(file, dataStorage, buffer, batch);
+        }
+    }
+
+    /**
+     * Reads the new lines of one file, reporting rather than propagating an
+     * error so the other files and the remaining events are still read.
+     */
+    private static void readNewLines(TailedFile file, DataStorage dataStorage, ByteBuffer buffer, RecordBatch batch) {
+        try {
+            file.readNewLines(dataStorage, buffer, batch);
+        } catch (IOException | RuntimeException e) {
+            batch.clear();
+            System.err.println("Error reading " + file.path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A followed file and the offset up to which its lines were ingested.
+     */
+    private static final class TailedFile {
+        private final Path path;
+        private final ByteParsing.LabelCache labels = new ByteParsing.LabelCache();
+        private final ByteText text = new ByteText();
+        private long offset;
+
+        TailedFile(Path path) {
+            this.path = path;
+        }
+
+        void readNewLines(DataStorage dataStorage, ByteBuffer buffer, RecordBatch batch) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < offset) {
+                    offset = 0; // truncated or replaced; start over
+                }
+                while (offset < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, offset);
+                    if (read <= 0) {
+                        return;
+                    }
+                    int consumed = parseLines(buffer, read, batch);
+                    dataStorage.addPatientData(batch);
+                    batch.clear();
+                    if (consumed == 0) {
+                        if (read < buffer.capacity()) {
+                            return; // the last line is still being written
+                        }
+                        consumed = read; // a line longer than the buffer; skip it
+                        System.err.println("Skipping overlong line in " + path);
+                    }
+                    offset += consumed;
+                }
+            } catch (NoSuchFileException e) {
+                offset = 0; // deleted; read it from the start if it comes back
+            }
+        }
+
+        /**
+         * Parses the complete lines at the start of the buffer into the batch
+         * and returns the number of bytes they take.
+         */
+        private int parseLines(ByteBuffer buffer, int length, RecordBatch batch) {
+            ByteText text = this.text.wrap(buffer);
+            int position = 0;
+            while (true) {
+                int lineEnd = ByteParsing.indexOf(text, '\n', position, length);
+                if (lineEnd == length) {
+                    return position;
+                }
+                if (ByteParsing.trimEnd(text, position, lineEnd) > position) {
+                    try {
+                        ByteParsing.parseReading(text, position, lineEnd, labels, batch);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Skipping malformed line in " + path + ": "
+                                + ByteText.decode(buffer, position, lineEnd));
+                    }
+                }
+                position = lineEnd + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.data_management;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects heart beats in the raw ECG waveform as it is stored and adds the
+ * signals derived from them back to the {@link DataStorage}.
+ * Every ECG sample passes through a small incremental filter: a slow
+ * exponential baseline is subtracted to remove drift, local maxima of the
+ * remaining signal are R-peak candidates, and a candidate is accepted as a
+ * beat if it exceeds an adaptive threshold between the running signal and
+ * noise peak levels and lies outside the refractory period of the previous
+ * beat. The peak levels are learned over the first seconds of a patient's
+ * waveform before any beat is reported. For every beat the detector stores
+ * the RR interval, the instantaneous heart rate and, over the last
+ * {@value #HRV_BEATS} beats, the heart rate variability as RMSSD and SDNN.
+ * The derived readings use the record types
+ * {@link RecordTypeRegistry#RR_INTERVAL}, {@link RecordTypeRegistry#HEART_RATE},
+ * {@link RecordTypeRegistry#HRV_RMSSD} and {@link RecordTypeRegistry#HRV_SDNN},
+ * so alert rules and listeners see them like any other reading.
+ * The work per sample is constant and the state per patient is a few numbers
+ * and a ring of recent RR intervals, so the detector keeps up with 250 Hz
+ * waveforms for thousands of patients.
+ */
+public class EcgBeatDetector implements DataListener {
+    static final int HRV_BEATS = 32;
+    private static final long BASELINE_TIME_CONSTANT = 750; // ms
+    private static final long LEARNING_PERIOD = 2000; // ms, peak levels are learned before beats are reported
+    private static final long REFRACTORY_PERIOD = 200; // ms, no two beats closer than this
+    private static final long MIN_RR = 250; // ms, 240 bpm
+    private static final long MAX_RR = 2500; // ms, 24 bpm
+    private static final double LEVEL_WEIGHT = 0.125;
+    private static final double THRESHOLD_FRACTION = 0.25;
+
+    private final DataStorage dataStorage;
+    private final Map<Integer, BeatState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a detector that adds the derived signals to a storage. The
+     * detector must also be registered as a listener of that storage.
+     *
+     * @param dataStorage the storage the derived readings are added to
+     */
+    public EcgBeatDetector(DataStorage dataStorage) {
+        this.dataStorage = dataStorage;
+    }
+
+    /**
+     * Constructs a detector and registers it with the storage.
+     *
+     * @param dataStorage the storage whose ECG readings are analysed
+     * @return the registered detector
+     */
+    public static EcgBeatDetector attachTo(DataStorage dataStorage) {
+        EcgBeatDetector detector = new EcgBeatDetector(dataStorage);
+        dataStorage.addListener(detector);
+        return detector;
+    }
+
+    @Override
+    public void onPatientData(int patientId, int recordType, long timestamp, double measurementValue) {
+        if (recordType != RecordTypeRegistry.ECG) {
+            return;
+        }
+        BeatState state = states.computeIfAbsent(patientId, id -> new BeatState());
+        long beat;
+        double rmssd = Double.NaN;
+        double sdnn = Double.NaN;
+        synchronized (state) {
+            beat = state.addSample(timestamp, measurementValue);
+            if (beat >= 0) {
+                // Read with the interval, so a concurrent sample cannot add another one in between
+                rmssd = state.rmssd();
+                sdnn = state.sdnn();
+            }
+        }
+        if (beat >= 0) {
+            // Stored outside the lock, since storing notifies the listeners again
+            dataStorage.addPatientData(patientId, beat, RecordTypeRegistry.RR_INTERVAL, timestamp);
+            dataStorage.addPatientData(patientId, 60000.0 / beat, RecordTypeRegistry.HEART_RATE, timestamp);
+            if (!Double.isNaN(rmssd)) {
+                dataStorage.addPatientData(patientId, rmssd, RecordTypeRegistry.HRV_RMSSD, timestamp);
+                dataStorage.addPatientData(patientId, sdnn, RecordTypeRegistry.HRV_SDNN, timestamp);
+            }
+        }
+    }
+
+    /**
+     * The filter, peak detector and RR interval ring of one patient.
+     */
+    static class BeatState {
+        private boolean started;
+        private long previousTime;
+        private double baseline;
+        private double previous; // previous filtered sample
+        private long previousSampleTime;
+        private boolean rising;
+        private double signalLevel;
+        private double noiseLevel;
+        private long learningEnd;
+        private int learningPeaks;
+        private long lastBeat = Long.MIN_VALUE;
+
+        private final long[] intervals = new long[HRV_BEATS];
+        private int intervalCount;
+        private int next;
+        private double sum;
+        private double sumOfSquares;
+        private double successiveSquares; // sum of squared differences of adjacent intervals in the ring
+
+        /**
+         * Adds a sample and returns the RR interval ending at it if the sample
+         * completed a beat.
+         *
+         * @return the RR interval in milliseconds, or -1 if no interval ended
+         */
+        long addSample(long timestamp, double value) {
+            if (!started) {
+                started = true;
+                baseline = value;
+                previousTime = timestamp;
+                previousSampleTime = timestamp;
+                learningEnd = timestamp + LEARNING_PERIOD;
+                return -1;
+            }
+            long elapsed = Math.max(0, timestamp - previousTime);
+            previousTime = timestamp;
+            baseline += (value - baseline) * elapsed / (double) (elapsed + BASELINE_TIME_CONSTANT);
+            double filtered = value - baseline;
+
+            long interval = -1;
+            if (rising && filtered < previous) {
+                interval = onPeak(previousSampleTime, previous);
+            }
+            if (filtered != previous) {
+                rising = filtered > previous;
+            }
+            previous = filtered;
+            previousSampleTime = timestamp;
+            return interval;
+        }
+
+        private long onPeak(long peakTime, double amplitude) {
+            if (peakTime < learningEnd) {
+                // The strongest peak stands for the beats, the mean of all peaks for the noise
+                signalLevel = Math.max(signalLevel, amplitude);
+                noiseLevel += (amplitude - noiseLevel) / ++learningPeaks;
+                return -1;
+            }
+            double threshold = noiseLevel + THRESHOLD_FRACTION * (signalLevel - noiseLevel);
+            boolean refractory = lastBeat != Long.MIN_VALUE && peakTime - lastBeat < REFRACTORY_PERIOD;
+            if (amplitude <= threshold || refractory) {
+                noiseLevel += LEVEL_WEIGHT * (amplitude - noiseLevel);
+                return -1;
+            }
+            signalLevel += LEVEL_WEIGHT * (amplitude - signalLevel);
+            long interval = lastBeat == Long.MIN_VALUE ? -1 : peakTime - lastBeat;
+            lastBeat = peakTime;
+            if (interval < MIN_RR || interval > MAX_RR) {
+                return -1; // first beat, or a missed or spurious beat in between
+            }
+            addInterval(interval);
+            return interval;
+        }
+
+        private void addInterval(long interval) {
+            if (intervalCount == HRV_BEATS) {
+                long oldest = intervals[next];
+                long secondOldest = intervals[(next + 1) % HRV_BEATS];
+                sum -= oldest;
+                sumOfSquares -= (double) oldest * oldest;
+                successiveSquares -= square(secondOldest - oldest);
+            } else {
+                intervalCount++;
+            }
+            if (intervalCount > 1) {
+                long newest = intervals[(next + HRV_BEATS - 1) % HRV_BEATS];
+                successiveSquares += square(interval - newest);
+            }
+            intervals[next] = interval;
+            next = (next + 1) % HRV_BEATS;
+            sum += interval;
+            sumOfSquares += (double) interval * interval;
+        }
+
+        /**
+         * Returns the root mean square of successive RR differences.
+         *
+         * @return the RMSSD in milliseconds, or NaN with fewer than two intervals
+         */
+        double rmssd() {
+            return intervalCount < 2 ? Double.NaN : Math.sqrt(Math.max(0, successiveSquares) / (intervalCount - 1));
+        }
+
+        /**
+         * Returns the standard deviation of the RR intervals.
+         *
+         * @return the SDNN in milliseconds, or NaN with fewer than two intervals
+         */
+        double sdnn() {
+            if (intervalCount < 2) {
+                return Double.NaN;
+            }
+            double mean = sum / intervalCount;
+            return Math.sqrt(Math.max(0, sumOfSquares / intervalCount - mean * mean));
+        }
+
+        private static double square(long value) {
+            return (double) value * value;
+        }
+    }
+}
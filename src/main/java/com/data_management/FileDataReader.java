@@ -1,22 +1,65 @@
-
-
 package com.data_management;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Paths;
 
+/**
+ * Reads the readings in {@code output.txt} of a directory, one
+ * {@code patientId,value,label,timestamp} line per reading.
+ * By default the file is read line by line. A reader created with
+ * {@link #mapped(String)} memory-maps the file and parses it in parallel
+ * instead, which is much faster for large recordings; see
+ * {@link MappedFileLoader}. It keeps the readings of each patient in file
+ * order, but readings of different patients reach the storage concurrently.
+ */
 public class FileDataReader implements DataReader {
 
     private String directoryPath;
+    private final MappedFileLoader mappedLoader; // null reads line by line
 
     public FileDataReader(String directoryPath) {
+        this(directoryPath, null);
+    }
+
+    private FileDataReader(String directoryPath, MappedFileLoader mappedLoader) {
         this.directoryPath = directoryPath;
+        this.mappedLoader = mappedLoader;
+    }
+
+    /**
+     * Returns a reader that memory-maps the file and parses it with one
+     * worker per processor.
+     *
+     * @param directoryPath the directory containing {@code output.txt}
+     * @return the reader
+     */
+    public static FileDataReader mapped(String directoryPath) {
+        return mapped(directoryPath, Runtime.getRuntime().availableProcessors(),
+                MappedFileLoader.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Returns a reader that memory-maps the file and parses it in parallel.
+     *
+     * @param directoryPath the directory containing {@code output.txt}
+     * @param parallelism   the number of worker threads
+     * @param chunkBytes    the approximate number of bytes parsed by a worker
+     *                      at a time
+     * @return the reader
+     */
+    public static FileDataReader mapped(String directoryPath, int parallelism, int chunkBytes) {
+        return new FileDataReader(directoryPath, new MappedFileLoader(parallelism, chunkBytes));
     }
 
     @Override
     public void readData(DataStorage dataStorage, URI servies) throws IOException {
+        if (mappedLoader != null) {
+            mappedLoader.load(Paths.get(directoryPath, "output.txt"), dataStorage);
+            return;
+        }
         // Construct the file path based on the directoryPath
         String filePath = directoryPath + "/output.txt";
 
@@ -27,7 +70,7 @@ public class FileDataReader implements DataReader {
                 String[] parts = line.split(",");
                 int patientId = Integer.parseInt(parts[0]);
                 double measurementValue = Double.parseDouble(parts[1]);
-                String recordType = parts[2];
+                int recordType = RecordTypeRegistry.codeOf(parts[2]);
                 long timestamp = Long.parseLong(parts[3]);
 
                 // Add the parsed data to the DataStorage
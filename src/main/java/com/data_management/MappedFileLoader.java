@@ -0,0 +1,211 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a file of {@code patientId,value,label,timestamp} lines into a
+ * {@link DataStorage} by memory-mapping it and parsing line-aligned chunks in
+ * parallel.
+ * Numbers and labels are parsed straight from the mapped bytes by
+ * {@link ByteParsing}, so a line costs no allocation in the common case.
+ * The file is processed in rounds of one chunk per worker. The workers first
+ * parse their chunks into {@link RecordBatch}es split by patient, then each
+ * worker inserts the readings of one group of patients from all chunks of the
+ * round in file order. The readings of a patient are therefore stored, and
+ * seen by listeners, in file order, and workers never contend for a patient.
+ */
+final class MappedFileLoader {
+    static final int DEFAULT_CHUNK_SIZE = 8 << 20; // 8 MB
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    MappedFileLoader(int parallelism, int chunkSize) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    void load(Path file, DataStorage storage) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = lineBounds(channel);
+            int chunks = bounds.length - 1;
+            ChunkParser[] parsers = new ChunkParser[Math.min(parallelism, chunks)];
+            for (int i = 0; i < parsers.length; i++) {
+                parsers[i] = new ChunkParser(parsers.length);
+            }
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, parsers.length), runnable -> {
+                Thread thread = new Thread(runnable, "file-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                for (int first = 0; first < chunks; first += parsers.length) {
+                    int count = Math.min(parsers.length, chunks - first);
+                    List<Callable<Void>> tasks = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        ChunkParser parser = parsers[i];
+                        long start = bounds[first + i];
+                        long end = bounds[first + i + 1];
+                        tasks.add(() -> {
+                            parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), start);
+                            return null;
+                        });
+                    }
+                    runAll(workers, tasks);
+                    tasks.clear();
+                    for (int partition = 0; partition < parsers.length; partition++) {
+                        int group = partition;
+                        tasks.add(() -> {
+                            for (int i = 0; i < count; i++) {
+                                storage.addPatientData(parsers[i].batches[group]);
+                            }
+                            return null;
+                        });
+                    }
+                    runAll(workers, tasks);
+                }
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Returns the chunk boundaries, each the start of a line, from 0 to the
+     * file size.
+     */
+    private long[] lineBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[] { 0, 0 };
+        int count = 1;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = chunkSize;
+        while (next < size) {
+            long lineStart = nextLineStart(channel, next - 1, size, probe);
+            if (lineStart >= size) {
+                break;
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = lineStart;
+            next = lineStart + chunkSize;
+        }
+        if (count == bounds.length) {
+            bounds = Arrays.copyOf(bounds, count + 1);
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, size == 0 ? 1 : count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe)
+            throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static void runAll(ExecutorService workers, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Parses chunks into one batch per group of patients. Each worker owns one
+     * parser, which it reuses for every round.
+     */
+    private static final class ChunkParser {
+        final RecordBatch[] batches;
+        private final ByteParsing.LabelCache labels = new ByteParsing.LabelCache();
+        private final ByteText text = new ByteText();
+
+        ChunkParser(int partitions) {
+            batches = new RecordBatch[partitions];
+            for (int i = 0; i < partitions; i++) {
+                batches[i] = new RecordBatch();
+            }
+        }
+
+        void parse(MappedByteBuffer buffer, long offset) throws IOException {
+            for (RecordBatch batch : batches) {
+                batch.clear();
+            }
+            ByteText text = this.text.wrap(buffer);
+            int position = 0;
+            int limit = buffer.limit();
+            while (position < limit) {
+                int lineEnd = ByteParsing.indexOf(text, '\n', position, limit);
+                if (ByteParsing.trimEnd(text, position, lineEnd) > position) {
+                    try {
+                        int valueStart = field(text, position, lineEnd);
+                        int labelStart = field(text, valueStart, lineEnd);
+                        int timestampStart = field(text, labelStart, lineEnd);
+                        int patientId = ByteParsing.parseInt(text, position, valueStart - 1);
+                        double value = ByteParsing.parseDouble(text, valueStart, labelStart - 1);
+                        int recordType = labels.codeOf(text, labelStart, timestampStart - 1);
+                        long timestamp = ByteParsing.parseLong(text, timestampStart, lineEnd);
+                        batches[Math.floorMod(patientId, batches.length)]
+                                .add(patientId, value, recordType, timestamp);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Malformed record at byte " + (offset + position) + ": "
+                                + e.getMessage(), e);
+                    }
+                }
+                position = lineEnd + 1;
+            }
+        }
+
+        /** Returns the start of the field after the one starting at {@code from}. */
+        private static int field(CharSequence text, int from, int lineEnd) {
+            int comma = ByteParsing.indexOf(text, ',', from, lineEnd);
+            if (comma == lineEnd) {
+                throw new NumberFormatException("Missing field");
+            }
+            return comma + 1;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.data_management;
+
+/**
+ * Parses the text messages sent by the simulator in a single pass over the
+ * message, without splitting it into substrings.
+ * Both formats are accepted: the plain {@code id,timestamp,label,value} of
+ * {@link com.cardio_generator.outputs.WebSocketOutputStrategy} and the labeled
+ * {@code Patient ID: id, Timestamp: ..., Label: ..., Data: value} of the other
+ * output strategies. A field that contains a colon is read from after it.
+ * The fields are parsed by {@link ByteParsing}, the same code that parses the
+ * lines of files and sockets, so a message with a known label costs no
+ * allocation. A parser is not thread-safe.
+ */
+final class MessageParser {
+    private final ByteParsing.LabelCache labels = new ByteParsing.LabelCache();
+
+    /**
+     * Parses a message and adds its reading to the storage.
+     *
+     * @param message     the message
+     * @param dataStorage the storage the reading is added to
+     * @throws IllegalArgumentException if the message format is invalid
+     */
+    void parse(String message, DataStorage dataStorage) {
+        int length = message.length();
+        int idEnd = ByteParsing.indexOf(message, ',', 0, length);
+        int timestampEnd = ByteParsing.indexOf(message, ',', Math.min(idEnd + 1, length), length);
+        int labelEnd = ByteParsing.indexOf(message, ',', Math.min(timestampEnd + 1, length), length);
+        if (labelEnd == length || ByteParsing.indexOf(message, ',', labelEnd + 1, length) != length) {
+            throw new IllegalArgumentException("Invalid message");
+        }
+        int patientId = ByteParsing.parseInt(message, ByteParsing.valueStart(message, 0, idEnd), idEnd);
+        long timestamp = ByteParsing.parseLong(message, ByteParsing.valueStart(message, idEnd + 1, timestampEnd),
+                timestampEnd);
+        int recordType = labels.codeOf(message, ByteParsing.valueStart(message, timestampEnd + 1, labelEnd),
+                labelEnd);
+        double value = ByteParsing.parseValue(message, ByteParsing.valueStart(message, labelEnd + 1, length),
+                length);
+        dataStorage.addPatientData(patientId, value, recordType, timestamp);
+    }
+}
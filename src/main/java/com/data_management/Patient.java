@@ -1,33 +1,45 @@
 package com.data_management;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a patient and manages their medical records.
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Readings are kept in one columnar {@link RecordSeries} per record type
+ * rather than as individual record objects. The series are indexed directly by
+ * the record type code from {@link RecordTypeRegistry}. Next to each series
+ * the patient keeps a {@link SignalBaseline} of that signal, updated with
+ * every reading.
+ * Records may be added and queried concurrently from different threads.
  */
 public class Patient {
     private int patientId;
-    private List<PatientRecord> patientRecords;
+    private volatile RecordSeries[] recordSeries;
+    private volatile SignalBaseline[] baselines; // parallel to recordSeries
+    private final AtomicLong changedTypes = new AtomicLong(); // see RecordTypeRegistry.maskOf
 
     /**
      * Constructs a new Patient with a specified ID.
-     * Initializes an empty list of patient records.
+     * Initializes an empty set of record series.
      *
      * @param string the unique identifier for the patient
      */
     public Patient(int string) {
         this.patientId = string;
-        this.patientRecords = new ArrayList<>();
+        this.recordSeries = new RecordSeries[RecordTypeRegistry.size()];
+        this.baselines = new SignalBaseline[recordSeries.length];
     }
 
     /**
-     * Adds a new record to this patient's list of medical records.
-     * The record is created with the specified measurement value, record type, and
-     * timestamp.
+     * Adds a new record to this patient's medical records.
+     * The measurement value and timestamp are appended to the series of the
+     * given record type, which is created on first use.
      *
      * @param measurementValue the measurement value to store in the record
      * @param recordType       the type of record, e.g., "HeartRate",
@@ -36,14 +48,32 @@ public class Patient {
      *                         milliseconds since UNIX epoch
      */
     public void addRecord(double measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
-        this.patientRecords.add(record);
+        addRecord(measurementValue, RecordTypeRegistry.codeOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds a new record to this patient's medical records and updates the
+     * baseline of its record type.
+     *
+     * @param measurementValue the measurement value to store in the record
+     * @param recordType       the record type code, see {@link RecordTypeRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since UNIX epoch
+     */
+    public void addRecord(double measurementValue, int recordType, long timestamp) {
+        RecordSeries series = getSeries(recordType);
+        if (series == null) {
+            series = createSeries(recordType);
+        }
+        series.add(timestamp, measurementValue);
+        baselines[recordType].add(timestamp, measurementValue);
     }
 
     /**
      * Retrieves a list of PatientRecord objects for this patient that fall within a
      * specified time range.
-     * The method filters records based on the start and end times provided.
+     * The method looks up the time range in every record series and returns the
+     * matching records ordered by timestamp.
      *
      * @param startTime the start of the time range, in milliseconds since UNIX
      *                  epoch
@@ -53,14 +83,123 @@ public class Patient {
      */
     public List<PatientRecord> getRecords(long startTime, long endTime) {
         List<PatientRecord> recordsInRange = new ArrayList<>();
-        for (PatientRecord record : patientRecords) {
-            if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
-                recordsInRange.add(record);
+        RecordSeries[] current = recordSeries;
+        int seriesCount = 0;
+        for (int type = 0; type < current.length; type++) {
+            if (current[type] != null) {
+                current[type].collectRecords(patientId, type, startTime, endTime, recordsInRange);
+                seriesCount++;
             }
         }
+        if (seriesCount > 1) {
+            recordsInRange.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
+        }
+        return recordsInRange;
+    }
+
+    /**
+     * Retrieves the records of a single record type that fall within a specified
+     * time range.
+     * Only the series of the requested type is searched, and the records are
+     * returned ordered by timestamp, oldest first.
+     *
+     * @param recordType the type of record, e.g., "ECG", "Saturation"
+     * @param startTime  the start of the time range, in milliseconds since UNIX
+     *                   epoch
+     * @param endTime    the end of the time range, in milliseconds since UNIX epoch
+     * @return a list of PatientRecord objects of the given type within the
+     *         specified time range
+     */
+    public List<PatientRecord> getRecords(String recordType, long startTime, long endTime) {
+        return getRecords(RecordTypeRegistry.lookup(recordType), startTime, endTime);
+    }
+
+    /**
+     * Retrieves the records of a single record type that fall within a specified
+     * time range, oldest first.
+     *
+     * @param recordType the record type code, see {@link RecordTypeRegistry}
+     * @param startTime  the start of the time range, in milliseconds since UNIX
+     *                   epoch
+     * @param endTime    the end of the time range, in milliseconds since UNIX epoch
+     * @return a list of PatientRecord objects of the given type within the
+     *         specified time range
+     */
+    public List<PatientRecord> getRecords(int recordType, long startTime, long endTime) {
+        List<PatientRecord> recordsInRange = new ArrayList<>();
+        RecordSeries series = getSeries(recordType);
+        if (series != null) {
+            series.collectRecords(patientId, recordType, startTime, endTime, recordsInRange);
+        }
         return recordsInRange;
     }
-       public int getPatientId() {
+
+    /**
+     * Returns the series holding this patient's readings of a record type.
+     *
+     * @param recordType the record type code, see {@link RecordTypeRegistry}
+     * @return the series, or {@code null} if no reading of that type was added
+     */
+    public RecordSeries getSeries(int recordType) {
+        RecordSeries[] current = recordSeries;
+        return recordType >= 0 && recordType < current.length ? current[recordType] : null;
+    }
+
+    /**
+     * Returns the running baseline of this patient's readings of a record type.
+     *
+     * @param recordType the record type code, see {@link RecordTypeRegistry}
+     * @return the baseline, or {@code null} if no reading of that type was added
+     */
+    public SignalBaseline getBaseline(int recordType) {
+        SignalBaseline[] current = baselines;
+        return recordType >= 0 && recordType < current.length ? current[recordType] : null;
+    }
+
+    public int getPatientId() {
         return patientId;
     }
+
+    /**
+     * Marks a record type as changed since the changes were last taken.
+     *
+     * @param recordType the record type code
+     * @return {@code true} if the patient had no pending changes before
+     */
+    boolean markChanged(int recordType) {
+        long bit = RecordTypeRegistry.maskOf(recordType);
+        long previous = changedTypes.get();
+        if ((previous & bit) != 0) {
+            return false; // already marked; the common case needs no write
+        }
+        previous = changedTypes.getAndAccumulate(bit, (current, added) -> current | added);
+        return previous == 0;
+    }
+
+    /**
+     * Returns and clears the record types changed since the last call.
+     *
+     * @return the changed record types, see {@link RecordTypeRegistry#maskOf}
+     */
+    long takeChanges() {
+        return changedTypes.getAndSet(0);
+    }
+
+    private synchronized RecordSeries createSeries(int recordType) {
+        RecordSeries[] current = recordSeries;
+        if (recordType >= current.length) {
+            current = Arrays.copyOf(current, Math.max(recordType + 1, RecordTypeRegistry.size()));
+        } else if (current[recordType] != null) {
+            return current[recordType];
+        } else {
+            current = current.clone();
+        }
+        SignalBaseline[] currentBaselines = Arrays.copyOf(baselines, current.length);
+        currentBaselines[recordType] = new SignalBaseline();
+        baselines = currentBaselines; // publish first, so a series found has its baseline
+        RecordSeries series = new RecordSeries();
+        current[recordType] = series;
+        recordSeries = current;
+        return series;
+    }
 }
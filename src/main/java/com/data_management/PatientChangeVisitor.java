@@ -0,0 +1,17 @@
+package com.data_management;
+
+/**
+ * Receives the patients whose data changed, see
+ * {@link DataStorage#drainChanges(PatientChangeVisitor)}.
+ */
+public interface PatientChangeVisitor {
+
+    /**
+     * Called for a patient that received new readings.
+     *
+     * @param patient     the patient
+     * @param recordTypes the record types that received readings, as a set of
+     *                    bits, see {@link RecordTypeRegistry#maskOf(int)}
+     */
+    void onChange(Patient patient, long recordTypes);
+}
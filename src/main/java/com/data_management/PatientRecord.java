@@ -8,10 +8,11 @@ package com.data_management;
  * pressure),
  * the measurement value, and the exact timestamp when the measurement was
  * taken.
+ * The record type is held as a code from {@link RecordTypeRegistry}.
  */
 public class PatientRecord {
     private int patientId;
-    private String recordType; // Example: ECG, blood pressure, etc.
+    private int recordType; // Code of e.g. ECG, blood pressure, etc.
     private double measurementValue; // Example: heart rate
     private long timestamp;
 
@@ -26,6 +27,19 @@ public class PatientRecord {
      *                         milliseconds since epoch
      */
     public PatientRecord(int patientId, double measurementValue, String recordType, long timestamp) {
+        this(patientId, measurementValue, RecordTypeRegistry.codeOf(recordType), timestamp);
+    }
+
+    /**
+     * Constructs a new patient record with an already resolved record type code.
+     * 
+     * @param patientId        the unique identifier for the patient
+     * @param measurementValue the numerical value of the recorded measurement
+     * @param recordType       the record type code, see {@link RecordTypeRegistry}
+     * @param timestamp        the time at which the measurement was recorded, in
+     *                         milliseconds since epoch
+     */
+    public PatientRecord(int patientId, double measurementValue, int recordType, long timestamp) {
         this.patientId = patientId;
         this.measurementValue = measurementValue;
         this.recordType = recordType;
@@ -65,6 +79,15 @@ public class PatientRecord {
      * @return the record type
      */
     public String getRecordType() {
+        return RecordTypeRegistry.labelOf(recordType);
+    }
+
+    /**
+     * Returns the code of the record type, see {@link RecordTypeRegistry}.
+     * 
+     * @return the record type code
+     */
+    public int getRecordTypeCode() {
         return recordType;
     }
 }
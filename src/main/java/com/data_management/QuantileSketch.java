@@ -0,0 +1,163 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Estimates quantiles of a stream of values in constant space, using the P²
+ * algorithm extended to several quantiles.
+ * The sketch keeps a handful of markers whose heights approximate the values
+ * at fixed ranks: the minimum, each tracked quantile, the midpoints between
+ * them, and the maximum. Every value moves the markers by at most one rank
+ * and adjusts their heights by piecewise-parabolic interpolation, so an update
+ * costs constant time and no memory is ever allocated after construction.
+ * Quantiles between the tracked ones are interpolated between markers. Until
+ * the sketch has seen as many values as it has markers, quantiles are exact.
+ * The sketch is not thread-safe.
+ */
+public class QuantileSketch {
+    private final double[] probabilities; // target rank of each marker, as a fraction
+    private final double[] heights;
+    private final double[] positions; // actual rank of each marker, 1-based
+    private final double[] desired; // desired rank of each marker
+    private long count;
+
+    /**
+     * Constructs a sketch that tracks the given quantiles most accurately.
+     *
+     * @param quantiles the quantiles to track, each between 0 and 1 exclusive
+     * @throws IllegalArgumentException if no quantile is given, or one is out
+     *                                  of range or given twice
+     */
+    public QuantileSketch(double... quantiles) {
+        double[] sorted = quantiles.clone();
+        Arrays.sort(sorted);
+        if (sorted.length == 0) {
+            throw new IllegalArgumentException("At least one quantile is required");
+        }
+        for (int i = 0; i < sorted.length; i++) {
+            if (!(sorted[i] > 0 && sorted[i] < 1) || (i > 0 && sorted[i] == sorted[i - 1])) {
+                throw new IllegalArgumentException("Quantiles must be distinct and between 0 and 1: "
+                        + Arrays.toString(quantiles));
+            }
+        }
+        int markers = 2 * sorted.length + 3;
+        probabilities = new double[markers];
+        for (int i = 0; i < sorted.length; i++) {
+            double previous = i == 0 ? 0 : sorted[i - 1];
+            probabilities[2 * i + 1] = (previous + sorted[i]) / 2;
+            probabilities[2 * i + 2] = sorted[i];
+        }
+        probabilities[markers - 2] = (sorted[sorted.length - 1] + 1) / 2;
+        probabilities[markers - 1] = 1;
+        heights = new double[markers];
+        positions = new double[markers];
+        desired = new double[markers];
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        int markers = heights.length;
+        if (count < markers) {
+            // Keep the first values sorted; they become the initial markers
+            int i = (int) count;
+            while (i > 0 && heights[i - 1] > value) {
+                heights[i] = heights[i - 1];
+                i--;
+            }
+            heights[i] = value;
+            count++;
+            if (count == markers) {
+                for (int j = 0; j < markers; j++) {
+                    positions[j] = j + 1;
+                    desired[j] = 1 + probabilities[j] * (markers - 1);
+                }
+            }
+            return;
+        }
+        count++;
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[markers - 1]) {
+            heights[markers - 1] = value;
+            cell = markers - 2;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < markers; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < markers; i++) {
+            desired[i] += probabilities[i];
+        }
+        for (int i = 1; i < markers - 1; i++) {
+            adjust(i);
+        }
+    }
+
+    /**
+     * Returns the estimate of a quantile.
+     *
+     * @param quantile the quantile, between 0 and 1 inclusive
+     * @return the estimated value, or {@code NaN} if no value was added
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < heights.length) {
+            double rank = quantile * (count - 1);
+            int below = (int) Math.floor(rank);
+            int above = (int) Math.min(count - 1, below + 1);
+            return heights[below] + (rank - below) * (heights[above] - heights[below]);
+        }
+        for (int i = 1; i < probabilities.length; i++) {
+            if (quantile <= probabilities[i]) {
+                double fraction = (quantile - probabilities[i - 1]) / (probabilities[i] - probabilities[i - 1]);
+                return heights[i - 1] + Math.max(0, fraction) * (heights[i] - heights[i - 1]);
+            }
+        }
+        return heights[heights.length - 1];
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    private void adjust(int i) {
+        double offset = desired[i] - positions[i];
+        if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+            int step = offset > 0 ? 1 : -1;
+            double height = parabolic(i, step);
+            if (heights[i - 1] < height && height < heights[i + 1]) {
+                heights[i] = height;
+            } else {
+                heights[i] += step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+            }
+            positions[i] += step;
+        }
+    }
+
+    private double parabolic(int i, int step) {
+        double span = positions[i + 1] - positions[i - 1];
+        double right = (positions[i] - positions[i - 1] + step) * (heights[i + 1] - heights[i])
+                / (positions[i + 1] - positions[i]);
+        double left = (positions[i + 1] - positions[i] - step) * (heights[i] - heights[i - 1])
+                / (positions[i] - positions[i - 1]);
+        return heights[i] + step / span * (right + left);
+    }
+}
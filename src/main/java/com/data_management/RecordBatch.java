@@ -0,0 +1,70 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of readings, held in parallel primitive arrays so filling
+ * it allocates nothing once it has grown to its working size.
+ * Bulk loaders fill a batch and hand it to
+ * {@link DataStorage#addPatientData(RecordBatch)}, then {@link #clear()} and
+ * refill it. A batch is not thread-safe.
+ */
+public final class RecordBatch {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    int[] patientIds;
+    double[] values;
+    int[] recordTypes;
+    long[] timestamps;
+    int size;
+
+    /**
+     * Constructs an empty batch.
+     */
+    public RecordBatch() {
+        patientIds = new int[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+        recordTypes = new int[INITIAL_CAPACITY];
+        timestamps = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends a reading to the batch.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric
+     * @param recordType       the record type code, see {@link RecordTypeRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    public void add(int patientId, double measurementValue, int recordType, long timestamp) {
+        if (size == patientIds.length) {
+            int capacity = size * 2;
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            recordTypes = Arrays.copyOf(recordTypes, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        patientIds[size] = patientId;
+        values[size] = measurementValue;
+        recordTypes[size] = recordType;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    /**
+     * Returns the number of readings in the batch.
+     *
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all readings, keeping the capacity for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,169 @@
+package com.data_management;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the readings of a single record type for a single patient in columnar
+ * form.
+ * Timestamps and measurement values are kept in two parallel primitive arrays
+ * that grow on demand and stay sorted by timestamp, so a reading costs no
+ * object allocation and time range lookups are answered by binary search.
+ * All access is guarded by the series' own monitor. Since every patient and
+ * record type has its own series, writers for different streams never contend
+ * with each other.
+ */
+public class RecordSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    /**
+     * Constructs an empty series with a small initial capacity.
+     */
+    public RecordSeries() {
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.values = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a reading to the series.
+     * Readings normally arrive in time order and are appended; a late reading
+     * is inserted at its sorted position so the series stays ordered.
+     *
+     * @param timestamp the time of the reading, in milliseconds since UNIX epoch
+     * @param value     the measurement value
+     */
+    public synchronized void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int index = size;
+        if (size > 0 && timestamps[size - 1] > timestamp) {
+            index = upperBound(timestamp);
+            System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        timestamps[index] = timestamp;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Returns the number of readings in the series.
+     *
+     * @return the number of readings
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the timestamp of the reading at the given position.
+     *
+     * @param index the position of the reading, in time order
+     * @return the timestamp in milliseconds since UNIX epoch
+     */
+    public synchronized long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Returns the measurement value of the reading at the given position.
+     *
+     * @param index the position of the reading, in time order
+     * @return the measurement value
+     */
+    public synchronized double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the position of the first reading taken at or after the given
+     * time.
+     *
+     * @param timestamp the time to search for
+     * @return the first index whose timestamp is {@code >= timestamp}, or
+     *         {@link #size()} if there is none
+     */
+    public synchronized int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first reading taken strictly after the given
+     * time.
+     *
+     * @param timestamp the time to search for
+     * @return the first index whose timestamp is {@code > timestamp}, or
+     *         {@link #size()} if there is none
+     */
+    public synchronized int upperBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies the readings within a time range into a new, independent series.
+     * The copy is taken atomically, so it can be scanned by index without being
+     * affected by readings added concurrently.
+     *
+     * @param startTime the start of the time range, inclusive
+     * @param endTime   the end of the time range, inclusive
+     * @return a new series holding the readings within the range
+     */
+    public synchronized RecordSeries slice(long startTime, long endTime) {
+        int from = lowerBound(startTime);
+        int to = Math.max(from, upperBound(endTime));
+        int capacity = Math.max(to - from, 1); // keep room to grow from
+        RecordSeries copy = new RecordSeries();
+        copy.timestamps = Arrays.copyOfRange(timestamps, from, from + capacity);
+        copy.values = Arrays.copyOfRange(values, from, from + capacity);
+        copy.size = to - from;
+        return copy;
+    }
+
+    /**
+     * Materializes the readings within a time range as {@link PatientRecord}
+     * objects and appends them to the given list in time order.
+     *
+     * @param patientId  the patient the series belongs to
+     * @param recordType the record type code of the series
+     * @param startTime  the start of the time range, inclusive
+     * @param endTime    the end of the time range, inclusive
+     * @param out        the list the records are appended to
+     */
+    synchronized void collectRecords(int patientId, int recordType, long startTime, long endTime, List<PatientRecord> out) {
+        int to = upperBound(endTime);
+        for (int i = lowerBound(startTime); i < to; i++) {
+            out.add(new PatientRecord(patientId, values[i], recordType, timestamps[i]));
+        }
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+}
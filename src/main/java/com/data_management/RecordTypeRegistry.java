@@ -0,0 +1,123 @@
+package com.data_management;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps record type labels such as "ECG" or "SystolicPressure" to compact
+ * integer codes.
+ * Labels are translated once where data enters the system, after which
+ * storage and alert rules work on the codes only. The labels produced by the
+ * simulator are registered up front with fixed codes; any other label is
+ * registered the first time it is seen, up to {@link #MAX_TYPES} labels in
+ * total. Since labels arrive from upstream sources, the cap keeps a faulty or
+ * hostile source from growing the registry, and every table sized by it,
+ * without bound.
+ */
+public final class RecordTypeRegistry {
+    /** The maximum number of record types that can be registered. */
+    public static final int MAX_TYPES = 256;
+
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private static volatile String[] labels = new String[0];
+
+    public static final int ECG = register("ECG");
+    public static final int SATURATION = register("Saturation");
+    public static final int SYSTOLIC_PRESSURE = register("SystolicPressure");
+    public static final int DIASTOLIC_PRESSURE = register("DiastolicPressure");
+    public static final int CHOLESTEROL = register("Cholesterol");
+    public static final int WHITE_BLOOD_CELLS = register("WhiteBloodCells");
+    public static final int RED_BLOOD_CELLS = register("RedBloodCells");
+    public static final int ALERT = register("Alert");
+    // Signals derived from the ECG waveform, see EcgBeatDetector
+    public static final int HEART_RATE = register("HeartRate");
+    public static final int RR_INTERVAL = register("RRInterval");
+    public static final int HRV_RMSSD = register("HrvRmssd");
+    public static final int HRV_SDNN = register("HrvSdnn");
+
+    private RecordTypeRegistry() {
+    }
+
+    /**
+     * Returns the code of a record type label, registering the label if it has
+     * not been seen before.
+     *
+     * @param label the record type label, e.g., "ECG"
+     * @return the code of the label
+     * @throws IllegalArgumentException if the label is null or blank, or if it
+     *                                  is new and {@link #MAX_TYPES} labels are
+     *                                  already registered
+     */
+    public static int codeOf(String label) {
+        if (label == null || label.trim().isEmpty()) {
+            throw new IllegalArgumentException("Record type label must not be blank");
+        }
+        Integer code = codes.get(label);
+        return code != null ? code : register(label);
+    }
+
+    /**
+     * Returns the code of a record type label without registering it.
+     *
+     * @param label the record type label, e.g., "ECG"
+     * @return the code of the label, or -1 if the label is unknown
+     */
+    public static int lookup(String label) {
+        Integer code = label != null ? codes.get(label) : null;
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Returns the label registered for a code.
+     *
+     * @param code a code returned by {@link #codeOf(String)}
+     * @return the record type label
+     * @throws IllegalArgumentException if no label is registered for the code
+     */
+    public static String labelOf(int code) {
+        String[] current = labels;
+        if (code < 0 || code >= current.length) {
+            throw new IllegalArgumentException("Unknown record type code: " + code);
+        }
+        return current[code];
+    }
+
+    /**
+     * Returns the bit that stands for a record type in a set of record types
+     * packed into a {@code long}. Codes from 63 upwards share the highest bit.
+     *
+     * @param code a record type code
+     * @return the bit of the record type
+     */
+    public static long maskOf(int code) {
+        return 1L << Math.min(code, 63);
+    }
+
+    /**
+     * Returns the number of registered record types. Codes are always in the
+     * range {@code 0} to {@code size() - 1}.
+     *
+     * @return the number of registered record types
+     */
+    public static int size() {
+        return labels.length;
+    }
+
+    private static synchronized int register(String label) {
+        Integer existing = codes.get(label);
+        if (existing != null) {
+            return existing;
+        }
+        int code = labels.length;
+        if (code >= MAX_TYPES) {
+            throw new IllegalArgumentException("Cannot register record type \"" + label + "\": "
+                    + MAX_TYPES + " record types are already registered");
+        }
+        String[] grown = Arrays.copyOf(labels, code + 1);
+        grown[code] = label;
+        labels = grown;
+        codes.put(label, code);
+        return code;
+    }
+}
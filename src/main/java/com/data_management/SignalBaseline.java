@@ -0,0 +1,168 @@
+package com.data_management;
+
+/**
+ * The running baseline of one signal of one patient: an exponentially
+ * weighted mean and variance, and a {@link QuantileSketch} of all readings.
+ * The weight of a reading decays with its age rather than with the number of
+ * readings that followed, so signals sampled at very different rates adapt
+ * equally fast; the weight halves every {@link #DEFAULT_HALF_LIFE}
+ * milliseconds. Until enough readings arrived, the mean and variance are
+ * those of all readings so far. Every update costs constant time.
+ * The deviation of the newest reading is measured against the mean and
+ * variance from before it was added, see {@link #getLatestZScore()}; measured
+ * afterwards, a reading that follows a long gap carries almost all the weight
+ * and could never lie far from the mean.
+ * Baselines are maintained by the {@link DataStorage} as readings are stored,
+ * so rules can compare a reading with the patient's own normal range without
+ * scanning history.
+ */
+public class SignalBaseline {
+    /** The time after which the weight of a reading has halved, in milliseconds. */
+    public static final long DEFAULT_HALF_LIFE = 3600000; // one hour
+    private static final double[] SKETCH_QUANTILES = { 0.05, 0.25, 0.5, 0.75, 0.95 };
+
+    private final double halfLife;
+    private final QuantileSketch sketch = new QuantileSketch(SKETCH_QUANTILES);
+    private long count;
+    private long lastTimestamp;
+    private double mean;
+    private double variance;
+    private double latestZScore = Double.NaN;
+
+    /**
+     * Constructs an empty baseline with the default half-life.
+     */
+    public SignalBaseline() {
+        this(DEFAULT_HALF_LIFE);
+    }
+
+    /**
+     * Constructs an empty baseline.
+     *
+     * @param halfLifeMillis the time after which the weight of a reading has
+     *                       halved, in milliseconds
+     */
+    public SignalBaseline(long halfLifeMillis) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        this.halfLife = halfLifeMillis;
+    }
+
+    /**
+     * Adds a reading to the baseline.
+     *
+     * @param timestamp the time of the reading, in milliseconds
+     * @param value     the measurement value
+     */
+    public synchronized void add(long timestamp, double value) {
+        sketch.add(value);
+        count++;
+        if (count == 1) {
+            mean = value;
+            lastTimestamp = timestamp;
+            return;
+        }
+        long elapsed = Math.max(0, timestamp - lastTimestamp);
+        lastTimestamp = Math.max(lastTimestamp, timestamp);
+        double weight = Math.max(1.0 / count, 1 - Math.pow(2, -elapsed / halfLife));
+        double difference = value - mean;
+        latestZScore = count < 3 || variance <= 0 ? Double.NaN : difference / Math.sqrt(variance);
+        double increment = weight * difference;
+        mean += increment;
+        variance = (1 - weight) * (variance + difference * increment);
+    }
+
+    /**
+     * Returns the number of readings added.
+     *
+     * @return the number of readings
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the exponentially weighted mean.
+     *
+     * @return the mean, or {@code NaN} if no reading was added
+     */
+    public synchronized double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the exponentially weighted variance.
+     *
+     * @return the variance, or {@code NaN} if no reading was added
+     */
+    public synchronized double getVariance() {
+        return count == 0 ? Double.NaN : variance;
+    }
+
+    /**
+     * Returns the exponentially weighted standard deviation.
+     *
+     * @return the standard deviation, or {@code NaN} if no reading was added
+     */
+    public synchronized double getStandardDeviation() {
+        return count == 0 ? Double.NaN : Math.sqrt(variance);
+    }
+
+    /**
+     * Returns how many standard deviations a value lies from the mean.
+     *
+     * @param value the value to compare with the baseline
+     * @return the signed distance, or {@code NaN} while the baseline has no
+     *         spread yet
+     */
+    public synchronized double zScore(double value) {
+        return count < 2 || variance <= 0 ? Double.NaN : (value - mean) / Math.sqrt(variance);
+    }
+
+    /**
+     * Returns how many standard deviations the newest reading lay from the
+     * mean before it was added to the baseline.
+     *
+     * @return the signed distance, or {@code NaN} if the baseline had no
+     *         spread before the newest reading
+     */
+    public synchronized double getLatestZScore() {
+        return latestZScore;
+    }
+
+    /**
+     * Returns how many standard deviations the newest reading lay from the
+     * mean before it was added, provided the baseline had seen enough readings
+     * by then. Count and deviation are read together, so a reading added
+     * concurrently cannot pair one reading's count with another's deviation.
+     *
+     * @param minReadings the number of readings the baseline must have held
+     *                    before the newest one
+     * @return the signed distance, or {@code NaN} if the baseline held fewer
+     *         readings or had no spread before the newest reading
+     */
+    public synchronized double getLatestZScore(long minReadings) {
+        return count - 1 >= minReadings ? latestZScore : Double.NaN;
+    }
+
+    /**
+     * Returns an estimate of a quantile of all readings added. The 5th, 25th,
+     * 50th, 75th and 95th percentiles are tracked most accurately.
+     *
+     * @param quantile the quantile, between 0 and 1 inclusive
+     * @return the estimated value, or {@code NaN} if no reading was added
+     */
+    public synchronized double quantile(double quantile) {
+        return sketch.quantile(quantile);
+    }
+
+    /**
+     * Returns the time of the newest reading added.
+     *
+     * @return the timestamp, in milliseconds, or 0 if no reading was added
+     */
+    public synchronized long getLastTimestamp() {
+        return lastTimestamp;
+    }
+}
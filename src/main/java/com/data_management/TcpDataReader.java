@@ -0,0 +1,313 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cardio_generator.outputs.BinaryRecordEncoder;
+
+/**
+ * Reads the readings that simulators send with
+ * {@link com.cardio_generator.outputs.TcpOutputStrategy}, one
+ * {@code id,timestamp,label,value} line per reading.
+ * A single selector thread serves any number of upstream simulators over
+ * non-blocking {@link SocketChannel}s. Every connection receives into its own
+ * direct buffer, and complete lines are parsed straight out of that buffer by
+ * {@link ByteParsing#parseReading}; a line cut off at the end of a read is
+ * kept for the next one. The lines received in one pass of the selector are
+ * added to the storage as one {@link RecordBatch}.
+ * A connection that fails or is closed by the simulator is retried every
+ * {@link #RECONNECT_DELAY} milliseconds until the reader is closed.
+ * Unless turned off with {@link #setBinaryRequested(boolean)}, every
+ * connection asks for the binary format of {@link BinaryRecordEncoder} by
+ * sending its hello line, and switches to it if the simulator answers with the
+ * magic bytes; frames are then decoded straight out of the receive buffer by a
+ * {@link BinaryFrameDecoder}. Simulators that do not answer are read as text.
+ */
+public class TcpDataReader implements DataReader, AutoCloseable {
+    /** The delay before a lost or refused connection is retried, in milliseconds. */
+    public static final long RECONNECT_DELAY = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024; // holds a whole binary frame
+    private static final byte[] HELLO = (BinaryRecordEncoder.HELLO + "\n").getBytes(StandardCharsets.US_ASCII);
+    private static final int NEGOTIATING = 0;
+    private static final int TEXT = 1;
+    private static final int BINARY = 2;
+
+    private final List<InetSocketAddress> upstreams = new ArrayList<>();
+    private Selector selector;
+    private Thread selectorThread;
+    private volatile boolean closed;
+    private volatile boolean binaryRequested = true;
+
+    /**
+     * Constructs a reader for the given simulators.
+     *
+     * @param upstreams the addresses of the simulators' TCP outputs
+     */
+    public TcpDataReader(InetSocketAddress... upstreams) {
+        for (InetSocketAddress upstream : upstreams) {
+            this.upstreams.add(upstream);
+        }
+    }
+
+    /**
+     * Sets whether connections ask for the binary format. It is asked for by
+     * default; connections made afterwards use the new setting.
+     *
+     * @param binaryRequested {@code true} to ask for the binary format
+     */
+    public void setBinaryRequested(boolean binaryRequested) {
+        this.binaryRequested = binaryRequested;
+    }
+
+    /**
+     * Connects to every simulator and starts reading on a daemon thread.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @param server      an additional simulator to connect to, as
+     *                    {@code tcp://host:port}, or {@code null}
+     * @throws IOException if the selector cannot be opened
+     */
+    @Override
+    public synchronized void readData(DataStorage dataStorage, URI server) throws IOException {
+        if (selectorThread != null || closed) {
+            throw new IllegalStateException("The reader was already started");
+        }
+        if (server != null) {
+            if (server.getHost() == null || server.getPort() < 0) {
+                throw new IllegalArgumentException("Expected tcp://host:port, got " + server);
+            }
+            upstreams.add(new InetSocketAddress(server.getHost(), server.getPort()));
+        }
+        if (upstreams.isEmpty()) {
+            throw new IllegalArgumentException("No simulator to connect to");
+        }
+        selector = Selector.open();
+        List<Connection> connections = new ArrayList<>();
+        for (InetSocketAddress upstream : upstreams) {
+            connections.add(new Connection(upstream));
+        }
+        selectorThread = new Thread(() -> run(dataStorage, connections), "tcp-data-reader");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Disconnects from all simulators and stops the selector thread.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void run(DataStorage dataStorage, List<Connection> connections) {
+        RecordBatch batch = new RecordBatch();
+        ByteParsing.LabelCache labels = new ByteParsing.LabelCache();
+        try {
+            while (!closed) {
+                long now = System.currentTimeMillis();
+                long timeout = RECONNECT_DELAY;
+                for (Connection connection : connections) {
+                    if (connection.channel == null) {
+                        if (now >= connection.retryAt) {
+                            connection.connect();
+                        } else {
+                            timeout = Math.min(timeout, connection.retryAt - now);
+                        }
+                    }
+                }
+                selector.select(Math.max(1, timeout));
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_READ);
+                            connection.connected();
+                        } else if (key.isReadable()) {
+                            connection.read(labels, batch);
+                        }
+                    } catch (IOException e) {
+                        connection.disconnect("Connection to " + connection.upstream + " lost: " + e.getMessage());
+                    }
+                }
+                selector.selectedKeys().clear();
+                if (batch.size() > 0) {
+                    dataStorage.addPatientData(batch);
+                    batch.clear();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("TCP reader stopped: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing selector: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The connection to one simulator, owned by the selector thread.
+     */
+    private final class Connection {
+        private final InetSocketAddress upstream;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteText text = new ByteText().wrap(buffer);
+        private SocketChannel channel;
+        private long retryAt;
+        private int mode;
+        private BinaryFrameDecoder decoder;
+
+        Connection(InetSocketAddress upstream) {
+            this.upstream = upstream;
+        }
+
+        void connect() {
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                buffer.clear();
+                if (channel.connect(upstream)) {
+                    channel.register(selector, SelectionKey.OP_READ, this);
+                    connected();
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, this);
+                }
+            } catch (IOException e) {
+                disconnect("Cannot connect to " + upstream + ": " + e.getMessage());
+            }
+        }
+
+        /**
+         * Asks for the binary format on a newly established connection.
+         */
+        void connected() throws IOException {
+            mode = binaryRequested ? NEGOTIATING : TEXT;
+            if (mode == NEGOTIATING) {
+                decoder = new BinaryFrameDecoder(); // label codes are per connection
+                ByteBuffer hello = ByteBuffer.wrap(HELLO);
+                for (int attempt = 0; hello.hasRemaining() && attempt < 100; attempt++) {
+                    channel.write(hello); // a few bytes on a fresh connection, written at once in practice
+                }
+                if (hello.hasRemaining()) {
+                    throw new IOException("Cannot send the protocol request");
+                }
+            }
+        }
+
+        /**
+         * Reads what is available and parses the complete lines or frames into
+         * the batch.
+         */
+        void read(ByteParsing.LabelCache labels, RecordBatch batch) throws IOException {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                disconnect("Connection to " + upstream + " closed");
+                return;
+            }
+            buffer.flip();
+            int limit = buffer.limit();
+            int position = 0;
+            if (mode == NEGOTIATING) {
+                int checked = Math.min(limit, BinaryRecordEncoder.MAGIC.length);
+                mode = BINARY;
+                for (int i = 0; i < checked; i++) {
+                    if (buffer.get(i) != BinaryRecordEncoder.MAGIC[i]) {
+                        mode = TEXT;
+                    }
+                }
+                if (mode == BINARY && checked < BinaryRecordEncoder.MAGIC.length) {
+                    mode = NEGOTIATING; // wait for the rest of the answer
+                    buffer.position(limit);
+                    buffer.limit(buffer.capacity());
+                    return;
+                }
+                if (mode == BINARY) {
+                    position = BinaryRecordEncoder.MAGIC.length;
+                }
+            }
+            if (mode == BINARY) {
+                position = readFrames(position, limit, batch);
+            } else {
+                position = readLines(position, limit, labels, batch);
+            }
+            buffer.position(position);
+            buffer.compact(); // keep the partial line or frame for the next read
+        }
+
+        private int readFrames(int position, int limit, RecordBatch batch) throws IOException {
+            while (limit - position >= 4) {
+                int length = buffer.getInt(position);
+                if (length < 0 || length > BinaryRecordEncoder.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (limit - position - 4 < length) {
+                    break;
+                }
+                try {
+                    decoder.decode(buffer, position + 4, position + 4 + length, batch);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid frame: " + e.getMessage(), e);
+                }
+                position += 4 + length;
+            }
+            return position;
+        }
+
+        private int readLines(int position, int limit, ByteParsing.LabelCache labels, RecordBatch batch) {
+            while (true) {
+                int lineEnd = ByteParsing.indexOf(text, '\n', position, limit);
+                if (lineEnd == limit) {
+                    break;
+                }
+                if (ByteParsing.trimEnd(text, position, lineEnd) > position) {
+                    try {
+                        ByteParsing.parseReading(text, position, lineEnd, labels, batch);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Invalid message from " + upstream + ": "
+                                + ByteText.decode(buffer, position, lineEnd));
+                    }
+                }
+                position = lineEnd + 1;
+            }
+            if (position == 0 && limit == buffer.capacity()) {
+                System.err.println("Skipping overlong line from " + upstream);
+                position = limit;
+            }
+            return position;
+        }
+
+        void disconnect(String reason) {
+            System.err.println(reason);
+            close();
+            retryAt = System.currentTimeMillis() + RECONNECT_DELAY;
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing connection to " + upstream + ": " + e.getMessage());
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -2,16 +2,31 @@ package com.data_management;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
+import com.cardio_generator.outputs.BinaryRecordEncoder;
+
 /**
  * TheWebSocketClient is a WebSocket client that connects to a server and reads data.
  * It implements the DataReader interface and uses a DataStorage instance to store received data.
+ * Messages are parsed in place by a {@link MessageParser}, which accepts both
+ * the plain and the labeled message format of the simulator. Received
+ * messages are not printed unless {@link #setLogMessages(boolean)} turns it on.
+ * The client asks for the binary format of {@link BinaryRecordEncoder} in its
+ * handshake; servers that support it send binary messages, which are decoded
+ * by a {@link BinaryFrameDecoder} and stored as one batch per message, while
+ * other servers keep sending text.
  */
 public class TheWebSocketClient extends WebSocketClient implements DataReader {
     private DataStorage dataStorage;
+    private final MessageParser parser = new MessageParser(); // used on the WebSocket thread only
+    private final BinaryFrameDecoder decoder = new BinaryFrameDecoder(); // likewise
+    private final RecordBatch batch = new RecordBatch(); // likewise
+    private volatile boolean logMessages;
 
     /**
      * Constructs a new TheWebSocketClient with the specified server URI and DataStorage.
@@ -20,10 +35,20 @@ public class TheWebSocketClient extends WebSocketClient implements DataReader {
      * @param dataStorage  the DataStorage instance to use for storing data
      */
     public TheWebSocketClient(URI serverUri, DataStorage dataStorage) {
-        super(serverUri);
+        super(serverUri, Collections.singletonMap(BinaryRecordEncoder.HEADER, BinaryRecordEncoder.HEADER_VALUE));
         this.dataStorage = dataStorage;
     }
 
+    /**
+     * Sets whether every received message is printed. Printing is off by
+     * default, since it costs more than parsing at high message rates.
+     *
+     * @param logMessages {@code true} to print received messages
+     */
+    public void setLogMessages(boolean logMessages) {
+        this.logMessages = logMessages;
+    }
+
     /**
      * Called when the WebSocket connection is opened.
      *
@@ -41,7 +66,9 @@ public class TheWebSocketClient extends WebSocketClient implements DataReader {
      */
     @Override
     public void onMessage(String message) {
-        System.out.println("Received message: " + message);
+        if (logMessages) {
+            System.out.println("Received message: " + message);
+        }
         try {
             processMessage(message);
         } catch (IllegalArgumentException e) {
@@ -50,77 +77,39 @@ public class TheWebSocketClient extends WebSocketClient implements DataReader {
     }
 
     /**
-     * Processes the received message and stores the data in the DataStorage.
-     *
-     * @param message  the message to process
-     * @throws IllegalArgumentException if the message format is invalid
-     */
-    private void processMessage(String message) {
-        String[] parts = message.split(",");
-        validateMessageFormat(parts);
-
-        int patientId = extractPatientId(parts[0]);
-        long timestamp = extractTimestamp(parts[1]);
-        String label = extractLabel(parts[2]);
-        double data = extractData(parts[3]);
-
-        dataStorage.addPatientData(patientId, data, label, timestamp);
-    }
-
-    /**
-     * Validates the format of the message.
+     * Called when a binary message, a frame of readings, is received from the
+     * server.
      *
-     * @param parts  the parts of the message split by comma
-     * @throws IllegalArgumentException if the message format is invalid
+     * @param bytes  the length prefix and entries of the frame
      */
-    private void validateMessageFormat(String[] parts) {
-        if (parts.length != 4) {
-            throw new IllegalArgumentException("Invalid message");
+    @Override
+    public void onMessage(ByteBuffer bytes) {
+        int from = bytes.position();
+        int to = bytes.limit();
+        try {
+            if (to - from < 4 || bytes.getInt(from) != to - from - 4) {
+                throw new IllegalArgumentException("Frame length does not match message length");
+            }
+            decoder.decode(bytes, from + 4, to, batch);
+            if (logMessages) {
+                System.out.println("Received " + batch.size() + " readings");
+            }
+            dataStorage.addPatientData(batch);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid message: " + e.getMessage());
+        } finally {
+            batch.clear();
         }
     }
 
     /**
-     * Extracts the patient ID from the message part.
-     *
-     * @param part  the message part containing the patient ID
-     * @return the patient ID
-     */
-    private int extractPatientId(String part) {
-        return Integer.parseInt(part.split(": ")[1]);
-    }
-
-    /**
-     * Extracts the timestamp from the message part.
-     *
-     * @param part  the message part containing the timestamp
-     * @return the timestamp in milliseconds since UNIX epoch
-     */
-    private long extractTimestamp(String part) {
-        return Long.parseLong(part.split(": ")[1]);
-    }
-
-    /**
-     * Extracts the label from the message part.
-     *
-     * @param part  the message part containing the label
-     * @return the label
-     */
-    private String extractLabel(String part) {
-        return part.split(": ")[1];
-    }
-
-    /**
-     * Extracts the data from the message part.
+     * Processes the received message and stores the data in the DataStorage.
      *
-     * @param part  the message part containing the data
-     * @return the data as a double
+     * @param message  the message to process
+     * @throws IllegalArgumentException if the message format is invalid
      */
-    private double extractData(String part) {
-        String dataStr = part.split(": ")[1];
-        if (dataStr.contains("%")) {
-            dataStr = dataStr.replace("%", "");
-        }
-        return Double.parseDouble(dataStr);
+    private void processMessage(String message) {
+        parser.parse(message, dataStorage);
     }
 
     /**
@@ -0,0 +1,159 @@
+package data_management;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.decorator.PriorityAlertDecorator;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.AlertSink;
+import com.alerts.dispatch.DrainPolicy;
+import com.alerts.dispatch.LatencyHistogram;
+import com.data_management.DataStorage;
+
+class AlertDispatcherTest {
+
+    @Test
+    void testAlertsAreDeliveredInOrder() {
+        List<Alert> received = Collections.synchronizedList(new ArrayList<>());
+        AlertDispatcher dispatcher = new AlertDispatcher(received::addAll);
+        AlertGenerator alertGenerator = new AlertGenerator(new DataStorage(), dispatcher);
+
+        for (int i = 0; i < 1000; i++) {
+            alertGenerator.triggerAlert(new Alert("1", "Low Saturation Alert", i));
+        }
+        dispatcher.close();
+
+        assertEquals(1000, received.size());
+        assertEquals(999, received.get(999).getTimestamp());
+        assertEquals(1000, dispatcher.getDeliveredCount());
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertTrue(dispatcher.getMaxLatencyNanos() >= dispatcher.getMeanLatencyNanos());
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AlertSink blockedSink = alerts -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AlertDispatcher dispatcher = new AlertDispatcher(4, 1, blockedSink);
+
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (dispatcher.dispatch(new Alert("1", "Critical Pressure Threshold Alert", i))) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        dispatcher.close();
+
+        assertEquals(20 - accepted, dispatcher.getDroppedCount());
+        assertTrue(dispatcher.getDroppedCount() > 0);
+        assertEquals(accepted, dispatcher.getDeliveredCount());
+    }
+
+    @Test
+    void testCriticalAlertsOvertakeQueuedLowPriorityAlerts() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Alert> received = Collections.synchronizedList(new ArrayList<>());
+        AlertSink sink = alerts -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.addAll(alerts);
+        };
+        AlertDispatcher dispatcher = new AlertDispatcher(1024, 64, DrainPolicy.STRICT, sink);
+        AlertGenerator alertGenerator = new AlertGenerator(new DataStorage(), dispatcher);
+
+        // The first alert occupies the dispatcher thread while the rest queue up
+        alertGenerator.triggerAlert(new Alert("1", "Systolic Pressure Increasing", 0));
+        while (dispatcher.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i <= 100; i++) {
+            alertGenerator.triggerAlert(new Alert("1", "Systolic Pressure Increasing", i));
+        }
+        new PriorityAlertDecorator(alertGenerator, new Alert("2", "Hypotensive Hypoxemia Alert", 200)).triggerAlert();
+        assertEquals(1, dispatcher.getQueueDepth(AlertPriority.CRITICAL));
+        release.countDown();
+        dispatcher.close();
+
+        assertEquals(102, received.size());
+        assertEquals("Hypotensive Hypoxemia Alert", received.get(1).getCondition());
+        assertEquals(100, received.get(101).getTimestamp());
+        assertTrue(dispatcher.getLatencyPercentileNanos(AlertPriority.LOW, 0.99)
+                >= dispatcher.getLatencyPercentileNanos(AlertPriority.LOW, 0.5));
+        assertTrue(dispatcher.getLatencyPercentileNanos(AlertPriority.CRITICAL, 0.5) > 0);
+    }
+
+    @Test
+    void testWeightedDrainingDeliversEveryPriority() {
+        List<Alert> received = Collections.synchronizedList(new ArrayList<>());
+        AlertDispatcher dispatcher = new AlertDispatcher(4096, 32, DrainPolicy.WEIGHTED, received::addAll);
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.dispatch(new Alert("1", "Low Saturation Alert", i));
+            dispatcher.dispatch(new Alert("1", "Diastolic Decreasing Trend", i));
+        }
+        dispatcher.close();
+
+        assertEquals(2000, received.size());
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void testEveryAlertDispatchedDuringCloseIsDeliveredOrDropped() throws InterruptedException {
+        AtomicInteger received = new AtomicInteger();
+        AlertDispatcher dispatcher = new AlertDispatcher(alerts -> received.addAndGet(alerts.size()));
+        AtomicInteger attempted = new AtomicInteger();
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    attempted.incrementAndGet();
+                    if (!dispatcher.dispatch(new Alert("1", "Low Saturation Alert", j))) {
+                        return; // closed or full
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        Thread.sleep(5);
+        dispatcher.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(attempted.get(), received.get() + dispatcher.getDroppedCount());
+        assertEquals(received.get(), dispatcher.getDeliveredCount());
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500000, histogram.percentile(0.5), 500000 * 0.07);
+        assertEquals(990000, histogram.percentile(0.99), 990000 * 0.07);
+        assertTrue(histogram.percentile(1.0) >= 1000000);
+    }
+}
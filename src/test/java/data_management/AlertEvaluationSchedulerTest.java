@@ -0,0 +1,132 @@
+package data_management;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.AlertEvaluationScheduler;
+import com.alerts.strategy.AlertStrategy;
+import com.alerts.strategy.RecordScan;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.RecordTypeRegistry;
+
+class AlertEvaluationSchedulerTest {
+
+    @Test
+    void testPassEvaluatesEveryPatientOnce() {
+        DataStorage storage = new DataStorage();
+        for (int patientId = 1; patientId <= 500; patientId++) {
+            storage.addPatientData(patientId, 120.0, "SystolicPressure", 1714376789050L);
+        }
+        Set<Integer> evaluated = ConcurrentHashMap.newKeySet();
+        AlertStrategy recordingStrategy = patient -> assertTrue(evaluated.add(patient.getPatientId()));
+
+        AlertEvaluationScheduler scheduler = new AlertEvaluationScheduler(storage, Arrays.asList(recordingStrategy), 4);
+        long duration = scheduler.runPass();
+        scheduler.stop();
+
+        assertEquals(500, evaluated.size());
+        assertEquals(500, scheduler.getLastPassPatients());
+        assertEquals(1, scheduler.getPassCount());
+        assertEquals(duration, scheduler.getLastPassNanos());
+    }
+
+    @Test
+    void testDrainReportsEachChangedPatientOnce() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, 120.0, RecordTypeRegistry.SYSTOLIC_PRESSURE, 1000L);
+        storage.addPatientData(1, 80.0, RecordTypeRegistry.DIASTOLIC_PRESSURE, 1000L);
+        storage.addPatientData(1, 121.0, RecordTypeRegistry.SYSTOLIC_PRESSURE, 2000L);
+        storage.addPatientData(2, 97.0, RecordTypeRegistry.SATURATION, 1000L);
+
+        List<Long> changes = new CopyOnWriteArrayList<>();
+        assertEquals(2, storage.drainChanges((patient, recordTypes) -> changes.add(recordTypes)));
+        assertEquals(RecordTypeRegistry.maskOf(RecordTypeRegistry.SYSTOLIC_PRESSURE)
+                | RecordTypeRegistry.maskOf(RecordTypeRegistry.DIASTOLIC_PRESSURE), changes.get(0));
+        assertEquals(0, storage.drainChanges((patient, recordTypes) -> changes.add(recordTypes)));
+    }
+
+    @Test
+    void testChangedOnlyPassRunsDependentStrategies() {
+        DataStorage storage = new DataStorage();
+        for (int patientId = 1; patientId <= 100; patientId++) {
+            storage.addPatientData(patientId, 120.0, RecordTypeRegistry.SYSTOLIC_PRESSURE, 1000L);
+        }
+        List<Integer> pressureRuns = new CopyOnWriteArrayList<>();
+        List<Integer> saturationRuns = new CopyOnWriteArrayList<>();
+        AlertEvaluationScheduler scheduler = new AlertEvaluationScheduler(storage, Arrays.asList(
+                countingStrategy(RecordTypeRegistry.SYSTOLIC_PRESSURE, pressureRuns),
+                countingStrategy(RecordTypeRegistry.SATURATION, saturationRuns)), 4, () -> 5000L);
+        scheduler.setChangedPatientsOnly(true);
+
+        scheduler.runPass();
+        assertEquals(100, pressureRuns.size());
+        assertEquals(0, saturationRuns.size());
+
+        scheduler.runPass(); // nothing arrived in between
+        assertEquals(0, scheduler.getLastPassPatients());
+        assertEquals(100, pressureRuns.size());
+
+        storage.addPatientData(7, 95.0, RecordTypeRegistry.SATURATION, 2000L);
+        scheduler.runPass();
+        scheduler.stop();
+        assertEquals(1, scheduler.getLastPassPatients());
+        assertEquals(100, pressureRuns.size());
+        assertEquals(Arrays.asList(7), saturationRuns);
+    }
+
+    @Test
+    void testFailingPeriodicPassDoesNotStopLaterPasses() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, 120.0, RecordTypeRegistry.SYSTOLIC_PRESSURE, 1000L);
+        AtomicInteger runs = new AtomicInteger();
+        AlertStrategy failingStrategy = patient -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("broken strategy");
+        };
+        AlertEvaluationScheduler scheduler = new AlertEvaluationScheduler(storage, Arrays.asList(failingStrategy), 2);
+
+        scheduler.start(5, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getFailedPassCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.stop();
+
+        assertTrue(scheduler.getFailedPassCount() >= 3);
+        assertTrue(runs.get() >= 3);
+    }
+
+    private static AlertStrategy countingStrategy(int recordType, List<Integer> runs) {
+        return new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient) {
+            }
+
+            @Override
+            public long getWindow() {
+                return 86400000;
+            }
+
+            @Override
+            public int[] getRecordTypes() {
+                return new int[] { recordType };
+            }
+
+            @Override
+            public RecordScan startScan(Patient patient, long currentTime) {
+                runs.add(patient.getPatientId());
+                return AlertStrategy.super.startScan(patient, currentTime);
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.alerts.history.AlertHistory;
+import com.alerts.suppression.AlertSuppressor;
+import com.data_management.DataStorage;
+
+class AlertHistoryTest {
+
+    @Test
+    void testNonNumericPatientIdsHaveTheirOwnHistory() {
+        AlertHistory history = new AlertHistory(86400000);
+        history.append(new Alert("P-12", "Low Saturation Alert", 1000));
+        history.append(new Alert("P-13", "Low Saturation Alert", 2000));
+        history.append(new Alert("P-13", "Abnormal Heart Rate Alert", 3000));
+        history.append(new Alert("007", "Low Saturation Alert", 4000));
+        history.append(new Alert(7, AlertCondition.of("Low Saturation Alert"), 5000));
+
+        assertEquals(1, history.countByPatient("P-12", 0, 10000));
+        assertEquals(2, history.countByPatient("P-13", 0, 10000));
+        assertEquals(1, history.count("P-13", "Low Saturation Alert", 0, 10000));
+        assertEquals("007", history.getAlertsByPatient("007", 0, 10000).get(0).getPatientId());
+        assertEquals(1, history.countByPatient("7", 0, 10000));
+    }
+
+    @Test
+    void testCountsAndRangesPerPatientAndCondition() {
+        AlertHistory history = new AlertHistory(86400000);
+        for (int i = 0; i < 100; i++) {
+            history.append(new Alert("42", "Low Saturation Alert", i * 1000L));
+            history.append(new Alert("42", "Abnormal Heart Rate Alert", i * 1000L + 500));
+            history.append(new Alert("7", "Low Saturation Alert", i * 1000L));
+        }
+        history.append(new Alert("42", "Low Saturation Alert", 2500)); // late arrival
+
+        assertEquals(301, history.size());
+        assertEquals(11, history.count("42", "Low Saturation Alert", 0, 9999));
+        assertEquals(21, history.countByPatient("42", 0, 9999));
+        assertEquals(21, history.countByCondition("Low Saturation Alert", 0, 9999));
+        assertEquals(0, history.count("99", "Low Saturation Alert", 0, Long.MAX_VALUE));
+
+        List<Alert> alerts = history.getAlerts("42", "Low Saturation Alert", 2000, 3000);
+        assertEquals(3, alerts.size());
+        assertEquals(2500, alerts.get(1).getTimestamp());
+        assertEquals(2, history.getAlertsByPatient("7", 98000, 200000).size());
+        assertEquals(3, history.getAlertsByCondition("Abnormal Heart Rate Alert", 0, 2999).size());
+    }
+
+    @Test
+    void testQueriesForUnknownConditionsDoNotRegisterThem() {
+        AlertHistory history = new AlertHistory(86400000);
+        history.append(new Alert("42", "Low Saturation Alert", 1000));
+        int registered = AlertCondition.size();
+
+        assertEquals(0, history.count("42", "Low Saturaton Alert", 0, Long.MAX_VALUE));
+        assertEquals(0, history.countByCondition("Unknown Condition", 0, Long.MAX_VALUE));
+        assertTrue(history.getAlerts("42", "Unknown Condition", 0, Long.MAX_VALUE).isEmpty());
+        assertTrue(history.getAlertsByCondition("Unknown Condition", 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(registered, AlertCondition.size());
+        assertNull(AlertCondition.lookup("Unknown Condition"));
+    }
+
+    @Test
+    void testRetentionBoundsMemory() {
+        AlertHistory history = new AlertHistory(60000);
+        for (long t = 0; t < 3600000; t += 1000) {
+            history.append(new Alert(Long.toString(t / 600000), "Low Saturation Alert", t));
+        }
+
+        assertTrue(history.size() <= 61 + 15);
+        assertEquals(0, history.countByPatient("0", 0, Long.MAX_VALUE));
+        assertEquals(61, history.countByCondition("Low Saturation Alert", 3599000 - 60000, 3599000));
+
+        history.append(new Alert("1", "Low Saturation Alert", 0)); // already expired
+        assertEquals(0, history.countByPatient("1", 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testGeneratorRecordsDeliveredAlertsOnly() {
+        AlertGenerator alertGenerator = new AlertGenerator(new DataStorage());
+        AlertHistory history = new AlertHistory(86400000);
+        alertGenerator.setHistory(history);
+        alertGenerator.setSuppressor(new AlertSuppressor(60000, 0));
+
+        for (long t = 0; t < 10; t++) {
+            alertGenerator.triggerAlert(new Alert("3", "Critical Pressure Threshold Alert", t * 1000));
+        }
+
+        assertEquals(1, history.count("3", "Critical Pressure Threshold Alert", 0, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,102 @@
+package data_management;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.AlertGenerator;
+import com.alerts.strategy.AlertStrategy;
+import com.alerts.strategy.AlertStrategyExecutor;
+import com.alerts.strategy.BloodPressureStrategy;
+import com.alerts.strategy.RecordScan;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.RecordTypeRegistry;
+
+class AlertStrategyExecutorTest {
+
+    private static final long NOW = 1714376789050L;
+
+    // Records the timestamps it is fed, within its own window and record types
+    private static class RecordingStrategy implements AlertStrategy {
+        private final long window;
+        private final int[] recordTypes;
+        private final List<Long> seen = new ArrayList<>();
+
+        RecordingStrategy(long window, int... recordTypes) {
+            this.window = window;
+            this.recordTypes = recordTypes;
+        }
+
+        @Override
+        public void checkAlert(Patient patient) {
+        }
+
+        @Override
+        public long getWindow() {
+            return window;
+        }
+
+        @Override
+        public int[] getRecordTypes() {
+            return recordTypes;
+        }
+
+        @Override
+        public RecordScan startScan(Patient patient, long currentTime) {
+            return new RecordScan() {
+                @Override
+                public void accept(int recordType, long timestamp, double measurementValue) {
+                    seen.add(timestamp);
+                }
+
+                @Override
+                public void finish() {
+                }
+            };
+        }
+    }
+
+    @Test
+    void testReadingsAreMergedInOrderAndFilteredByWindow() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, 0.1, "ECG", NOW - 3000000);
+        storage.addPatientData(1, 97, "Saturation", NOW - 500000);
+        storage.addPatientData(1, 0.2, "ECG", NOW - 400000);
+        storage.addPatientData(1, 96, "Saturation", NOW - 1000);
+        storage.addPatientData(1, 120, "SystolicPressure", NOW - 2000);
+        Patient patient = storage.getAllPatients().get(0);
+
+        RecordingStrategy hourOfEcg = new RecordingStrategy(3600000, RecordTypeRegistry.ECG);
+        RecordingStrategy tenMinutes = new RecordingStrategy(600000, RecordTypeRegistry.ECG, RecordTypeRegistry.SATURATION);
+        new AlertStrategyExecutor(Arrays.asList(hourOfEcg, tenMinutes)).evaluate(patient, NOW);
+
+        assertEquals(Arrays.asList(NOW - 3000000, NOW - 400000), hourOfEcg.seen);
+        assertEquals(Arrays.asList(NOW - 500000, NOW - 400000, NOW - 1000), tenMinutes.seen);
+    }
+
+    @Test
+    void testBloodPressureStrategyInSharedScan() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            DataStorage storage = new DataStorage();
+            long now = System.currentTimeMillis();
+            storage.addPatientData(1, 110, "SystolicPressure", now - 3000);
+            storage.addPatientData(1, 125, "SystolicPressure", now - 2000);
+            storage.addPatientData(1, 140, "SystolicPressure", now - 1000);
+
+            new BloodPressureStrategy(new AlertGenerator(storage)).checkAlert(storage.getAllPatients().get(0));
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertTrue(outContent.toString().contains("Systolic Pressure Increasing"));
+    }
+}
@@ -0,0 +1,174 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.alerts.dispatch.AlertSink;
+import com.alerts.decorator.RepeatedAlertDecorator;
+import com.alerts.suppression.AlertSuppressor;
+import com.alerts.suppression.HashedTimingWheel;
+import com.data_management.DataStorage;
+
+class AlertSuppressorTest {
+
+    @Test
+    void testDuplicatesWithinHoldOffAreSuppressed() {
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 0);
+        List<Alert> repeats = new ArrayList<>();
+
+        assertTrue(suppressor.admit(new Alert("1", "Low Saturation Alert", 0), repeats::add));
+        assertFalse(suppressor.admit(new Alert("1", "Low Saturation Alert", 30000), repeats::add));
+        assertFalse(suppressor.admit(new Alert("1", "Low Saturation Alert", 10000), repeats::add));
+        assertTrue(suppressor.admit(new Alert("2", "Low Saturation Alert", 30000), repeats::add));
+        assertTrue(suppressor.admit(new Alert("1", "Abnormal Heart Rate Alert", 30000), repeats::add));
+
+        assertEquals(2, suppressor.getSuppressedCount());
+        assertEquals(3, suppressor.getActiveCount());
+        assertTrue(repeats.isEmpty());
+    }
+
+    @Test
+    void testEpisodeResolvesAfterQuietPeriod() {
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 0);
+        assertTrue(suppressor.admit(new Alert("1", "Low Saturation Alert", 0), a -> { }));
+
+        suppressor.advance(120000, a -> { });
+        assertEquals(0, suppressor.getActiveCount());
+        assertTrue(suppressor.admit(new Alert("1", "Low Saturation Alert", 130000), a -> { }));
+    }
+
+    @Test
+    void testPersistingConditionIsRenotified() {
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 300000);
+        List<Alert> repeats = new ArrayList<>();
+
+        assertTrue(suppressor.admit(new Alert("1", "Low Saturation Alert", 0), repeats::add));
+        for (long t = 30000; t <= 630000; t += 30000) {
+            assertFalse(suppressor.admit(new Alert("1", "Low Saturation Alert", t), repeats::add));
+        }
+
+        assertEquals(2, repeats.size());
+        assertEquals("Low Saturation Alert", repeats.get(0).getCondition());
+        assertEquals(300000, repeats.get(0).getTimestamp());
+        assertEquals(1, suppressor.getActiveCount());
+    }
+
+    @Test
+    void testRepeatedPassesOverStoredReadingsDeliverEachAlertOnce() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, 190, "SystolicPressure", 0);
+        storage.addPatientData(1, 195, "SystolicPressure", 7200000); // two hours later, a new episode
+        List<Alert> delivered = new ArrayList<>();
+        long[] now = { 0 };
+        AlertGenerator generator = new AlertGenerator(storage) {
+            @Override
+            public void deliverAlert(Alert alert) {
+                delivered.add(alert);
+            }
+        };
+        generator.setClock(() -> now[0]);
+        generator.setSuppressor(new AlertSuppressor(60000, 0));
+
+        for (now[0] = 7200000; now[0] <= 86400000; now[0] += 1800000) { // a pass every half hour
+            generator.evaluateData(storage.getPatient(1));
+            generator.deliverRepeats(now[0]);
+        }
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, delivered.get(0).getTimestamp());
+        assertEquals(7200000, delivered.get(1).getTimestamp());
+    }
+
+    @Test
+    void testNonNumericPatientIdsAreKeptApart() {
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 0);
+
+        assertTrue(suppressor.admit(new Alert("P-12", "Low Saturation Alert", 0), a -> { }));
+        assertTrue(suppressor.admit(new Alert("P-13", "Low Saturation Alert", 0), a -> { }));
+        assertTrue(suppressor.admit(new Alert("007", "Low Saturation Alert", 0), a -> { }));
+        assertTrue(suppressor.admit(new Alert("7", "Low Saturation Alert", 0), a -> { }));
+        assertFalse(suppressor.admit(new Alert(7, AlertCondition.of("Low Saturation Alert"), 1000), a -> { }));
+        assertFalse(suppressor.admit(new Alert("P-12", "Low Saturation Alert", 1000), a -> { }));
+
+        assertEquals(4, suppressor.getActiveCount());
+        List<Alert> repeats = new ArrayList<>();
+        AlertSuppressor repeating = new AlertSuppressor(60000, 120000);
+        for (long t = 0; t <= 150000; t += 30000) {
+            repeating.admit(new Alert("P-12", "Low Saturation Alert", t), repeats::add);
+            repeating.admit(new Alert("007", "Low Saturation Alert", t), repeats::add);
+        }
+        assertEquals(2, repeats.size());
+        assertEquals("P-12", repeats.get(0).getPatientId());
+        assertEquals("007", repeats.get(1).getPatientId());
+        StringBuilder line = new StringBuilder();
+        AlertSink.format(new Alert("007", "Low Saturation Alert", 0), line);
+        assertTrue(line.toString().startsWith("Alert triggered for patient: 007,"), line.toString());
+    }
+
+    @Test
+    void testRepeatedAlertDecoratorTriggersOncePerEpisode() {
+        List<Alert> delivered = new ArrayList<>();
+        AlertGenerator generator = new AlertGenerator(new DataStorage()) {
+            @Override
+            public void deliverAlert(Alert alert) {
+                delivered.add(alert);
+            }
+        };
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 120000);
+
+        for (long t = 0; t <= 150000; t += 10000) {
+            new RepeatedAlertDecorator(generator, new Alert("7", "Irregular Beat Alert", t), suppressor).triggerAlert();
+        }
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, delivered.get(0).getTimestamp());
+        assertEquals(120000, delivered.get(1).getTimestamp());
+    }
+
+    @Test
+    void testRepeatedAlertDecoratorBypassesGeneratorSuppressor() {
+        List<Alert> delivered = new ArrayList<>();
+        AlertGenerator generator = new AlertGenerator(new DataStorage()) {
+            @Override
+            public void deliverAlert(Alert alert) {
+                delivered.add(alert);
+            }
+        };
+        generator.setSuppressor(new AlertSuppressor(600000, 0));
+        AlertSuppressor suppressor = new AlertSuppressor(60000, 120000);
+
+        for (long t = 0; t <= 270000; t += 10000) {
+            new RepeatedAlertDecorator(generator, new Alert("7", "Irregular Beat Alert", t), suppressor).triggerAlert();
+        }
+
+        assertEquals(3, delivered.size());
+        assertEquals(120000, delivered.get(1).getTimestamp());
+        assertEquals(240000, delivered.get(2).getTimestamp());
+    }
+
+    @Test
+    void testTimingWheelHandlesManyTimersAndLongJumps() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 64);
+        for (long deadline = 0; deadline < 50000; deadline += 5) {
+            wheel.schedule(deadline, deadline);
+        }
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(1000, expired::add);
+        assertEquals(201, expired.size());
+        assertTrue(expired.stream().allMatch(d -> d <= 1000));
+
+        wheel.advance(1000000, expired::add);
+        assertEquals(10000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+}
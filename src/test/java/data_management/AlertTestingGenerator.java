@@ -4,6 +4,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -38,6 +39,14 @@ class AlertTestingGenerator {
         System.setOut(originalOut);
     }
 
+    // Answers typed record queries from the given records, like the storage index would
+    private void mockRecords(List<PatientRecord> records) {
+        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
+            .thenAnswer(invocation -> records.stream()
+                .filter(r -> r.getRecordTypeCode() == (int) invocation.getArgument(1))
+                .collect(Collectors.toList()));
+    }
+
     @Test
     void testEvaluateSystolicPressureCriticalAlert() {
         // Create a patient
@@ -52,8 +61,7 @@ class AlertTestingGenerator {
         );
     
         // Mock the data storage to return the systolic record
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(systolicRecord);
+        mockRecords(systolicRecord);
     
         // Invoke the method under test
         alertGenerator.evaluateData(patient);
@@ -80,8 +88,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
     );
 
     // Mock the data storage to return the diastolic record
-    Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-        .thenReturn(diastolicRecord);
+    mockRecords(diastolicRecord);
 
     // Invoke the method under test
     alertGenerator.evaluateData(patient);
@@ -101,8 +108,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
         List<PatientRecord> saturationRecord = Arrays.asList(
             new PatientRecord(1, 85, "Saturation", currentTime)  
         );
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(saturationRecord);
+        mockRecords(saturationRecord);
         alertGenerator.evaluateData(patient);
         String output = outContent.toString();
         assertTrue(output.contains("Low Saturation Alert"), 
@@ -118,8 +124,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
             new PatientRecord(1, 94, "Saturation", currentTime)
         );
 
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(saturationRecords);
+        mockRecords(saturationRecords);
 
         alertGenerator.evaluateData(patient);
 
@@ -133,11 +138,10 @@ void testEvaluateDiastolicPressureCriticalAlert() {
     void testEvaluateECGAbnormalHeartRateAlert() {
         Patient patient = new Patient(1);
         List<PatientRecord> ecgRecord = Arrays.asList(
-            new PatientRecord(1, 40, "ECG", currentTime)  
+            new PatientRecord(1, 40, "HeartRate", currentTime)  
         );
 
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(ecgRecord);
+        mockRecords(ecgRecord);
 
         alertGenerator.evaluateData(patient);
 
@@ -150,12 +154,12 @@ void testEvaluateDiastolicPressureCriticalAlert() {
     void testEvaluateECGIrregularBeatAlert() {
         Patient patient = new Patient(1);
         List<PatientRecord> ecgRecord = Arrays.asList(
-            new PatientRecord(1, 90, "ECG", currentTime - 1000),
-            new PatientRecord(1, 80, "ECG", currentTime)  
+            new PatientRecord(1, 800, "RRInterval", currentTime - 2000),
+            new PatientRecord(1, 810, "RRInterval", currentTime - 1190),
+            new PatientRecord(1, 1200, "RRInterval", currentTime)  
         );
 
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(ecgRecord);
+        mockRecords(ecgRecord);
 
         alertGenerator.evaluateData(patient);
 
@@ -171,8 +175,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
             new PatientRecord(patientId, 89, "SystolicPressure", currentTime),
             new PatientRecord(patientId, 91, "Saturation", currentTime)
         );
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(records);
+        mockRecords(records);
 
         alertGenerator.evaluateData(new Patient(patientId));
         assertTrue(outContent.toString().contains("Hypotensive Hypoxemia Alert"));
@@ -187,8 +190,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
             new PatientRecord(1, 130, "SystolicPressure", currentTime)
         );
 
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(records);
+        mockRecords(records);
 
         alertGenerator.evaluateData(patient);
 
@@ -204,8 +206,7 @@ void testEvaluateDiastolicPressureCriticalAlert() {
             new PatientRecord(1, 120, "SystolicPressure", currentTime)   
         );
 
-        Mockito.when(mockDataStorage.getRecords(Mockito.anyInt(), Mockito.anyLong(), Mockito.anyLong()))
-            .thenReturn(systolicRecords);
+        mockRecords(systolicRecords);
         alertGenerator.evaluateData(patient);
 
         String output = outContent.toString();
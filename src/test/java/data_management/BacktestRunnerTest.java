@@ -0,0 +1,93 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.alerts.backtest.BacktestReport;
+import com.alerts.backtest.BacktestRunner;
+import com.alerts.backtest.RuleStatistics;
+import com.alerts.strategy.BloodPressureStrategy;
+import com.alerts.strategy.OxygenSaturationStrategy;
+import com.data_management.DataReader;
+import com.data_management.RecordTypeRegistry;
+
+class BacktestRunnerTest {
+    private static final long START = 1577836800000L; // 2020-01-01
+
+    /**
+     * Two hours of recordings for three patients: saturation every second and
+     * systolic pressure every minute. Patient 3 desaturates in the second hour.
+     */
+    private static final DataReader RECORDING = (storage, server) -> {
+        for (long t = 0; t < 7200000; t += 1000) {
+            for (int patientId = 1; patientId <= 3; patientId++) {
+                double saturation = patientId == 3 && t >= 3600000 ? 89 : 97;
+                storage.addPatientData(patientId, saturation, RecordTypeRegistry.SATURATION, START + t);
+                if (t % 60000 == 0) {
+                    storage.addPatientData(patientId, 120, RecordTypeRegistry.SYSTOLIC_PRESSURE, START + t);
+                }
+            }
+        }
+    };
+
+    @Test
+    void testReportCountsReadingsPassesAndAlertsPerRule() throws IOException {
+        BacktestReport report = run(600000);
+
+        assertEquals(3 * 7200 + 3 * 120, report.getReadingCount());
+        assertEquals(7199000, report.getEventTimeSpan());
+        assertEquals(12, report.getEvaluationPasses());
+        assertTrue(report.getReadingsPerSecond() > 0);
+
+        Map<String, RuleStatistics> rules = rulesByName(report);
+        // Patient 3 stays desaturated for the whole second hour: one episode each
+        assertEquals(1, rules.get("Low Saturation Alert").getAlertCount());
+        assertEquals(1, rules.get("Rapid Drop In BloodOxygen").getAlertCount());
+        assertEquals(0, rules.get("BloodPressureStrategy").getAlertCount());
+        assertEquals(1, rules.get("OxygenSaturationStrategy").getAlertCount());
+        assertTrue(rules.get("Low Saturation Alert").getCpuNanos() > 0);
+        assertEquals(report.getAlertCount(),
+                report.getAlertsByCondition().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testAlertCountsDoNotDependOnTheEvaluationInterval() throws IOException {
+        Map<String, RuleStatistics> often = rulesByName(run(60000));
+        Map<String, RuleStatistics> rarely = rulesByName(run(1800000));
+
+        for (String name : often.keySet()) {
+            assertEquals(often.get(name).getAlertCount(), rarely.get(name).getAlertCount(), name);
+        }
+        assertEquals(1, rarely.get("OxygenSaturationStrategy").getAlertCount());
+    }
+
+    @Test
+    void testGeneratorRulesAreEvaluatedInEventTime() throws IOException {
+        BacktestRunner runner = new BacktestRunner(3600000);
+        runner.setGeneratorRules(true);
+
+        BacktestReport report = runner.run(RECORDING);
+
+        assertEquals(1, report.getRules().size());
+        assertTrue(report.getAlertsByCondition().get("Low Saturation Alert") > 0);
+    }
+
+    private static BacktestReport run(long evaluationInterval) throws IOException {
+        BacktestRunner runner = new BacktestRunner(evaluationInterval);
+        runner.addDefaultRules();
+        runner.addStrategy(BloodPressureStrategy::new);
+        runner.addStrategy(OxygenSaturationStrategy::new);
+        return runner.run(RECORDING);
+    }
+
+    private static Map<String, RuleStatistics> rulesByName(BacktestReport report) {
+        return report.getRules().stream()
+                .collect(Collectors.toMap(RuleStatistics::getName, rule -> rule));
+    }
+}
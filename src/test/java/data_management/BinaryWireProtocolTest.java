@@ -0,0 +1,123 @@
+package data_management;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.TcpOutputStrategy;
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.data_management.DataStorage;
+import com.data_management.TcpDataReader;
+import com.data_management.TheWebSocketClient;
+
+class BinaryWireProtocolTest {
+
+    private PrintStream originalOut;
+    private ByteArrayOutputStream outContent;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+        outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent, true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testTcpNegotiatesBinaryFormat() throws Exception {
+        TcpOutputStrategy output = new TcpOutputStrategy(0);
+        DataStorage storage = new DataStorage();
+        try (TcpDataReader reader = new TcpDataReader(new InetSocketAddress("localhost", output.getPort()))) {
+            reader.readData(storage, null);
+            awaitConnection(output, storage);
+            assertTrue(outContent.toString().contains("(binary)"));
+
+            sendSamples(output);
+            awaitSamples(storage);
+        }
+    }
+
+    @Test
+    void testTcpFallsBackToText() throws Exception {
+        TcpOutputStrategy output = new TcpOutputStrategy(0);
+        DataStorage storage = new DataStorage();
+        try (TcpDataReader reader = new TcpDataReader(new InetSocketAddress("localhost", output.getPort()))) {
+            reader.setBinaryRequested(false);
+            reader.readData(storage, null);
+            awaitConnection(output, storage);
+            assertFalse(outContent.toString().contains("(binary)"));
+
+            sendSamples(output);
+            awaitSamples(storage);
+        }
+    }
+
+    @Test
+    void testWebSocketNegotiatesBinaryFormat() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(port);
+        DataStorage storage = new DataStorage();
+        TheWebSocketClient client = new TheWebSocketClient(new URI("ws://localhost:" + port), storage);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!client.connectBlocking() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50); // the server starts asynchronously
+            client = new TheWebSocketClient(new URI("ws://localhost:" + port), storage);
+        }
+        client.setLogMessages(true);
+        try {
+            awaitConnection(output, storage);
+            sendSamples(output);
+            awaitSamples(storage);
+            assertTrue(outContent.toString().contains("readings"));
+        } finally {
+            client.closeBlocking();
+        }
+    }
+
+    /** Sends readings until the first one arrives, since the connection is set up asynchronously. */
+    private static void awaitConnection(OutputStrategy output, DataStorage storage) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        long timestamp = 0;
+        while (storage.getRecords(9, "ECG", 0, Long.MAX_VALUE).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            output.output(9, timestamp++, "ECG", 0.5);
+            Thread.sleep(20);
+        }
+        assertFalse(storage.getRecords(9, "ECG", 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    private static void sendSamples(OutputStrategy output) {
+        output.output(1, 1000L, "Saturation", "97.0%");
+        output.output(1, 1000L, "Alert", "triggered");
+        output.output(1, 2000L, "SystolicPressure", 121);
+        output.output(1, 3000L, "ECG", -0.22423456666854234);
+    }
+
+    private static void awaitSamples(DataStorage storage) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (storage.getRecords(1, 0, Long.MAX_VALUE).size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(97.0, storage.getRecords(1, "Saturation", 0, 5000).get(0).getMeasurementValue());
+        assertEquals(1.0, storage.getRecords(1, "Alert", 0, 5000).get(0).getMeasurementValue());
+        assertEquals(121.0, storage.getRecords(1, "SystolicPressure", 0, 5000).get(0).getMeasurementValue());
+        assertEquals(-0.22423456666854234, storage.getRecords(1, "ECG", 0, 5000).get(0).getMeasurementValue());
+    }
+}
@@ -1,14 +1,17 @@
 package data_management;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.Test;
 
 import com.data_management.DataReader;
 import com.data_management.DataStorage;
 import com.data_management.FileDataReader;
 import com.data_management.PatientRecord;
+import com.data_management.RecordTypeRegistry;
 
 class DataStorageTest {
 
@@ -27,4 +30,69 @@ class DataStorageTest {
         assertEquals(100.0, records.get(0).getMeasurementValue()); /// Check the last patient id 
     }
 
+    @Test
+    void testRecordsAreReturnedInTimeOrder() {
+        DataStorage storage = new DataStorage();
+
+        storage.addPatientData(1, 120.0, "SystolicPressure", 1714376789060L);
+        storage.addPatientData(1, 95.0, "Saturation", 1714376789055L);
+        storage.addPatientData(1, 118.0, "SystolicPressure", 1714376789050L); // arrives late
+
+        List<PatientRecord> records = storage.getRecords(1, 1714376789050L, 1714376789059L);
+        assertEquals(2, records.size());
+        assertEquals(118.0, records.get(0).getMeasurementValue());
+        assertEquals("Saturation", records.get(1).getRecordType());
+    }
+
+    @Test
+    void testConcurrentWritersDoNotLoseRecords() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        List<Thread> writers = new ArrayList<>();
+
+        for (int w = 0; w < 4; w++) {
+            final int patientId = w % 2; // two writers per patient
+            final long offset = w * 1000000L;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    storage.addPatientData(patientId, i, "ECG", offset + i);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(2, storage.getAllPatients().size());
+        assertEquals(10000, storage.getRecords(0, 0, Long.MAX_VALUE).size());
+        assertEquals(10000, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testGetRecordsByType() {
+        DataStorage storage = new DataStorage();
+
+        storage.addPatientData(1, 0.4, "ECG", 1714376789050L);
+        storage.addPatientData(1, 97.0, "Saturation", 1714376789051L);
+        storage.addPatientData(1, 96.0, "Saturation", 1714376789052L);
+
+        List<PatientRecord> records = storage.getRecords(1, "Saturation", 1714376789050L, 1714376789052L);
+        assertEquals(2, records.size());
+        assertEquals(97.0, records.get(0).getMeasurementValue());
+        assertEquals(0, storage.getRecords(1, "SystolicPressure", 0, Long.MAX_VALUE).size());
+        assertEquals(0, storage.getRecords(2, "ECG", 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testBlankRecordTypeLabelsAreRejected() {
+        DataStorage storage = new DataStorage();
+        int registered = RecordTypeRegistry.size();
+
+        assertThrows(IllegalArgumentException.class, () -> RecordTypeRegistry.codeOf(null));
+        assertThrows(IllegalArgumentException.class, () -> storage.addPatientData(1, 1.0, " ", 1000L));
+        assertEquals(registered, RecordTypeRegistry.size());
+        assertEquals(-1, RecordTypeRegistry.lookup(null));
+    }
+
 }
@@ -0,0 +1,88 @@
+package data_management;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.data_management.DataStorage;
+import com.data_management.DirectoryDataReader;
+
+class DirectoryDataReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsExistingFilesAndFollowsNewLines() throws Exception {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString());
+        output.output(1, 1000L, "Saturation", "97.0%");
+        output.output(1, 1000L, "ECG", "0.4195792766569562");
+        output.output(2, 1500L, "Alert", "triggered");
+
+        DataStorage storage = new DataStorage();
+        try (DirectoryDataReader reader = new DirectoryDataReader(directory.toString(), 2)) {
+            reader.readData(storage, null);
+            assertEquals(97.0, storage.getRecords(1, "Saturation", 0, 5000).get(0).getMeasurementValue());
+            assertEquals(0.4195792766569562, storage.getRecords(1, "ECG", 0, 5000).get(0).getMeasurementValue());
+            assertEquals(1.0, storage.getRecords(2, "Alert", 0, 5000).get(0).getMeasurementValue());
+
+            output.output(1, 2000L, "Saturation", "95.0%");
+            output.output(3, 2000L, "Cholesterol", "180.5");
+            awaitRecords(storage, 1, "Saturation", 2);
+            awaitRecords(storage, 3, "Cholesterol", 1);
+        }
+    }
+
+    @Test
+    void testWaitsForLinesToBeCompleted() throws Exception {
+        Path file = directory.resolve("ECG.txt");
+        Files.writeString(file, "Patient ID: 1, Timestamp: 1000, Label: ECG, Data: 0.5\n"
+                + "Patient ID: 1, Timestamp: 2000, Lab");
+
+        DataStorage storage = new DataStorage();
+        try (DirectoryDataReader reader = new DirectoryDataReader(directory.toString())) {
+            reader.readData(storage, null);
+            assertEquals(1, storage.getRecords(1, "ECG", 0, 5000).size());
+
+            Files.writeString(file, "el: ECG, Data: 0.75\nnot a reading\n", StandardOpenOption.APPEND);
+            awaitRecords(storage, 1, "ECG", 2);
+            Thread.sleep(3 * DirectoryDataReader.RESCAN_INTERVAL); // nothing is read twice
+            assertEquals(2, storage.getRecords(1, "ECG", 0, 5000).size());
+            assertEquals(0.75, storage.getRecords(1, "ECG", 0, 5000).get(1).getMeasurementValue());
+        }
+    }
+
+    @Test
+    void testUnreadableFileDoesNotStopOtherFiles() throws Exception {
+        Path file = directory.resolve("ECG.txt");
+        Files.writeString(file, "Patient ID: 1, Timestamp: 1000, Label: ECG, Data: 0.5\n");
+
+        DataStorage storage = new DataStorage();
+        try (DirectoryDataReader reader = new DirectoryDataReader(directory.toString())) {
+            reader.readData(storage, null);
+            Files.createDirectory(directory.resolve("broken.txt")); // matches, but cannot be read as a file
+
+            Files.writeString(file, "Patient ID: 1, Timestamp: 2000, Label: ECG, Data: 0.6\n", StandardOpenOption.APPEND);
+            awaitRecords(storage, 1, "ECG", 2);
+            Thread.sleep(3 * DirectoryDataReader.RESCAN_INTERVAL); // rescans meet the broken file too
+            Files.writeString(file, "Patient ID: 1, Timestamp: 3000, Label: ECG, Data: 0.7\n", StandardOpenOption.APPEND);
+            awaitRecords(storage, 1, "ECG", 3);
+        }
+    }
+
+    private static void awaitRecords(DataStorage storage, int patientId, String recordType, int count)
+            throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (storage.getRecords(patientId, recordType, 0, Long.MAX_VALUE).size() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, storage.getRecords(patientId, recordType, 0, Long.MAX_VALUE).size());
+    }
+}
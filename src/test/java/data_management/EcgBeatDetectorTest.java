@@ -0,0 +1,84 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.data_management.DataStorage;
+import com.data_management.EcgBeatDetector;
+import com.data_management.PatientRecord;
+
+class EcgBeatDetectorTest {
+    private static final long SAMPLE_INTERVAL = 4; // 250 Hz
+
+    @Test
+    void testRegularRhythmYieldsHeartRate() {
+        DataStorage storage = new DataStorage();
+        EcgBeatDetector.attachTo(storage);
+        addWaveform(storage, 1, 0, 30000, new long[] { 800 });
+
+        List<PatientRecord> heartRates = storage.getRecords(1, "HeartRate", 0, Long.MAX_VALUE);
+        assertTrue(heartRates.size() >= 30, "beats detected: " + heartRates.size());
+        for (PatientRecord record : heartRates) {
+            assertEquals(75, record.getMeasurementValue(), 2);
+        }
+        for (PatientRecord record : storage.getRecords(1, "RRInterval", 0, Long.MAX_VALUE)) {
+            assertEquals(800, record.getMeasurementValue(), 20);
+        }
+        List<PatientRecord> rmssd = storage.getRecords(1, "HrvRmssd", 0, Long.MAX_VALUE);
+        assertFalse(rmssd.isEmpty());
+        assertTrue(rmssd.get(rmssd.size() - 1).getMeasurementValue() < 20);
+    }
+
+    @Test
+    void testAlternatingRhythmRaisesVariability() {
+        DataStorage storage = new DataStorage();
+        EcgBeatDetector.attachTo(storage);
+        addWaveform(storage, 2, 0, 30000, new long[] { 600, 1000 });
+
+        List<PatientRecord> sdnn = storage.getRecords(2, "HrvSdnn", 0, Long.MAX_VALUE);
+        assertFalse(sdnn.isEmpty());
+        assertEquals(200, sdnn.get(sdnn.size() - 1).getMeasurementValue(), 20);
+        List<PatientRecord> rmssd = storage.getRecords(2, "HrvRmssd", 0, Long.MAX_VALUE);
+        assertEquals(400, rmssd.get(rmssd.size() - 1).getMeasurementValue(), 40);
+    }
+
+    @Test
+    void testOtherRecordTypesAreIgnored() {
+        DataStorage storage = new DataStorage();
+        EcgBeatDetector.attachTo(storage);
+        for (long t = 0; t < 10000; t += SAMPLE_INTERVAL) {
+            storage.addPatientData(3, t % 800 == 0 ? 2.0 : 0.0, "Saturation", t);
+        }
+        assertTrue(storage.getRecords(3, "HeartRate", 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    /**
+     * Adds a baseline-wandering, noisy waveform with a sharp R wave at the end
+     * of every RR interval, cycling through the given intervals.
+     */
+    private static void addWaveform(DataStorage storage, int patientId, long from, long to, long[] rrIntervals) {
+        Random random = new Random(patientId);
+        long nextBeat = from + rrIntervals[0];
+        int beat = 0;
+        for (long t = from; t < to; t += SAMPLE_INTERVAL) {
+            double value = 0.3 * Math.sin(2 * Math.PI * t / 7000.0) // baseline wander
+                    + 0.05 * Math.sin(2 * Math.PI * t / 300.0) // T and P waves
+                    + 0.02 * random.nextGaussian();
+            long sinceBeat = Math.abs(t - nextBeat);
+            if (sinceBeat <= 12) {
+                value += 1.5 * (1 - sinceBeat / 12.0);
+            }
+            if (t >= nextBeat + 12) {
+                beat++;
+                nextBeat += rrIntervals[beat % rrIntervals.length];
+            }
+            storage.addPatientData(patientId, value, "ECG", t);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alerts.Alert;
+import com.alerts.AlertEvaluationScheduler;
+import com.alerts.AlertGenerator;
+import com.alerts.clock.EventTimeClock;
+import com.alerts.strategy.HeartRateStrategy;
+import com.alerts.strategy.OxygenSaturationStrategy;
+import com.data_management.DataStorage;
+
+class EventTimeClockTest {
+    private static final long RECORDED = 1577836800000L; // 2020-01-01, far outside any wall-clock window
+
+    @Test
+    void testWatermarkTrailsNewestTimestamp() {
+        EventTimeClock clock = new EventTimeClock(5000);
+        assertEquals(0, clock.currentTimeMillis());
+
+        clock.advanceTo(100000);
+        clock.advanceTo(90000); // late reading does not move the clock back
+        assertEquals(95000, clock.currentTimeMillis());
+    }
+
+    @Test
+    void testReplayedDataRaisesAlertsInEventTime() {
+        DataStorage storage = new DataStorage();
+        EventTimeClock clock = new EventTimeClock();
+        storage.addListener(clock);
+        List<Alert> alerts = Collections.synchronizedList(new ArrayList<>());
+        AlertGenerator alertGenerator = new AlertGenerator(storage) {
+            @Override
+            public void triggerAlert(Alert alert) {
+                alerts.add(alert);
+            }
+        };
+        alertGenerator.setClock(clock);
+
+        storage.addPatientData(1, 97.0, "Saturation", RECORDED);
+        storage.addPatientData(1, 90.0, "Saturation", RECORDED + 60000);
+
+        alertGenerator.evaluateData(storage.getAllPatients().get(0));
+        assertTrue(alerts.stream().anyMatch(a -> a.getCondition().equals("Low Saturation Alert")));
+        assertTrue(alerts.stream().anyMatch(a -> a.getCondition().equals("Rapid Drop In BloodOxygen")));
+
+        alerts.clear();
+        new OxygenSaturationStrategy(alertGenerator).checkAlert(storage.getAllPatients().get(0));
+        assertEquals(1, alerts.size());
+    }
+
+    @Test
+    void testSchedulerPassUsesEventTime() {
+        DataStorage storage = new DataStorage();
+        EventTimeClock clock = new EventTimeClock();
+        storage.addListener(clock);
+        List<Alert> alerts = Collections.synchronizedList(new ArrayList<>());
+        AlertGenerator alertGenerator = new AlertGenerator(storage) {
+            @Override
+            public void triggerAlert(Alert alert) {
+                alerts.add(alert);
+            }
+        };
+        for (int patientId = 1; patientId <= 20; patientId++) {
+            storage.addPatientData(patientId, 130.0, "HeartRate", RECORDED + patientId);
+        }
+
+        AlertEvaluationScheduler scheduler = new AlertEvaluationScheduler(storage,
+                Arrays.asList(new HeartRateStrategy(alertGenerator)), 2, clock);
+        scheduler.runPass();
+        scheduler.stop();
+
+        assertEquals(20, alerts.size());
+    }
+}
@@ -0,0 +1,80 @@
+package data_management;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.data_management.DataStorage;
+import com.data_management.FileDataReader;
+import com.data_management.PatientRecord;
+
+class FileDataReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testMappedReaderMatchesLineReader() throws IOException {
+        String[] labels = { "ECG", "Saturation", "SystolicPressure", "DiastolicPressure", "Cholesterol" };
+        Random random = new Random(11);
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            double value;
+            switch (i % 4) {
+                case 0: value = random.nextGaussian(); break; // full precision
+                case 1: value = Math.round(random.nextDouble() * 2000) / 10.0; break;
+                case 2: value = random.nextDouble() * 1e-6; break; // exponent notation
+                default: value = -random.nextInt(500); break;
+            }
+            file.append(random.nextInt(50)).append(',').append(value).append(',')
+                    .append(labels[random.nextInt(labels.length)]).append(',')
+                    .append(1715882374652L + i).append('\n');
+        }
+        Files.writeString(directory.resolve("output.txt"), file);
+
+        DataStorage expected = new DataStorage();
+        new FileDataReader(directory.toString()).readData(expected, null);
+        DataStorage actual = new DataStorage();
+        FileDataReader.mapped(directory.toString(), 4, 4096).readData(actual, null);
+
+        for (int patientId = 0; patientId < 50; patientId++) {
+            List<PatientRecord> want = expected.getRecords(patientId, 0, Long.MAX_VALUE);
+            List<PatientRecord> got = actual.getRecords(patientId, 0, Long.MAX_VALUE);
+            assertEquals(want.size(), got.size());
+            for (int i = 0; i < want.size(); i++) {
+                assertEquals(want.get(i).getTimestamp(), got.get(i).getTimestamp());
+                assertEquals(want.get(i).getRecordType(), got.get(i).getRecordType());
+                assertEquals(want.get(i).getMeasurementValue(), got.get(i).getMeasurementValue());
+            }
+        }
+    }
+
+    @Test
+    void testMappedReaderToleratesLineEndingsAndNewLabels() throws IOException {
+        Files.writeString(directory.resolve("output.txt"),
+                "1,97.5,Saturation,1000\r\n\n2, 120 ,BodyTemperature,2000\n1,96,Saturation,3000");
+
+        DataStorage storage = new DataStorage();
+        FileDataReader.mapped(directory.toString()).readData(storage, null);
+
+        assertEquals(2, storage.getRecords(1, "Saturation", 0, 5000).size());
+        assertEquals(96.0, storage.getRecords(1, "Saturation", 0, 5000).get(1).getMeasurementValue());
+        assertEquals(120.0, storage.getRecords(2, "BodyTemperature", 0, 5000).get(0).getMeasurementValue());
+    }
+
+    @Test
+    void testMappedReaderRejectsMalformedLines() throws IOException {
+        Files.writeString(directory.resolve("output.txt"), "1,97.5,Saturation,1000\n1,high,Saturation,2000\n");
+
+        IOException error = assertThrows(IOException.class,
+                () -> FileDataReader.mapped(directory.toString()).readData(new DataStorage(), null));
+        assertEquals(true, error.getMessage().contains("byte 23"));
+    }
+}
@@ -0,0 +1,177 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.rules.RuleEngine;
+import com.alerts.rules.RuleSet;
+import com.alerts.strategy.BloodPressureStrategy;
+import com.alerts.strategy.HeartRateStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+class RuleEngineTest {
+    private DataStorage storage;
+    private List<Alert> alerts;
+    private AlertGenerator alertGenerator;
+
+    @BeforeEach
+    void setUp() {
+        storage = new DataStorage();
+        alerts = Collections.synchronizedList(new ArrayList<>());
+        alertGenerator = new AlertGenerator(storage) {
+            @Override
+            public void triggerAlert(Alert alert) {
+                alerts.add(alert);
+            }
+        };
+    }
+
+    @Test
+    void testThresholdRuleFiresForEveryMatchingReading() {
+        storage.addListener(new RuleEngine(alertGenerator, RuleSet.parse(
+                "alert \"High\" when SystolicPressure > 180 # critical\n")));
+        storage.addPatientData(1, 190, "SystolicPressure", 1000);
+        storage.addPatientData(1, 120, "SystolicPressure", 2000);
+        storage.addPatientData(1, 185, "SystolicPressure", 3000);
+        storage.addPatientData(1, 200, "DiastolicPressure", 3000);
+
+        assertEquals(2, alerts.size());
+        assertEquals("High", alerts.get(0).getCondition());
+        assertEquals(3000, alerts.get(1).getTimestamp());
+    }
+
+    @Test
+    void testWindowAggregateWithOnceFiresOnTransition() {
+        storage.addListener(new RuleEngine(alertGenerator, RuleSet.parse(
+                "alert once \"Drop\" when max(Saturation, 10m) - Saturation >= 5")));
+        storage.addPatientData(1, 98, "Saturation", 0);
+        storage.addPatientData(1, 92, "Saturation", 60000);
+        storage.addPatientData(1, 91, "Saturation", 120000); // still dropped, no new alert
+        storage.addPatientData(1, 91, "Saturation", 900000); // the 98 left the window
+        storage.addPatientData(1, 85, "Saturation", 960000);
+
+        assertEquals(2, alerts.size());
+        assertEquals(60000, alerts.get(0).getTimestamp());
+        assertEquals(960000, alerts.get(1).getTimestamp());
+    }
+
+    @Test
+    void testCombinatorsAcrossSignals() {
+        storage.addListener(new RuleEngine(alertGenerator, RuleSet.parse(
+                "alert once \"Hypotensive Hypoxemia\"\n"
+                        + "    when last(SystolicPressure, 10m) < 90 and Saturation < 92 and not (SystolicPressure < 70)\n"
+                        + "alert \"Wide\" when (SystolicPressure - DiastolicPressure) > 2 * 30\n"
+                        + "alert \"Noisy\" when count(HeartRate, 1m) >= 3 and stddev(HeartRate, 1m) > 10")));
+        storage.addPatientData(1, 85, "SystolicPressure", 0);
+        storage.addPatientData(1, 90, "Saturation", 1200000); // pressure reading is too old
+        storage.addPatientData(1, 85, "SystolicPressure", 1300000);
+        storage.addPatientData(1, 20, "DiastolicPressure", 1300000);
+        storage.addPatientData(1, 60, "HeartRate", 0);
+        storage.addPatientData(1, 90, "HeartRate", 1000);
+        storage.addPatientData(1, 60, "HeartRate", 2000);
+
+        List<String> conditions = alerts.stream().map(Alert::getCondition).collect(Collectors.toList());
+        assertEquals(List.of("Hypotensive Hypoxemia", "Wide", "Noisy"), conditions);
+    }
+
+    @Test
+    void testSyntaxErrorsReportTheLine() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> RuleSet.parse("alert \"A\" when Saturation < 92\nalert \"B\" when Saturation <"));
+        assertTrue(error.getMessage().startsWith("Line 2:"), error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("alert \"A\" when max(Saturation, 10x) > 1"));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse("alert \"A\" Saturation < 92"));
+    }
+
+    @Test
+    void testDefaultRulesMatchBuiltInThresholds() {
+        RuleSet defaults = RuleSet.loadDefaults();
+        storage.addListener(new RuleEngine(alertGenerator, defaults));
+        storage.addPatientData(1, 185, "SystolicPressure", 1000);
+        storage.addPatientData(1, 50, "DiastolicPressure", 1000);
+        storage.addPatientData(1, 91, "Saturation", 1000);
+        storage.addPatientData(1, 75, "HeartRate", 1000);
+
+        assertEquals(5, defaults.size());
+        assertEquals(3, alerts.size());
+    }
+
+    @Test
+    void testGeneratorAndStrategiesUseTheEngineRules() {
+        storage.addPatientData(1, 110, "HeartRate", 1000);
+        storage.addPatientData(1, 185, "SystolicPressure", 1000);
+        Patient patient = storage.getPatient(1);
+        alertGenerator.setClock(() -> 2000);
+
+        new HeartRateStrategy(alertGenerator).checkAlert(patient);
+        new BloodPressureStrategy(alertGenerator).checkAlert(patient);
+        assertEquals(2, alerts.size());
+
+        new RuleEngine(alertGenerator, RuleSet.parse(
+                "alert \"Abnormal Heart Rate Alert\" when HeartRate < 40 or HeartRate > 120\n"
+                        + "alert \"Critical Pressure Threshold Alert (SystolicPressure)\" when SystolicPressure > 190"));
+        new HeartRateStrategy(alertGenerator).checkAlert(patient);
+        new BloodPressureStrategy(alertGenerator).checkAlert(patient);
+        alertGenerator.evaluateData(patient);
+        assertEquals(2, alerts.size());
+
+        storage.addPatientData(1, 195, "SystolicPressure", 1500);
+        alertGenerator.evaluateData(patient);
+        assertEquals(List.of("Critical Pressure Threshold Alert (SystolicPressure)"),
+                alerts.subList(2, alerts.size()).stream().map(Alert::getCondition).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testWatchedFileIsReloaded(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("alerts.rules");
+        write(file, "alert \"Low\" when Saturation < 92", 1000);
+        RuleEngine engine = new RuleEngine(alertGenerator, RuleSet.load(file));
+        storage.addListener(engine);
+        engine.watch(file, 10);
+
+        storage.addPatientData(1, 91, "Saturation", 1000);
+        assertEquals(1, alerts.size());
+
+        write(file, "alert \"Low\" when Saturation < 90", 2000);
+        waitFor(() -> engine.getReloadCount() == 1);
+        storage.addPatientData(1, 91, "Saturation", 2000);
+        assertEquals(1, alerts.size());
+
+        write(file, "alert \"Low\" when Saturation <", 3000); // broken file keeps the rules in effect
+        waitFor(() -> engine.getFailedReloadCount() == 1);
+        storage.addPatientData(1, 89, "Saturation", 3000);
+        engine.close();
+        assertEquals(2, alerts.size());
+    }
+
+    private static void write(Path file, String rules, long modified) throws IOException {
+        Files.write(file, rules.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,143 @@
+package data_management;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.AlertGenerator;
+import com.alerts.streaming.BaselineDeviationRule;
+import com.alerts.streaming.StreamingAlertEvaluator;
+import com.data_management.DataStorage;
+import com.data_management.QuantileSketch;
+import com.data_management.RecordTypeRegistry;
+import com.data_management.SignalBaseline;
+
+class SignalBaselineTest {
+
+    @Test
+    void testQuantileSketchTracksUniformStream() {
+        QuantileSketch sketch = new QuantileSketch(0.05, 0.5, 0.95);
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add(random.nextDouble() * 100);
+        }
+        assertEquals(100000, sketch.count());
+        assertEquals(5, sketch.quantile(0.05), 1);
+        assertEquals(50, sketch.quantile(0.5), 1);
+        assertEquals(95, sketch.quantile(0.95), 1);
+        assertEquals(25, sketch.quantile(0.25), 2.5); // interpolated between markers
+    }
+
+    @Test
+    void testQuantileSketchIsExactForFewValues() {
+        QuantileSketch sketch = new QuantileSketch(0.5);
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        sketch.add(3);
+        sketch.add(1);
+        sketch.add(2);
+        assertEquals(2, sketch.quantile(0.5));
+        assertEquals(1, sketch.quantile(0));
+        assertEquals(3, sketch.quantile(1));
+    }
+
+    @Test
+    void testBaselineAdaptsToNewLevel() {
+        SignalBaseline baseline = new SignalBaseline(60000); // one minute half-life
+        Random random = new Random(7);
+        long time = 0;
+        for (int i = 0; i < 600; i++, time += 1000) {
+            baseline.add(time, 70 + random.nextGaussian() * 2);
+        }
+        assertEquals(70, baseline.getMean(), 1);
+        assertEquals(2, baseline.getStandardDeviation(), 0.7);
+        assertEquals(70, baseline.quantile(0.5), 0.5);
+
+        for (int i = 0; i < 600; i++, time += 1000) {
+            baseline.add(time, 90 + random.nextGaussian() * 2);
+        }
+        assertEquals(90, baseline.getMean(), 1);
+        assertEquals(1200, baseline.getCount());
+    }
+
+    @Test
+    void testStorageMaintainsBaselinePerPatientAndSignal() {
+        DataStorage storage = new DataStorage();
+        assertNull(storage.getBaseline(1, RecordTypeRegistry.SATURATION));
+        storage.addPatientData(1, 96.0, "Saturation", 1000L);
+        storage.addPatientData(1, 98.0, "Saturation", 2000L);
+        storage.addPatientData(2, 80.0, "HeartRate", 1000L);
+
+        SignalBaseline saturation = storage.getBaseline(1, RecordTypeRegistry.SATURATION);
+        assertNotNull(saturation);
+        assertEquals(2, saturation.getCount());
+        assertEquals(97.0, saturation.getMean(), 1e-9);
+        assertNull(storage.getBaseline(1, RecordTypeRegistry.HEART_RATE));
+        assertEquals(80.0, storage.getBaseline(2, RecordTypeRegistry.HEART_RATE).getMean());
+    }
+
+    @Test
+    void testSpikeAfterGapDeviatesFromBaseline() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            DataStorage storage = new DataStorage();
+            StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(new AlertGenerator(storage));
+            evaluator.addRule(new BaselineDeviationRule(storage, RecordTypeRegistry.HEART_RATE, 3, 20,
+                    "Heart Rate Baseline Deviation"));
+            storage.addListener(evaluator);
+
+            long time = 0;
+            for (int i = 0; i < 30; i++, time += 1800000) { // every half hour
+                storage.addPatientData(1, 60 + (i % 2) * 2, "HeartRate", time);
+            }
+            time += 6 * 3600000; // six quiet hours, then a spike
+            storage.addPatientData(1, 100, "HeartRate", time);
+
+            SignalBaseline heartRate = storage.getBaseline(1, RecordTypeRegistry.HEART_RATE);
+            assertTrue(heartRate.getLatestZScore() > 3);
+            assertEquals(heartRate.getLatestZScore(), heartRate.getLatestZScore(30));
+            assertTrue(Double.isNaN(heartRate.getLatestZScore(31))); // only 30 readings preceded the spike
+            assertTrue(outContent.toString().contains("Heart Rate Baseline Deviation"));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    @Test
+    void testDeviationFromPatientBaselineTriggersOnce() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            DataStorage storage = new DataStorage();
+            StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(new AlertGenerator(storage));
+            evaluator.addRule(new BaselineDeviationRule(storage, RecordTypeRegistry.HEART_RATE, 4, 20,
+                    "Heart Rate Baseline Deviation"));
+            storage.addListener(evaluator);
+
+            long time = 0;
+            for (int i = 0; i < 100; i++, time += 1000) {
+                storage.addPatientData(1, 60 + (i % 5), "HeartRate", time); // 60 is normal for this patient
+                storage.addPatientData(2, 100 + (i % 5), "HeartRate", time); // and 100 for this one
+            }
+            assertFalse(outContent.toString().contains("Baseline Deviation"));
+
+            storage.addPatientData(1, 100, "HeartRate", time);
+            storage.addPatientData(1, 101, "HeartRate", time + 1000);
+            String output = outContent.toString();
+            assertEquals(output.indexOf("Heart Rate Baseline Deviation"),
+                    output.lastIndexOf("Heart Rate Baseline Deviation"));
+            assertTrue(output.contains("Heart Rate Baseline Deviation"));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.window.DeltaRunLength;
+import com.alerts.window.DropFromWindowMax;
+import com.alerts.window.MonotonicWindow;
+import com.alerts.window.WindowedStatistics;
+
+class SlidingWindowTest {
+
+    @Test
+    void testMonotonicWindowExpiresOldExtremes() {
+        MonotonicWindow max = MonotonicWindow.max(1000);
+        MonotonicWindow min = MonotonicWindow.min(1000);
+        double[] values = { 5, 9, 3, 7, 4 };
+        for (int i = 0; i < values.length; i++) {
+            max.add(i * 400L, values[i]);
+            min.add(i * 400L, values[i]);
+        }
+        // Window now covers timestamps 600..1600, i.e. values 3, 7, 4
+        assertEquals(7, max.get());
+        assertEquals(3, min.get());
+
+        max.expire(3000);
+        assertTrue(max.isEmpty());
+    }
+
+    @Test
+    void testWindowedStatistics() {
+        WindowedStatistics stats = new WindowedStatistics(1000);
+        stats.add(0, 100);
+        stats.add(1500, 2);
+        stats.add(2000, 4);
+
+        assertEquals(2, stats.count());
+        assertEquals(3, stats.mean(), 1e-9);
+        assertEquals(1, stats.variance(), 1e-9);
+    }
+
+    @Test
+    void testDeltaRunLengthBreaksOnSmallChangeAndGap() {
+        DeltaRunLength runs = new DeltaRunLength(10, 60000);
+        runs.add(0, 100);
+        runs.add(1000, 111);
+        runs.add(2000, 125);
+        assertEquals(3, runs.risingRun());
+
+        runs.add(3000, 130);
+        assertEquals(1, runs.risingRun());
+
+        runs.add(4000, 119);
+        runs.add(100000, 105); // too long after the previous reading
+        assertEquals(1, runs.fallingRun());
+    }
+
+    @Test
+    void testDropFromWindowMax() {
+        DropFromWindowMax drop = new DropFromWindowMax(600000);
+        drop.add(0, 98);
+        drop.add(60000, 96);
+        drop.add(120000, 93);
+        assertEquals(5, drop.drop(), 1e-9);
+        assertEquals(100.0 * 5 / 98, drop.percentDrop(), 1e-9);
+
+        drop.add(700000, 93); // the peak has left the window
+        assertEquals(0, drop.drop(), 1e-9);
+    }
+}
@@ -0,0 +1,121 @@
+package data_management;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.AlertGenerator;
+import com.alerts.streaming.StreamingAlertEvaluator;
+import com.alerts.streaming.TemporalJoin;
+import com.data_management.DataStorage;
+import com.data_management.RecordTypeRegistry;
+
+class StreamingAlertEvaluatorTest {
+
+    private DataStorage storage;
+    private ByteArrayOutputStream outContent;
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+        outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        storage = new DataStorage();
+        storage.addListener(StreamingAlertEvaluator.withDefaultRules(new AlertGenerator(storage)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testThresholdAlertFiresOnIngest() {
+        storage.addPatientData(1, 200.0, "SystolicPressure", 1000L);
+        assertTrue(outContent.toString().contains("Critical Pressure Threshold Alert (SystolicPressure)"));
+    }
+
+    @Test
+    void testIncreasingTrendNeedsThreeReadings() {
+        storage.addPatientData(1, 110.0, "SystolicPressure", 1000L);
+        storage.addPatientData(1, 121.0, "SystolicPressure", 2000L);
+        assertFalse(outContent.toString().contains("Increasing Trend"));
+
+        storage.addPatientData(1, 132.0, "SystolicPressure", 3000L);
+        assertTrue(outContent.toString().contains("Systolic Increasing Trend"));
+    }
+
+    @Test
+    void testSaturationDropAndHypotensiveHypoxemia() {
+        storage.addPatientData(1, 85.0, "SystolicPressure", 1000L);
+        storage.addPatientData(1, 97.0, "Saturation", 2000L);
+        storage.addPatientData(1, 91.0, "Saturation", 3000L);
+
+        String output = outContent.toString();
+        assertTrue(output.contains("Low Saturation Alert"));
+        assertTrue(output.contains("Rapid Drop In BloodOxygen"));
+        assertTrue(output.contains("Hypotensive Hypoxemia Alert"));
+    }
+
+    @Test
+    void testReadingsOfOtherPatientsAreIndependent() {
+        storage.addPatientData(1, 97.0, "Saturation", 1000L);
+        storage.addPatientData(2, 93.0, "Saturation", 2000L);
+        assertFalse(outContent.toString().contains("Rapid Drop"));
+    }
+
+    @Test
+    void testHypotensiveHypoxemiaNeedsReadingsCloseTogether() {
+        storage.addPatientData(1, 85.0, "SystolicPressure", 0L);
+        storage.addPatientData(1, 91.0, "Saturation", 3600000L); // an hour later
+        assertFalse(outContent.toString().contains("Hypotensive Hypoxemia Alert"));
+
+        storage.addPatientData(1, 86.0, "SystolicPressure", 3660000L);
+        assertTrue(outContent.toString().contains("Hypotensive Hypoxemia Alert"));
+    }
+
+    @Test
+    void testHypotensiveHypoxemiaFiresOncePerEpisode() {
+        storage.addPatientData(1, 85.0, "SystolicPressure", 0L);
+        for (long t = 1000; t <= 300000; t += 1000) {
+            storage.addPatientData(1, 90.0, "Saturation", t); // 1 Hz, low throughout
+        }
+        storage.addPatientData(1, 84.0, "SystolicPressure", 300000L);
+        assertEquals(1, count(outContent.toString(), "Hypotensive Hypoxemia Alert"));
+
+        // A new episode after the join did not complete for longer than the tolerance
+        storage.addPatientData(1, 86.0, "SystolicPressure", 2000000L);
+        storage.addPatientData(1, 90.0, "Saturation", 2001000L);
+        assertEquals(2, count(outContent.toString(), "Hypotensive Hypoxemia Alert"));
+    }
+
+    @Test
+    void testTemporalJoinOfThreeSignals() {
+        TemporalJoin join = new TemporalJoin(60000)
+                .on(RecordTypeRegistry.SYSTOLIC_PRESSURE, value -> value < 90)
+                .on(RecordTypeRegistry.SATURATION, value -> value < 92)
+                .on(RecordTypeRegistry.HEART_RATE, value -> value > 100);
+        long[] state = join.createState();
+
+        assertFalse(join.offer(state, RecordTypeRegistry.SYSTOLIC_PRESSURE, 0, 85));
+        assertFalse(join.offer(state, RecordTypeRegistry.SATURATION, 30000, 90));
+        assertFalse(join.offer(state, RecordTypeRegistry.HEART_RATE, 40000, 80)); // does not match
+        assertTrue(join.offer(state, RecordTypeRegistry.HEART_RATE, 50000, 120));
+        assertFalse(join.offer(state, RecordTypeRegistry.HEART_RATE, 70000, 120)); // pressure is too old now
+    }
+
+    private static int count(String output, String text) {
+        int count = 0;
+        for (int i = output.indexOf(text); i >= 0; i = output.indexOf(text, i + text.length())) {
+            count++;
+        }
+        return count;
+    }
+}
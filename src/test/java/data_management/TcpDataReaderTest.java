@@ -0,0 +1,55 @@
+package data_management;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.data_management.DataStorage;
+import com.data_management.TcpDataReader;
+
+class TcpDataReaderTest {
+
+    @Test
+    void testReadsLinesFromSeveralSimulators() throws Exception {
+        try (ServerSocket first = new ServerSocket(0); ServerSocket second = new ServerSocket(0)) {
+            DataStorage storage = new DataStorage();
+            try (TcpDataReader reader = new TcpDataReader(
+                    new InetSocketAddress("localhost", first.getLocalPort()),
+                    new InetSocketAddress("localhost", second.getLocalPort()))) {
+                reader.readData(storage, null);
+                try (Socket one = first.accept(); Socket two = second.accept()) {
+                    OutputStream out = one.getOutputStream();
+                    out.write("1,1000,Saturation,97.0%\n1,2000,ECG,0.2".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    Thread.sleep(50);
+                    out.write("5\nnot a reading\n".getBytes(StandardCharsets.US_ASCII)); // completes the line
+                    out.flush();
+                    two.getOutputStream().write("2,1500,SystolicPressure,121.0\n".getBytes(StandardCharsets.US_ASCII));
+                    two.getOutputStream().flush();
+
+                    awaitRecords(storage, 1, "ECG", 1);
+                    awaitRecords(storage, 2, "SystolicPressure", 1);
+                    assertEquals(97.0, storage.getRecords(1, "Saturation", 0, 5000).get(0).getMeasurementValue());
+                    assertEquals(0.25, storage.getRecords(1, "ECG", 0, 5000).get(0).getMeasurementValue());
+                    assertEquals(121.0, storage.getRecords(2, "SystolicPressure", 0, 5000).get(0)
+                            .getMeasurementValue());
+                }
+            }
+        }
+    }
+
+    private static void awaitRecords(DataStorage storage, int patientId, String recordType, int count)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (storage.getRecords(patientId, recordType, 0, Long.MAX_VALUE).size() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, storage.getRecords(patientId, recordType, 0, Long.MAX_VALUE).size());
+    }
+}
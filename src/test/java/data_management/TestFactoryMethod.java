@@ -2,9 +2,12 @@ package data_management;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.dispatch.AlertPriority;
 import com.alerts.factory.AlertFactory;
 import com.alerts.factory.BloodOxygenAlertFactory;
 import com.alerts.factory.BloodPressureAlertFactory;
@@ -36,6 +39,25 @@ public class TestFactoryMethod {
         testFactory(new BloodPressureAlertFactory(), "13", "high blood pressure", 2632283355000L);
     }
 
+    /*
+        Test that alerts for registered conditions share the condition and
+        still report the textual patient ID and condition.
+    */
+    @Test
+    public void testAlertFactoryRegisteredCondition() {
+        Alert alert = new BloodOxygenAlertFactory().createAlert(12, BloodOxygenAlertFactory.LOW_SATURATION,
+                2632283355000L);
+        assertEquals("12", alert.getPatientId());
+        assertEquals(12, alert.getNumericPatientId());
+        assertEquals("Low Saturation Alert", alert.getCondition());
+        assertSame(BloodOxygenAlertFactory.LOW_SATURATION, AlertCondition.of("Low Saturation Alert"));
+        assertSame(alert.getAlertCondition(), new Alert("12", "Low Saturation Alert", 0).getAlertCondition());
+        assertSame(BloodOxygenAlertFactory.LOW_SATURATION,
+                AlertCondition.forCode(BloodOxygenAlertFactory.LOW_SATURATION.getCode()));
+        assertEquals(AlertPriority.CRITICAL, AlertPriority.of(new BloodPressureAlertFactory()
+                .createAlert(13, BloodPressureAlertFactory.HYPOTENSIVE_HYPOXEMIA, 0)));
+    }
+
     /*
         Generic method to test the creation of alerts.
     */
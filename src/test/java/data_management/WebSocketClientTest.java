@@ -31,6 +31,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.data_management.DataStorage;
+import com.data_management.RecordTypeRegistry;
 import com.data_management.TheWebSocketClient;
 
 public class WebSocketClientTest {
@@ -69,7 +70,7 @@ public class WebSocketClientTest {
         // Test with a valid message
         String message = "Patient ID: 25, Timestamp: 22127484682232, Label: ECG, Data: -0.22423456666854234";
         client.onMessage(message);
-        verify(mockStorage).addPatientData(25, -0.22423456666854234, "ECG", 22127484682232L);
+        verify(mockStorage).addPatientData(25, -0.22423456666854234, RecordTypeRegistry.ECG, 22127484682232L);
     }
 
     @Test
@@ -77,7 +78,7 @@ public class WebSocketClientTest {
         // Test with an invalid message
         String message = "Invalid message";
         client.onMessage(message);
-        verify(mockStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        verify(mockStorage, never()).addPatientData(anyInt(), anyDouble(), anyInt(), anyLong());
     }
 
     @Test
@@ -85,7 +86,7 @@ public class WebSocketClientTest {
         // Test with a message containing a parsing error
         String message = "Patient ID: not_number, Timestamp: 22127484682232, Label: M, Data: 12233.789";
         client.onMessage(message);
-        verify(mockStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        verify(mockStorage, never()).addPatientData(anyInt(), anyDouble(), anyInt(), anyLong());
     }
 
 
@@ -93,7 +94,7 @@ public class WebSocketClientTest {
     public void testOnMessage_unexpectedError() {
         TheWebSocketClient spyClient = spy(client);
     
-        doThrow(new RuntimeException("Unexpected error")).when(mockStorage).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        doThrow(new RuntimeException("Unexpected error")).when(mockStorage).addPatientData(anyInt(), anyDouble(), anyInt(), anyLong());
     
         try {
             String message = "Patient ID: 20, Timestamp: 22127484682232, Label: EEG, Data: 0.23445563464532";
@@ -180,4 +181,45 @@ public class WebSocketClientTest {
         System.setErr(originalErr);
         assertTrue(errContent.toString().contains("Connection failed"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnMessagePlainFormat() {
+        client.onMessage("7,1715882374652,SystolicPressure,123.0");
+        verify(mockStorage).addPatientData(7, 123.0, RecordTypeRegistry.SYSTOLIC_PRESSURE, 1715882374652L);
+    }
+
+    @Test
+    public void testOnMessageSaturationAndAlertValues() {
+        client.onMessage("Patient ID: 3, Timestamp: 1000, Label: Saturation, Data: 97.0%");
+        client.onMessage("3,2000,Alert,triggered");
+        verify(mockStorage).addPatientData(3, 97.0, RecordTypeRegistry.SATURATION, 1000L);
+        verify(mockStorage).addPatientData(3, 1.0, RecordTypeRegistry.ALERT, 2000L);
+    }
+
+    @Test
+    public void testOnMessageLogsOnlyWhenEnabled() {
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            client.onMessage("1,1000,ECG,0.5");
+            assertFalse(outContent.toString().contains("Received message"));
+            client.setLogMessages(true);
+            client.onMessage("1,2000,ECG,0.5");
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertTrue(outContent.toString().contains("Received message: 1,2000,ECG,0.5"));
+        verify(mockStorage).addPatientData(1, 0.5, RecordTypeRegistry.ECG, 1000L);
+    }
+
+    @Test
+    public void testOnMessageParsesLikeTheByteReaders() {
+        client.onMessage("4,1000,HeartRate,7.5e1");
+        client.onMessage("4,2000,HeartRate,\t80\n");
+        client.onMessage("4,3000,HeartRate,1e22");
+        verify(mockStorage).addPatientData(4, 75.0, RecordTypeRegistry.HEART_RATE, 1000L);
+        verify(mockStorage).addPatientData(4, 80.0, RecordTypeRegistry.HEART_RATE, 2000L);
+        verify(mockStorage).addPatientData(4, 1e22, RecordTypeRegistry.HEART_RATE, 3000L);
+    }
+}